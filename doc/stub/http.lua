@@ -20,7 +20,7 @@
 --
 -- @tparam[2] {
 --   url = string, body? = string, headers? = { [string] = string },
---   binary? = boolean, method? = string, redirect? = boolean,
+--   binary? = boolean, method? = string, redirect? = boolean, stream? = boolean,
 -- } request Options for the request.
 --
 -- This table form is an expanded version of the previous syntax. All arguments
@@ -32,6 +32,11 @@
 --
 --  - `method`: Which HTTP method to use, for instance `"PATCH"` or `"DELETE"`.
 --  - `redirect`: Whether to follow HTTP redirects. Defaults to true.
+--  - `stream`: Whether to stream the response body. If true, the response
+--    event is fired as soon as the headers have been received, and the body is
+--    downloaded as it is read, rather than being held in memory. Reading from
+--    the handle may then wait for more data to arrive. Streamed responses are
+--    always read in binary mode. Defaults to false.
 --
 -- @see http.get  For a synchronous way to make GET requests.
 -- @see http.post For a synchronous way to make POST requests.
@@ -53,7 +58,7 @@ function request(...) end
 --
 -- @tparam[2] {
 --   url = string, headers? = { [string] = string },
---   binary? = boolean, method? = string, redirect? = boolean,
+--   binary? = boolean, method? = string, redirect? = boolean, stream? = boolean,
 -- } request Options for the request. See @{http.request} for details on how
 -- these options behave.
 --
@@ -91,7 +96,7 @@ function get(...) end
 --
 -- @tparam[2] {
 --   url = string, body? = string, headers? = { [string] = string },
---   binary? = boolean, method? = string, redirect? = boolean,
+--   binary? = boolean, method? = string, redirect? = boolean, stream? = boolean,
 -- } request Options for the request. See @{http.request} for details on how
 -- these options behave.
 --
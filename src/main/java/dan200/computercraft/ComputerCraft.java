@@ -51,9 +51,15 @@
     public static boolean commandRequireCreative = true;
 
     public static int computerThreads = 1;
+    public static boolean computerWorkStealing = false;
     public static long maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( 10 );
     public static long maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( 5 );
 
+    public static boolean metricsEnabled = false;
+    public static String metricsAddress = "127.0.0.1";
+    public static int metricsPort = 9225;
+    public static int metricsTopComputers = 10;
+
     public static boolean httpEnabled = true;
     public static boolean httpWebsocketEnabled = true;
     public static List<AddressRule> httpRules = List.of(
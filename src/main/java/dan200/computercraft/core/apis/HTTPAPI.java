@@ -81,7 +81,7 @@ public final Object[] request( IArguments args ) throws LuaException
     {
         String address, postString, requestMethod;
         Map<?, ?> headerTable;
-        boolean binary, redirect;
+        boolean binary, redirect, stream;
 
         if( args.get( 0 ) instanceof Map )
         {
@@ -92,6 +92,7 @@ public final Object[] request( IArguments args ) throws LuaException
             binary = optBooleanField( options, "binary", false );
             requestMethod = optStringField( options, "method", null );
             redirect = optBooleanField( options, "redirect", true );
+            stream = optBooleanField( options, "stream", false );
 
         }
         else
@@ -103,6 +104,7 @@ public final Object[] request( IArguments args ) throws LuaException
             binary = args.optBoolean( 3, false );
             requestMethod = null;
             redirect = true;
+            stream = false;
         }
 
         HttpHeaders headers = getHeaders( headerTable );
@@ -124,7 +126,7 @@ public final Object[] request( IArguments args ) throws LuaException
         try
         {
             URI uri = HttpRequest.checkUri( address );
-            HttpRequest request = new HttpRequest( requests, apiEnvironment, address, postString, headers, binary, redirect );
+            HttpRequest request = new HttpRequest( requests, apiEnvironment, address, postString, headers, binary, redirect, stream );
 
             // Make the request
             if( !request.queue( r -> r.request( uri, httpMethod ) ) )
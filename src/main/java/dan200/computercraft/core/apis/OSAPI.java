@@ -33,6 +33,7 @@ public class OSAPI implements ILuaAPI
     private final IAPIEnvironment apiEnvironment;
 
     private final Int2ObjectMap<Alarm> alarms = new Int2ObjectOpenHashMap<>();
+    private final PriorityQueue<Alarm> pendingAlarms = new PriorityQueue<>();
     private int clock;
     private double time;
     private int day;
@@ -41,21 +42,26 @@ public class OSAPI implements ILuaAPI
 
     private static class Alarm implements Comparable<Alarm>
     {
+        final int token;
         final double time;
         final int day;
 
-        Alarm( double time, int day )
+        Alarm( int token, double time, int day )
         {
+            this.token = token;
             this.time = time;
             this.day = day;
         }
 
+        double getAbsoluteTime()
+        {
+            return day * 24.0 + time;
+        }
+
         @Override
         public int compareTo( @Nonnull Alarm o )
         {
-            double t = day * 24.0 + time;
-            double ot = day * 24.0 + time;
-            return Double.compare( t, ot );
+            return Double.compare( getAbsoluteTime(), o.getAbsoluteTime() );
         }
     }
 
@@ -80,6 +86,7 @@ public void startup()
         synchronized( alarms )
         {
             alarms.clear();
+            pendingAlarms.clear();
         }
     }
 
@@ -98,18 +105,14 @@ public void update()
 
             if( time > previousTime || day > previousDay )
             {
+                // Alarms are sorted by when they fire, so we only need to look at those which have expired.
                 double now = this.day * 24.0 + this.time;
-                Iterator<Int2ObjectMap.Entry<Alarm>> it = alarms.int2ObjectEntrySet().iterator();
-                while( it.hasNext() )
+                Alarm alarm;
+                while( (alarm = pendingAlarms.peek()) != null && now >= alarm.getAbsoluteTime() )
                 {
-                    Int2ObjectMap.Entry<Alarm> entry = it.next();
-                    Alarm alarm = entry.getValue();
-                    double t = alarm.day * 24.0 + alarm.time;
-                    if( now >= t )
-                    {
-                        apiEnvironment.queueEvent( "alarm", entry.getIntKey() );
-                        it.remove();
-                    }
+                    pendingAlarms.poll();
+                    alarms.remove( alarm.token );
+                    apiEnvironment.queueEvent( "alarm", alarm.token );
                 }
             }
 
@@ -124,6 +127,7 @@ public void shutdown()
         synchronized( alarms )
         {
             alarms.clear();
+            pendingAlarms.clear();
         }
     }
 
@@ -223,7 +227,9 @@ public final int setAlarm( double time ) throws LuaException
         synchronized( alarms )
         {
             int day = time > this.time ? this.day : this.day + 1;
-            alarms.put( nextAlarmToken, new Alarm( time, day ) );
+            Alarm alarm = new Alarm( nextAlarmToken, time, day );
+            alarms.put( alarm.token, alarm );
+            pendingAlarms.add( alarm );
             return nextAlarmToken++;
         }
     }
@@ -241,7 +247,8 @@ public final void cancelAlarm( int token )
     {
         synchronized( alarms )
         {
-            alarms.remove( token );
+            Alarm alarm = alarms.remove( token );
+            if( alarm != null ) pendingAlarms.remove( alarm );
         }
     }
 
@@ -369,6 +369,21 @@ public final MethodResult call( ILuaContext context, IArguments args ) throws Lu
         }
     }
 
+    @LuaFunction
+    public final MethodResult callBatch( ILuaContext context, Map<?, ?> calls ) throws LuaException
+    {
+        return PeripheralBatch.call( context, calls, name -> {
+            ComputerSide side = ComputerSide.valueOfInsensitive( name );
+            if( side == null ) return null;
+
+            synchronized( peripherals )
+            {
+                PeripheralWrapper p = peripherals[side.ordinal()];
+                return p == null ? null : p::call;
+            }
+        } );
+    }
+
     public static Map<String, PeripheralMethod> getMethods( IPeripheral peripheral )
     {
         String[] dynamicMethods = peripheral instanceof IDynamicPeripheral
@@ -0,0 +1,178 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Runs several peripheral methods within a single main thread task. This backs {@code peripheral.callBatch} and
+ * {@code modem.callRemoteBatch}.
+ *
+ * Normally each {@link LuaFunction#mainThread()} method is issued as its own task, and so takes at least one tick to
+ * complete. A batch instead calls every method from one task, passing them a context which runs any main thread work
+ * immediately.
+ *
+ * To stay within the computer's main thread budget, a batch stops once it has run for
+ * {@link ComputerCraft#maxMainComputerTime}, returning the results of the calls made so far. The caller should then
+ * resubmit the remaining calls.
+ */
+public final class PeripheralBatch
+{
+    private static final ILuaContext BATCH_CONTEXT = new BatchContext();
+
+    /**
+     * The maximum length of a single call, including its name and method.
+     */
+    private static final int MAX_LENGTH = 256;
+
+    private PeripheralBatch()
+    {
+    }
+
+    /**
+     * A peripheral which methods may be called on.
+     */
+    @FunctionalInterface
+    public interface Target
+    {
+        MethodResult call( ILuaContext context, String method, IArguments arguments ) throws LuaException;
+    }
+
+    /**
+     * Run a batch of calls.
+     *
+     * @param context The current Lua context.
+     * @param calls   A list of calls, each of the form {@code { name, method, ...args }}. Arguments may contain
+     *                {@code nil}, in which case the call should have an {@code n} field.
+     * @param resolve Find a peripheral by name, returning {@code null} if it does not exist.
+     * @return A list with the results of each call, either {@code { true, ...values }} or {@code { false, error }}.
+     * This may be shorter than the list of calls if the batch ran out of time.
+     * @throws LuaException If the calls are malformed.
+     */
+    public static MethodResult call( ILuaContext context, Map<?, ?> calls, Function<String, Target> resolve ) throws LuaException
+    {
+        List<Call> batch = new ArrayList<>();
+        for( int i = 1; ; i++ )
+        {
+            Object value = calls.get( (double) i );
+            if( value == null ) break;
+            if( !(value instanceof Map<?, ?> call) ) throw LuaValues.badTableItem( i, "table", LuaValues.getType( value ) );
+
+            Object name = call.get( 1.0 ), method = call.get( 2.0 );
+            if( !(name instanceof String) ) throw new LuaException( "call #" + i + ": bad name (string expected, got " + LuaValues.getType( name ) + ")" );
+            if( !(method instanceof String) ) throw new LuaException( "call #" + i + ": bad method (string expected, got " + LuaValues.getType( method ) + ")" );
+
+            int length = getLength( call );
+            if( length > MAX_LENGTH ) throw new LuaException( "call #" + i + ": too many arguments" );
+
+            List<Object> arguments = new ArrayList<>( Math.max( 0, length - 2 ) );
+            for( int j = 3; j <= length; j++ ) arguments.add( call.get( (double) j ) );
+
+            batch.add( new Call( (String) name, resolve.apply( (String) name ), (String) method, new ObjectArguments( arguments ) ) );
+        }
+
+        if( batch.isEmpty() ) return MethodResult.of( Collections.emptyList() );
+        return context.executeMainThreadTask( () -> new Object[] { run( batch ) } );
+    }
+
+    /**
+     * Get the length of a call, including its name and method. This is either the {@code n} field (as set by
+     * {@code table.pack}) or the largest integer key, allowing arguments to contain {@code nil}.
+     *
+     * @param call The call to measure.
+     * @return The length of this call.
+     */
+    private static int getLength( Map<?, ?> call )
+    {
+        if( call.get( "n" ) instanceof Number n ) return (int) n.doubleValue();
+
+        int length = 0;
+        for( Object key : call.keySet() )
+        {
+            // Casting to an int saturates, so very large indices are still rejected.
+            if( key instanceof Double index && index > length && index == Math.floor( index ) ) length = (int) (double) index;
+        }
+        return length;
+    }
+
+    private static List<Object> run( List<Call> calls )
+    {
+        long deadline = System.nanoTime() + ComputerCraft.maxMainComputerTime;
+        List<Object> results = new ArrayList<>( calls.size() );
+        for( Call call : calls )
+        {
+            // Always make some progress, but otherwise stop once we've used up a tick's worth of time.
+            if( !results.isEmpty() && System.nanoTime() >= deadline ) break;
+            results.add( call.run() );
+        }
+        return results;
+    }
+
+    private record Call(String name, @Nullable Target target, String method, IArguments arguments)
+    {
+        Object[] run()
+        {
+            if( target == null ) return new Object[] { false, "No peripheral: " + name };
+
+            MethodResult result;
+            try
+            {
+                result = target.call( BATCH_CONTEXT, method, arguments );
+            }
+            catch( LuaException e )
+            {
+                return new Object[] { false, e.getMessage() };
+            }
+            catch( Throwable t )
+            {
+                if( ComputerCraft.logComputerErrors )
+                {
+                    ComputerCraft.log.error( "Error calling " + method + " on " + name, t );
+                }
+                return new Object[] { false, "Java Exception Thrown: " + t };
+            }
+
+            if( result.getCallback() != null ) return new Object[] { false, "Method " + method + " cannot be batched" };
+
+            Object[] values = result.getResult();
+            if( values == null ) return new Object[] { true };
+
+            Object[] out = new Object[values.length + 1];
+            out[0] = true;
+            System.arraycopy( values, 0, out, 1, values.length );
+            return out;
+        }
+    }
+
+    /**
+     * The context batched methods are called with. As we are already on the main thread, any main thread work is run
+     * immediately, rather than being queued.
+     */
+    private static final class BatchContext implements ILuaContext
+    {
+        @Override
+        public long issueMainThreadTask( @Nonnull ILuaTask task ) throws LuaException
+        {
+            throw new LuaException( "Cannot issue main thread tasks from a batch" );
+        }
+
+        @Nonnull
+        @Override
+        public MethodResult executeMainThreadTask( @Nonnull ILuaTask task ) throws LuaException
+        {
+            return MethodResult.of( task.execute() );
+        }
+    }
+}
@@ -8,6 +8,7 @@
 import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.LuaValues;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.util.Palette;
 import dan200.computercraft.shared.util.StringUtil;
@@ -15,6 +16,8 @@
 
 import javax.annotation.Nonnull;
 import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * A base class for all objects which interact with a terminal. Namely the {@link TermAPI} and monitors.
@@ -299,6 +302,59 @@ public final void blit( ByteBuffer text, ByteBuffer textColour, ByteBuffer backg
         }
     }
 
+    /**
+     * Writes several lines of text to the terminal at once, each with their own foreground and background colours.
+     *
+     * This behaves like calling {@link #setCursorPos} and {@link #blit} for each line, but is significantly faster
+     * when redrawing large areas of the screen. The cursor is not moved.
+     *
+     * Each table should contain a list of strings, and the strings for each line must all be the same length, as with
+     * {@link #blit}. Drawing stops at the first missing line.
+     *
+     * @param text             The text of each line.
+     * @param textColour       The text colours of each line.
+     * @param backgroundColour The background colours of each line.
+     * @param x                The column to draw the lines at. Defaults to 1.
+     * @param y                The line to draw the first line at. Defaults to 1.
+     * @throws LuaException If any of the lines are not strings, or are not the same length.
+     * @cc.usage Draw a red and white checkerboard in the top left corner of the screen.
+     * <pre>{@code
+     * term.blitLines(
+     *   { "    ", "    " },
+     *   { "0000", "0000" },
+     *   { "e0e0", "0e0e" }
+     * )
+     * }</pre>
+     */
+    @LuaFunction
+    public final void blitLines( Map<?, ?> text, Map<?, ?> textColour, Map<?, ?> backgroundColour, Optional<Integer> x, Optional<Integer> y ) throws LuaException
+    {
+        int count = 0;
+        while( text.containsKey( (double) (count + 1) ) ) count++;
+
+        String[] lines = new String[count], textColours = new String[count], backgroundColours = new String[count];
+        for( int i = 0; i < count; i++ )
+        {
+            lines[i] = getLine( text, i + 1 );
+            textColours[i] = getLine( textColour, i + 1 );
+            backgroundColours[i] = getLine( backgroundColour, i + 1 );
+
+            if( textColours[i].length() != lines[i].length() || backgroundColours[i].length() != lines[i].length() )
+            {
+                throw new LuaException( "Line " + (i + 1) + ": arguments must be the same length" );
+            }
+        }
+
+        getTerminal().blitLines( x.orElse( 1 ) - 1, y.orElse( 1 ) - 1, lines, textColours, backgroundColours );
+    }
+
+    private static String getLine( Map<?, ?> table, int index ) throws LuaException
+    {
+        Object value = table.get( (double) index );
+        if( value instanceof String line ) return line;
+        throw LuaValues.badTableItem( index, "string", LuaValues.getType( value ) );
+    }
+
     /**
      * Set the palette for a specific colour.
      *
@@ -40,6 +40,22 @@ public int read( ByteBuffer destination ) throws ClosedChannelException
         return remaining;
     }
 
+    /**
+     * Move to the end of this channel, returning a view of the skipped contents. The returned buffer shares the
+     * backing array, and so must not be modified.
+     *
+     * @return The remaining contents of this channel.
+     * @throws ClosedChannelException If the channel is closed.
+     */
+    ByteBuffer consumeRemaining() throws ClosedChannelException
+    {
+        if( closed ) throw new ClosedChannelException();
+
+        int start = Math.min( position, backing.length );
+        position = Math.max( position, backing.length );
+        return ByteBuffer.wrap( backing, start, backing.length - start );
+    }
+
     @Override
     public int write( ByteBuffer src ) throws ClosedChannelException
     {
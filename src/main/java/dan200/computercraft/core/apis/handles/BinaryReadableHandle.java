@@ -8,6 +8,7 @@
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.LuaFunction;
 import dan200.computercraft.core.filesystem.TrackingCloseable;
+import dan200.computercraft.core.lua.OwnedBytes;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -15,6 +16,7 @@
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,10 +29,20 @@
 public class BinaryReadableHandle extends HandleGeneric
 {
     private static final int BUFFER_SIZE = 8192;
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate( 0 );
 
     private final ReadableByteChannel reader;
     final SeekableByteChannel seekable;
-    private final ByteBuffer single = ByteBuffer.allocate( 1 );
+
+    /**
+     * Data which has been read from the channel but not yet returned. This is always in "read" mode, and so is empty
+     * when {@code buffer.hasRemaining()} is false.
+     *
+     * Small reads (and especially reading a byte at a time) are served from this buffer, rather than going to the
+     * underlying channel each time. The buffer is only allocated when first filled, and for in-memory channels
+     * ({@link ArrayByteChannel}) it is a view of the channel's contents instead.
+     */
+    private ByteBuffer buffer = EMPTY;
 
     BinaryReadableHandle( ReadableByteChannel reader, SeekableByteChannel seekable, TrackingCloseable closeable )
     {
@@ -75,47 +87,61 @@ public final Object[] read( Optional<Integer> countArg ) throws LuaException
                 if( count < 0 ) throw new LuaException( "Cannot read a negative number of bytes" );
                 if( count == 0 && seekable != null )
                 {
-                    return seekable.position() >= seekable.size() ? null : new Object[] { "" };
+                    return !buffer.hasRemaining() && seekable.position() >= seekable.size() ? null : new Object[] { "" };
                 }
 
                 if( count <= BUFFER_SIZE )
                 {
-                    ByteBuffer buffer = ByteBuffer.allocate( count );
+                    // Copy from our buffer, refilling it as needed.
+                    byte[] bytes = new byte[count];
+                    int totalRead = 0;
+                    while( totalRead < count && (buffer.hasRemaining() || fill() > 0) )
+                    {
+                        int length = Math.min( count - totalRead, buffer.remaining() );
+                        buffer.get( bytes, totalRead, length );
+                        totalRead += length;
+                    }
+
+                    if( totalRead == 0 && count > 0 ) return null;
 
-                    int read = reader.read( buffer );
-                    if( read < 0 ) return null;
-                    buffer.flip();
-                    return new Object[] { buffer };
+                    // Don't hold on to a mostly empty array if we hit the end of the file early.
+                    if( totalRead < count / 2 ) return new Object[] { OwnedBytes.of( Arrays.copyOf( bytes, totalRead ) ) };
+                    return new Object[] { OwnedBytes.of( bytes, 0, totalRead ) };
                 }
                 else
                 {
-                    // Read the initial set of characters, failing if none are read.
-                    ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
-                    int read = reader.read( buffer );
-                    if( read < 0 ) return null;
-
-                    // If we failed to read "enough" here, let's just abort
-                    if( read >= count || read < BUFFER_SIZE )
-                    {
-                        buffer.flip();
-                        return new Object[] { buffer };
-                    }
-
                     // Build up an array of ByteBuffers. Hopefully this means we can perform less allocation
                     // than doubling up the buffer each time.
-                    int totalRead = read;
+                    int totalRead = 0;
                     List<ByteBuffer> parts = new ArrayList<>( 4 );
-                    parts.add( buffer );
-                    while( read >= BUFFER_SIZE && totalRead < count )
+                    if( buffer.hasRemaining() )
                     {
-                        buffer = ByteBuffer.allocate( Math.min( BUFFER_SIZE, count - totalRead ) );
-                        read = reader.read( buffer );
-                        if( read < 0 ) break;
+                        // The buffer may hold more than we want (such as for in-memory channels), so only take what we
+                        // need from it.
+                        int length = Math.min( buffer.remaining(), count );
+                        ByteBuffer part = ByteBuffer.allocate( length );
+                        part.put( buffer.array(), buffer.arrayOffset() + buffer.position(), length );
+                        buffer.position( buffer.position() + length );
+                        parts.add( part );
+                        totalRead += part.position();
+                    }
+
+                    // Large reads go straight to the channel, bypassing our buffer.
+                    while( totalRead < count )
+                    {
+                        ByteBuffer part = ByteBuffer.allocate( Math.min( BUFFER_SIZE, count - totalRead ) );
+                        int read = reader.read( part );
+                        if( read <= 0 ) break;
 
                         totalRead += read;
-                        parts.add( buffer );
+                        parts.add( part );
+
+                        // If we failed to read "enough" here, let's just abort
+                        if( part.hasRemaining() ) break;
                     }
 
+                    if( totalRead == 0 ) return null;
+
                     // Now just copy all the bytes across!
                     byte[] bytes = new byte[totalRead];
                     int pos = 0;
@@ -124,14 +150,13 @@ public final Object[] read( Optional<Integer> countArg ) throws LuaException
                         System.arraycopy( part.array(), 0, bytes, pos, part.position() );
                         pos += part.position();
                     }
-                    return new Object[] { bytes };
+                    return new Object[] { OwnedBytes.of( bytes ) };
                 }
             }
             else
             {
-                single.clear();
-                int b = reader.read( single );
-                return b == -1 ? null : new Object[] { single.get( 0 ) & 0xFF };
+                if( !buffer.hasRemaining() && fill() <= 0 ) return null;
+                return new Object[] { buffer.get() & 0xFF };
             }
         }
         catch( IOException e )
@@ -155,21 +180,17 @@ public final Object[] readAll() throws LuaException
         try
         {
             int expected = 32;
-            if( seekable != null ) expected = Math.max( expected, (int) (seekable.size() - seekable.position()) );
+            if( seekable != null ) expected = Math.max( expected, (int) (seekable.size() - seekable.position()) + buffer.remaining() );
             ByteArrayOutputStream stream = new ByteArrayOutputStream( expected );
 
-            ByteBuffer buf = ByteBuffer.allocate( 8192 );
             boolean readAnything = false;
-            while( true )
+            while( buffer.hasRemaining() || fill() > 0 )
             {
-                buf.clear();
-                int r = reader.read( buf );
-                if( r == -1 ) break;
-
                 readAnything = true;
-                stream.write( buf.array(), 0, r );
+                stream.write( buffer.array(), buffer.position(), buffer.remaining() );
+                buffer.position( buffer.limit() );
             }
-            return readAnything ? new Object[] { stream.toByteArray() } : null;
+            return readAnything ? new Object[] { OwnedBytes.of( stream.toByteArray() ) } : null;
         }
         catch( IOException e )
         {
@@ -194,43 +215,53 @@ public final Object[] readLine( Optional<Boolean> withTrailingArg ) throws LuaEx
         boolean withTrailing = withTrailingArg.orElse( false );
         try
         {
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-
-            boolean readAnything = false, readRc = false;
+            // Only used if the line spans multiple reads from the channel.
+            ByteArrayOutputStream stream = null;
             while( true )
             {
-                single.clear();
-                int read = reader.read( single );
-                if( read <= 0 )
+                if( !buffer.hasRemaining() && fill() <= 0 )
                 {
-                    // Nothing else to read, and we saw no \n. Return the array. If we saw a \r, then add it
-                    // back.
-                    if( readRc ) stream.write( '\r' );
-                    return readAnything ? new Object[] { stream.toByteArray() } : null;
+                    // Nothing else to read, and we saw no \n. Return what we have (if anything).
+                    return stream == null ? null : new Object[] { OwnedBytes.of( stream.toByteArray() ) };
                 }
 
-                readAnything = true;
+                byte[] contents = buffer.array();
+                int start = buffer.position(), limit = buffer.limit();
+                int newline = start;
+                while( newline < limit && contents[newline] != '\n' ) newline++;
 
-                byte chr = single.get( 0 );
-                if( chr == '\n' )
+                if( newline == limit )
                 {
-                    if( withTrailing )
-                    {
-                        if( readRc ) stream.write( '\r' );
-                        stream.write( chr );
-                    }
-                    return new Object[] { stream.toByteArray() };
+                    if( stream == null ) stream = new ByteArrayOutputStream();
+                    stream.write( contents, start, limit - start );
+                    buffer.position( limit );
+                    continue;
+                }
+
+                buffer.position( newline + 1 );
+
+                byte[] line;
+                if( stream == null )
+                {
+                    line = Arrays.copyOfRange( contents, start, newline + 1 );
                 }
                 else
                 {
-                    // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
-                    // Note, this behaviour is non-standard compliant (strictly speaking we should have no
-                    // special logic for \r), but we preserve compatibility with EncodedReadableHandle and
-                    // previous behaviour of the io library.
-                    if( readRc ) stream.write( '\r' );
-                    readRc = chr == '\r';
-                    if( !readRc ) stream.write( chr );
+                    stream.write( contents, start, newline + 1 - start );
+                    line = stream.toByteArray();
+                }
+
+                // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
+                // Note, this behaviour is non-standard compliant (strictly speaking we should have no special logic
+                // for \r), but we preserve compatibility with EncodedReadableHandle and previous behaviour of the io
+                // library.
+                int length = line.length;
+                if( !withTrailing )
+                {
+                    length--;
+                    if( length > 0 && line[length - 1] == '\r' ) length--;
                 }
+                return new Object[] { OwnedBytes.of( line, 0, length ) };
             }
         }
         catch( IOException e )
@@ -239,6 +270,42 @@ public final Object[] readLine( Optional<Boolean> withTrailingArg ) throws LuaEx
         }
     }
 
+    /**
+     * Refill the read-ahead buffer from the channel. This should only be called when the buffer is empty.
+     *
+     * @return The number of bytes read, or {@code -1} if at the end of the channel.
+     * @throws IOException If the channel could not be read from.
+     */
+    private int fill() throws IOException
+    {
+        if( reader instanceof ArrayByteChannel array )
+        {
+            // The channel is already in memory, so just read from its backing array rather than copying.
+            buffer = array.consumeRemaining();
+            return buffer.hasRemaining() ? buffer.remaining() : -1;
+        }
+
+        if( buffer == EMPTY ) buffer = ByteBuffer.allocate( BUFFER_SIZE );
+        buffer.clear();
+        int read = reader.read( buffer );
+        buffer.flip();
+        return read;
+    }
+
+    /**
+     * Discard any buffered data, moving the channel back to the position we have actually read up to.
+     *
+     * @throws IOException If the channel could not be repositioned.
+     */
+    void discardBuffer() throws IOException
+    {
+        if( !buffer.hasRemaining() ) return;
+
+        int remaining = buffer.remaining();
+        buffer.limit( 0 );
+        seekable.position( seekable.position() - remaining );
+    }
+
     public static class Seekable extends BinaryReadableHandle
     {
         Seekable( SeekableByteChannel seekable, TrackingCloseable closeable )
@@ -269,6 +336,15 @@ public static class Seekable extends BinaryReadableHandle
         public final Object[] seek( Optional<String> whence, Optional<Long> offset ) throws LuaException
         {
             checkOpen();
+            try
+            {
+                discardBuffer();
+            }
+            catch( IOException e )
+            {
+                return null;
+            }
+
             return handleSeek( seekable, whence, offset );
         }
     }
@@ -0,0 +1,186 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+import io.netty.util.NetUtil;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * Resolves host names off-thread.
+ *
+ * Lookups run on their own executor, so a slow DNS server does not block {@link NetworkUtils#EXECUTOR}. Concurrent
+ * lookups of the same host share a single query, so one host can never occupy more than one lookup thread. Lookups
+ * which take longer than {@link #TIMEOUT} fail, though the query itself keeps its thread until it finishes.
+ *
+ * Successful lookups are cached by {@link InetAddress} itself, so we only cache unknown hosts (for the JVM's
+ * {@code networkaddress.cache.negative.ttl}). This avoids queueing another lookup for hosts we know do not exist.
+ *
+ * Note this only caches addresses: whether an address may be accessed is checked against the
+ * {@link dan200.computercraft.core.apis.http.options.AddressRule}s every time it is used.
+ */
+final class AddressResolver
+{
+    private static final int MAX_ENTRIES = 1024;
+
+    private static final long NEGATIVE_TTL = getTtl( "networkaddress.cache.negative.ttl", 10 );
+
+    /**
+     * The maximum time to wait for a lookup, in seconds.
+     */
+    private static final long TIMEOUT = 10;
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+        4, 4, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), ThreadUtils.factory( "DNS" )
+    );
+
+    private static final ConcurrentMap<String, Entry> cache = new ConcurrentHashMap<>();
+
+    static
+    {
+        EXECUTOR.allowCoreThreadTimeOut( true );
+    }
+
+    private AddressResolver()
+    {
+    }
+
+    /**
+     * Resolve a host name.
+     *
+     * @param host The host to resolve.
+     * @return A future which completes with the resolved address, or fails with a {@link HTTPRequestException} if
+     * the host could not be found.
+     */
+    static CompletableFuture<InetAddress> resolve( String host )
+    {
+        // IP literals don't need a lookup at all.
+        byte[] literal = NetUtil.createByteArrayFromIpAddressString( host );
+        if( literal != null )
+        {
+            try
+            {
+                return CompletableFuture.completedFuture( InetAddress.getByAddress( literal ) );
+            }
+            catch( UnknownHostException ignored )
+            {
+                // Only thrown for addresses of an illegal length, so fall through to a normal lookup.
+            }
+        }
+
+        String key = host.toLowerCase( Locale.ROOT );
+        long now = System.nanoTime();
+        Entry entry = cache.get( key );
+        if( entry != null && !entry.isExpired( now ) ) return entry.result.copy();
+
+        if( cache.size() >= MAX_ENTRIES )
+        {
+            cache.values().removeIf( x -> x.isExpired( now ) );
+            if( cache.size() >= MAX_ENTRIES ) cache.clear();
+        }
+
+        Entry created = new Entry( key );
+        entry = cache.compute( key, ( k, existing ) -> existing != null && !existing.isExpired( now ) ? existing : created );
+        if( entry == created )
+        {
+            EXECUTOR.execute( () -> created.lookup( host ) );
+            NetworkUtils.EXECUTOR.schedule(
+                () -> created.result.completeExceptionally( new HTTPRequestException( "Timed out resolving host" ) ),
+                TIMEOUT, TimeUnit.SECONDS
+            );
+        }
+        return entry.result.copy();
+    }
+
+    static void reset()
+    {
+        cache.clear();
+    }
+
+    private static long getTtl( String property, long fallback )
+    {
+        long ttl = fallback;
+        try
+        {
+            String value = Security.getProperty( property );
+            if( value != null ) ttl = Long.parseLong( value.trim() );
+        }
+        catch( NumberFormatException | SecurityException ignored )
+        {
+        }
+
+        // Negative values mean "cache forever", as with InetAddress.
+        return ttl < 0 ? Long.MAX_VALUE : TimeUnit.SECONDS.toNanos( ttl );
+    }
+
+    private static final class Entry
+    {
+        final String key;
+        final CompletableFuture<InetAddress> result = new CompletableFuture<>();
+
+        /**
+         * When this entry expires. This is only set once the lookup has finished, so in-progress lookups are never
+         * evicted.
+         */
+        private volatile long expiry;
+        private volatile boolean done;
+
+        Entry( String key )
+        {
+            this.key = key;
+        }
+
+        boolean isExpired( long now )
+        {
+            return done && expiry != Long.MAX_VALUE && now - expiry >= 0;
+        }
+
+        void lookup( String host )
+        {
+            // If we timed out while queued, give up now rather than tying up this thread.
+            if( result.isDone() )
+            {
+                finish( 0 );
+                return;
+            }
+
+            InetAddress address;
+            try
+            {
+                address = InetAddress.getByName( host );
+            }
+            catch( UnknownHostException e )
+            {
+                finish( NEGATIVE_TTL );
+                result.completeExceptionally( new HTTPRequestException( "Unknown host" ) );
+                return;
+            }
+            catch( RuntimeException e )
+            {
+                if( ComputerCraft.logComputerErrors ) ComputerCraft.log.error( "Error resolving {}", host, e );
+                finish( 0 );
+                result.completeExceptionally( new HTTPRequestException( "Unknown host" ) );
+                return;
+            }
+
+            // InetAddress caches successful lookups itself, so there's no need for us to as well.
+            cache.remove( key, this );
+            result.complete( address );
+        }
+
+        private void finish( long ttl )
+        {
+            expiry = ttl == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + ttl;
+            done = true;
+        }
+    }
+}
@@ -9,6 +9,7 @@
 import dan200.computercraft.core.apis.http.options.Action;
 import dan200.computercraft.core.apis.http.options.AddressRule;
 import dan200.computercraft.core.apis.http.options.Options;
+import dan200.computercraft.core.apis.http.request.HttpConnectionPool;
 import dan200.computercraft.shared.util.ThreadUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ConnectTimeoutException;
@@ -30,6 +31,8 @@
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.security.KeyStore;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
@@ -122,47 +125,32 @@ public static void reloadConfig()
     public static void reset()
     {
         SHAPING_HANDLER.trafficCounter().resetCumulativeTime();
+        HttpConnectionPool.reset();
+        AddressResolver.reset();
     }
 
     /**
-     * Create a {@link InetSocketAddress} from a {@link java.net.URI}.
+     * Resolve a {@link InetSocketAddress} from a {@link java.net.URI}.
      *
-     * Note, this may require a DNS lookup, and so should not be executed on the main CC thread.
+     * This does not block: the DNS lookup (if any) happens on a separate thread, and recently resolved hosts are
+     * cached.
      *
      * @param uri The URI to fetch.
      * @param ssl Whether to connect with SSL. This is used to find the default port if not otherwise specified.
-     * @return The resolved address.
-     * @throws HTTPRequestException If the host is not malformed.
+     * @return A future which completes with the resolved address, or fails with a {@link HTTPRequestException} if the
+     * host is unknown.
      */
-    public static InetSocketAddress getAddress( URI uri, boolean ssl ) throws HTTPRequestException
+    public static CompletableFuture<InetSocketAddress> getAddress( URI uri, boolean ssl )
     {
-        return getAddress( uri.getHost(), uri.getPort(), ssl );
-    }
-
-    /**
-     * Create a {@link InetSocketAddress} from the resolved {@code host} and port.
-     *
-     * Note, this may require a DNS lookup, and so should not be executed on the main CC thread.
-     *
-     * @param host The host to resolve.
-     * @param port The port, or -1 if not defined.
-     * @param ssl  Whether to connect with SSL. This is used to find the default port if not otherwise specified.
-     * @return The resolved address.
-     * @throws HTTPRequestException If the host is not malformed.
-     */
-    public static InetSocketAddress getAddress( String host, int port, boolean ssl ) throws HTTPRequestException
-    {
-        if( port < 0 ) port = ssl ? 443 : 80;
-        InetSocketAddress socketAddress = new InetSocketAddress( host, port );
-        if( socketAddress.isUnresolved() ) throw new HTTPRequestException( "Unknown host" );
-        return socketAddress;
+        int port = uri.getPort() < 0 ? (ssl ? 443 : 80) : uri.getPort();
+        return AddressResolver.resolve( uri.getHost() ).thenApply( address -> new InetSocketAddress( address, port ) );
     }
 
     /**
      * Get options for a specific domain.
      *
      * @param host    The host to resolve.
-     * @param address The address, resolved by {@link #getAddress(String, int, boolean)}.
+     * @param address The address, resolved by {@link #getAddress(URI, boolean)}.
      * @return The options for this host.
      * @throws HTTPRequestException If the host is not permitted
      */
@@ -189,6 +177,8 @@ public static byte[] toBytes( ByteBuf buffer )
     @Nonnull
     public static String toFriendlyError( @Nonnull Throwable cause )
     {
+        if( cause instanceof CompletionException && cause.getCause() != null ) cause = cause.getCause();
+
         if( cause instanceof WebSocketHandshakeException || cause instanceof HTTPRequestException )
         {
             return cause.getMessage();
@@ -0,0 +1,200 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.core.apis.http.NetworkUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPoolHandler;
+import io.netty.channel.pool.SimpleChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.Future;
+
+import javax.annotation.Nullable;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps HTTP connections alive once a request has finished, so later requests to the same server can skip the TCP and
+ * TLS handshakes.
+ *
+ * Connections are pooled by {@link Key}, which includes any options from the {@link
+ * dan200.computercraft.core.apis.http.options.AddressRule} which affect how a connection is opened. Each pool holds at
+ * most {@link #MAX_IDLE} idle connections, and connections which have been idle for more than {@link #IDLE_TIMEOUT}
+ * seconds are closed. The number of active connections is already bounded by {@code http.max_requests}.
+ */
+public final class HttpConnectionPool
+{
+    static final int MAX_IDLE = 4;
+    static final int IDLE_TIMEOUT = 30;
+
+    /**
+     * The pipeline handler before which per-request handlers should be added.
+     */
+    static final String CODEC = "codec";
+
+    private static final String IDLE = "idle";
+    private static final AttributeKey<Boolean> USED = AttributeKey.valueOf( "computercraft:http_used" );
+
+    private static final AbstractChannelPoolMap<Key, Pool> pools = new AbstractChannelPoolMap<>()
+    {
+        @Override
+        protected Pool newPool( Key key )
+        {
+            Bootstrap bootstrap = new Bootstrap()
+                .group( NetworkUtils.LOOP_GROUP )
+                .channelFactory( NioSocketChannel::new )
+                .remoteAddress( key.address() );
+            return new Pool( bootstrap, new Handler( key ) );
+        }
+    };
+
+    private HttpConnectionPool()
+    {
+    }
+
+    /**
+     * Acquire a connection to a server, either reusing an idle one or opening a new one.
+     *
+     * @param key The server to connect to.
+     * @return A future which completes with the connected channel.
+     */
+    static Future<Channel> acquire( Key key )
+    {
+        return pools.get( key ).acquire();
+    }
+
+    /**
+     * Return a connection to the pool once a request has finished. The channel's pipeline should be in the same state
+     * as it was when acquired.
+     *
+     * @param key     The key this channel was acquired with.
+     * @param channel The channel to release.
+     */
+    static void release( Key key, Channel channel )
+    {
+        channel.attr( USED ).set( true );
+        pools.get( key ).release( channel );
+    }
+
+    /**
+     * Determine if this channel has been used for a previous request.
+     *
+     * @param channel The channel to check.
+     * @return Whether this channel has been reused.
+     */
+    static boolean isReused( Channel channel )
+    {
+        return channel.hasAttr( USED );
+    }
+
+    /**
+     * Close all idle connections.
+     */
+    public static void reset()
+    {
+        pools.close();
+    }
+
+    /**
+     * Connections may only be shared between requests which would have opened an identical connection.
+     *
+     * @param address The resolved address of the server.
+     * @param host    The host name, used for TLS.
+     * @param ssl     The TLS context, or {@code null} if this is a plain HTTP connection.
+     * @param timeout The connect timeout, from the address rule's options.
+     */
+    record Key(InetSocketAddress address, String host, @Nullable SslContext ssl, int timeout)
+    {
+    }
+
+    private static final class Pool extends SimpleChannelPool
+    {
+        private final AtomicInteger idle = new AtomicInteger();
+
+        Pool( Bootstrap bootstrap, ChannelPoolHandler handler )
+        {
+            super( bootstrap, handler, ChannelHealthChecker.ACTIVE );
+        }
+
+        @Override
+        protected Channel pollChannel()
+        {
+            Channel channel = super.pollChannel();
+            if( channel != null ) idle.decrementAndGet();
+            return channel;
+        }
+
+        @Override
+        protected boolean offerChannel( Channel channel )
+        {
+            if( idle.incrementAndGet() <= MAX_IDLE && super.offerChannel( channel ) ) return true;
+
+            idle.decrementAndGet();
+            return false;
+        }
+    }
+
+    private static final class Handler implements ChannelPoolHandler
+    {
+        private final Key key;
+
+        Handler( Key key )
+        {
+            this.key = key;
+        }
+
+        @Override
+        public void channelCreated( Channel ch )
+        {
+            if( key.timeout() > 0 ) ch.config().setConnectTimeoutMillis( key.timeout() );
+
+            ChannelPipeline p = ch.pipeline();
+            p.addLast( NetworkUtils.SHAPING_HANDLER );
+            if( key.ssl() != null ) p.addLast( key.ssl().newHandler( ch.alloc(), key.host(), key.address().getPort() ) );
+            p.addLast( CODEC, new HttpClientCodec() );
+            p.addLast( new HttpContentDecompressor() );
+        }
+
+        @Override
+        public void channelAcquired( Channel ch )
+        {
+            ChannelPipeline p = ch.pipeline();
+            if( p.get( IDLE ) != null ) p.remove( IDLE );
+        }
+
+        @Override
+        public void channelReleased( Channel ch )
+        {
+            if( ch.isActive() ) ch.pipeline().addLast( IDLE, new IdleCloser() );
+        }
+    }
+
+    private static final class IdleCloser extends IdleStateHandler
+    {
+        IdleCloser()
+        {
+            super( 0, 0, IDLE_TIMEOUT, TimeUnit.SECONDS );
+        }
+
+        @Override
+        protected void channelIdle( ChannelHandlerContext ctx, IdleStateEvent evt )
+        {
+            ctx.close();
+        }
+    }
+}
@@ -13,18 +13,15 @@
 import dan200.computercraft.core.apis.http.ResourceGroup;
 import dan200.computercraft.core.apis.http.options.Options;
 import dan200.computercraft.core.tracking.TrackingField;
-import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelInitializer;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.*;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 
+import java.lang.ref.WeakReference;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -46,8 +43,10 @@ public class HttpRequest extends Resource<HttpRequest>
     private static final int MAX_REDIRECTS = 16;
 
     private Future<?> executorFuture;
-    private ChannelFuture connectFuture;
+    private Future<Channel> acquireFuture;
     private HttpRequestHandler currentRequest;
+    private HttpResponseStream stream;
+    private WeakReference<HttpResponseHandle> streamHandle;
 
     private final IAPIEnvironment environment;
 
@@ -55,10 +54,11 @@ public class HttpRequest extends Resource<HttpRequest>
     private final ByteBuf postBuffer;
     private final HttpHeaders headers;
     private final boolean binary;
+    private final boolean streaming;
 
     final AtomicInteger redirects;
 
-    public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, String postText, HttpHeaders headers, boolean binary, boolean followRedirects )
+    public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, String postText, HttpHeaders headers, boolean binary, boolean followRedirects, boolean streaming )
     {
         super( limiter );
         this.environment = environment;
@@ -68,6 +68,7 @@ public HttpRequest( ResourceGroup<HttpRequest> limiter, IAPIEnvironment environm
             : Unpooled.buffer( 0 );
         this.headers = headers;
         this.binary = binary;
+        this.streaming = streaming;
         redirects = new AtomicInteger( followRedirects ? MAX_REDIRECTS : 0 );
 
         if( postText != null )
@@ -121,25 +122,31 @@ public static void checkUri( URI url ) throws HTTPRequestException
     public void request( URI uri, HttpMethod method )
     {
         if( isClosed() ) return;
-        executorFuture = NetworkUtils.EXECUTOR.submit( () -> doRequest( uri, method ) );
+
+        boolean ssl = uri.getScheme().equalsIgnoreCase( "https" );
+        executorFuture = NetworkUtils.getAddress( uri, ssl ).whenCompleteAsync( ( socketAddress, error ) -> {
+            if( error == null )
+            {
+                doRequest( uri, method, ssl, socketAddress );
+            }
+            else
+            {
+                failure( NetworkUtils.toFriendlyError( error ) );
+            }
+        }, NetworkUtils.EXECUTOR );
         checkClosed();
     }
 
-    private void doRequest( URI uri, HttpMethod method )
+    private void doRequest( URI uri, HttpMethod method, boolean ssl, InetSocketAddress socketAddress )
     {
         // If we're cancelled, abort.
         if( isClosed() ) return;
 
         try
         {
-            boolean ssl = uri.getScheme().equalsIgnoreCase( "https" );
-            InetSocketAddress socketAddress = NetworkUtils.getAddress( uri, ssl );
             Options options = NetworkUtils.getOptions( uri.getHost(), socketAddress );
             SslContext sslContext = ssl ? NetworkUtils.getSslContext() : null;
 
-            // getAddress may have a slight delay, so let's perform another cancellation check.
-            if( isClosed() ) return;
-
             long requestBody = getHeaderSize( headers ) + postBuffer.capacity();
             if( options.maxUpload != 0 && requestBody > options.maxUpload )
             {
@@ -151,45 +158,8 @@ private void doRequest( URI uri, HttpMethod method )
             environment.addTrackingChange( TrackingField.HTTP_REQUESTS, 1 );
             environment.addTrackingChange( TrackingField.HTTP_UPLOAD, requestBody );
 
-            HttpRequestHandler handler = currentRequest = new HttpRequestHandler( this, uri, method, options );
-            connectFuture = new Bootstrap()
-                .group( NetworkUtils.LOOP_GROUP )
-                .channelFactory( NioSocketChannel::new )
-                .handler( new ChannelInitializer<SocketChannel>()
-                {
-                    @Override
-                    protected void initChannel( SocketChannel ch )
-                    {
-
-                        if( options.timeout > 0 )
-                        {
-                            ch.config().setConnectTimeoutMillis( options.timeout );
-                        }
-
-                        ChannelPipeline p = ch.pipeline();
-                        p.addLast( NetworkUtils.SHAPING_HANDLER );
-                        if( sslContext != null )
-                        {
-                            p.addLast( sslContext.newHandler( ch.alloc(), uri.getHost(), socketAddress.getPort() ) );
-                        }
-
-                        if( options.timeout > 0 )
-                        {
-                            p.addLast( new ReadTimeoutHandler( options.timeout, TimeUnit.MILLISECONDS ) );
-                        }
-
-                        p.addLast(
-                            new HttpClientCodec(),
-                            new HttpContentDecompressor(),
-                            handler
-                        );
-                    }
-                } )
-                .remoteAddress( socketAddress )
-                .connect()
-                .addListener( c -> {
-                    if( !c.isSuccess() ) failure( NetworkUtils.toFriendlyError( c.cause() ) );
-                } );
+            HttpConnectionPool.Key key = new HttpConnectionPool.Key( socketAddress, uri.getHost(), sslContext, options.timeout );
+            connect( key, uri, method, options, true );
 
             // Do an additional check for cancellation
             checkClosed();
@@ -205,6 +175,48 @@ protected void initChannel( SocketChannel ch )
         }
     }
 
+    /**
+     * Acquire a connection and send a request on it.
+     *
+     * @param key        The connection to use.
+     * @param uri        The URI to request.
+     * @param method     The request method.
+     * @param options    The options for this address.
+     * @param allowRetry Whether this request may be retried on a new connection if a reused one turns out to have been
+     *                   closed by the server.
+     */
+    void connect( HttpConnectionPool.Key key, URI uri, HttpMethod method, Options options, boolean allowRetry )
+    {
+        if( isClosed() ) return;
+
+        HttpRequestHandler handler = currentRequest = new HttpRequestHandler( this, key, uri, method, options, allowRetry );
+        acquireFuture = HttpConnectionPool.acquire( key ).addListener( ( io.netty.util.concurrent.Future<Channel> c ) -> {
+            if( !c.isSuccess() )
+            {
+                failure( NetworkUtils.toFriendlyError( c.cause() ) );
+                return;
+            }
+
+            Channel channel = c.getNow();
+            if( isClosed() )
+            {
+                channel.close();
+                return;
+            }
+
+            if( HttpConnectionPool.isReused( channel ) ) environment.addTrackingChange( TrackingField.HTTP_POOL_HITS, 1 );
+
+            ChannelPipeline p = channel.pipeline();
+            if( options.timeout > 0 )
+            {
+                p.addBefore( HttpConnectionPool.CODEC, HttpRequestHandler.TIMEOUT, new ReadTimeoutHandler( options.timeout, TimeUnit.MILLISECONDS ) );
+            }
+            p.addLast( handler );
+        } );
+
+        checkClosed();
+    }
+
     void failure( String message )
     {
         if( tryClose() ) environment.queueEvent( FAILURE_EVENT, address, message );
@@ -220,14 +232,43 @@ void success( HttpResponseHandle object )
         if( tryClose() ) environment.queueEvent( SUCCESS_EVENT, address, object );
     }
 
+    /**
+     * Queue the response event for a streamed response. Unlike {@link #success(HttpResponseHandle)}, this request
+     * stays open until the response handle is closed (or garbage collected).
+     *
+     * @param object The response handle.
+     * @param stream The response body.
+     * @param ok     Whether the response status indicates success.
+     * @param status The response's status message.
+     */
+    void streamed( HttpResponseHandle object, HttpResponseStream stream, boolean ok, String status )
+    {
+        if( isClosed() ) return;
+
+        this.stream = stream;
+        streamHandle = createOwnerReference( object );
+        if( ok )
+        {
+            environment.queueEvent( SUCCESS_EVENT, address, object );
+        }
+        else
+        {
+            environment.queueEvent( FAILURE_EVENT, address, status, object );
+        }
+
+        checkClosed();
+    }
+
     @Override
     protected void dispose()
     {
         super.dispose();
 
         executorFuture = closeFuture( executorFuture );
-        connectFuture = closeChannel( connectFuture );
+        acquireFuture = closeFuture( acquireFuture );
         currentRequest = closeCloseable( currentRequest );
+        stream = closeCloseable( stream );
+        streamHandle = null;
     }
 
     public static long getHeaderSize( HttpHeaders headers )
@@ -255,4 +296,14 @@ public boolean isBinary()
     {
         return binary;
     }
+
+    public boolean isStreaming()
+    {
+        return streaming;
+    }
+
+    String address()
+    {
+        return address;
+    }
 }
@@ -16,17 +16,23 @@
 import dan200.computercraft.core.tracking.TrackingField;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.CompositeByteBuf;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.*;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static dan200.computercraft.core.apis.http.request.HttpRequest.getHeaderSize;
 
@@ -39,31 +45,68 @@ public final class HttpRequestHandler extends SimpleChannelInboundHandler<HttpOb
 
     private static final byte[] EMPTY_BYTES = new byte[0];
 
+    /**
+     * Methods which may be safely sent twice. Other requests (such as {@code POST}) may already have been processed
+     * by the server, and so are never retried.
+     */
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(
+        HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE
+    );
+
+    /**
+     * The name of the per-request {@link io.netty.handler.timeout.ReadTimeoutHandler}.
+     */
+    static final String TIMEOUT = "timeout";
+
     private final HttpRequest request;
-    private boolean closed = false;
+    private volatile boolean closed = false;
 
+    private final HttpConnectionPool.Key key;
     private final URI uri;
     private final HttpMethod method;
     private final Options options;
+    private final boolean allowRetry;
+
+    /**
+     * The channel this request is running on, or {@code null} if it has not started yet or the channel has been
+     * returned to the pool.
+     */
+    private volatile Channel channel;
+    private boolean reused;
+    private boolean keepAlive;
 
     private Charset responseCharset;
     private final HttpHeaders responseHeaders = new DefaultHttpHeaders();
     private HttpResponseStatus responseStatus;
     private CompositeByteBuf responseBody;
+    private HttpResponseStream stream;
+    private RecvByteBufAllocator previousAllocator;
+    private long downloaded;
 
-    HttpRequestHandler( HttpRequest request, URI uri, HttpMethod method, Options options )
+    HttpRequestHandler( HttpRequest request, HttpConnectionPool.Key key, URI uri, HttpMethod method, Options options, boolean allowRetry )
     {
         this.request = request;
 
+        this.key = key;
         this.uri = uri;
         this.method = method;
         this.options = options;
+        this.allowRetry = allowRetry;
     }
 
     @Override
-    public void channelActive( ChannelHandlerContext ctx ) throws Exception
+    public void handlerAdded( ChannelHandlerContext ctx )
     {
-        if( request.checkClosed() ) return;
+        // The channel is already active (it comes from the connection pool), so we send the request as soon as we're
+        // added to the pipeline.
+        Channel channel = this.channel = ctx.channel();
+        if( closed || request.checkClosed() )
+        {
+            channel.close();
+            return;
+        }
+
+        reused = HttpConnectionPool.isReused( channel );
 
         ByteBuf body = request.body();
         body.resetReaderIndex().retain();
@@ -81,20 +124,25 @@ public void channelActive( ChannelHandlerContext ctx ) throws Exception
             request.headers().set( HttpHeaderNames.ACCEPT_CHARSET, "UTF-8" );
         }
         request.headers().set( HttpHeaderNames.HOST, uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort() );
-        request.headers().set( HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE );
 
-        ctx.channel().writeAndFlush( request );
-
-        super.channelActive( ctx );
+        channel.writeAndFlush( request );
     }
 
     @Override
     public void channelInactive( ChannelHandlerContext ctx ) throws Exception
     {
-        if( !closed ) request.failure( "Could not connect" );
+        if( !closed && !retry() ) fail( stream == null ? "Could not connect" : "Connection closed" );
         super.channelInactive( ctx );
     }
 
+    @Override
+    public void channelReadComplete( ChannelHandlerContext ctx )
+    {
+        // Streamed responses have auto-read disabled, so we need to ask for more data while there's room for it.
+        if( stream != null && !closed && stream.wantsMore() ) ctx.read();
+        ctx.fireChannelReadComplete();
+    }
+
     @Override
     public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
     {
@@ -131,13 +179,21 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
                 }
             }
 
+            keepAlive = HttpUtil.isKeepAlive( response );
             responseCharset = HttpUtil.getCharset( response, StandardCharsets.UTF_8 );
             responseStatus = response.status();
             responseHeaders.add( response.headers() );
+
+            if( request.isStreaming() ) startStream( ctx );
         }
 
         if( message instanceof HttpContent content )
         {
+            if( stream != null )
+            {
+                streamContent( ctx, content );
+                return;
+            }
 
             if( responseBody == null )
             {
@@ -170,7 +226,7 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
                     responseHeaders.set( HttpHeaderNames.CONTENT_LENGTH, responseBody.readableBytes() );
                 }
 
-                ctx.close();
+                finish( ctx );
                 sendResponse();
             }
         }
@@ -179,8 +235,127 @@ public void channelRead0( ChannelHandlerContext ctx, HttpObject message )
     @Override
     public void exceptionCaught( ChannelHandlerContext ctx, Throwable cause )
     {
+        if( !closed && cause instanceof IOException && retry() )
+        {
+            ctx.close();
+            return;
+        }
+
         if( ComputerCraft.logComputerErrors ) ComputerCraft.log.error( "Error handling HTTP response", cause );
-        request.failure( NetworkUtils.toFriendlyError( cause ) );
+        fail( NetworkUtils.toFriendlyError( cause ) );
+    }
+
+    /**
+     * Fail this request. If we've already started streaming the response, the error is reported when reading the
+     * body instead.
+     *
+     * @param message The error message.
+     */
+    private void fail( String message )
+    {
+        HttpResponseStream stream = this.stream;
+        if( stream == null )
+        {
+            request.failure( message );
+        }
+        else
+        {
+            stream.finish( message );
+        }
+    }
+
+    /**
+     * Start streaming the response body, firing the response event as soon as the headers have been received.
+     *
+     * @param ctx The current channel context.
+     */
+    private void startStream( ChannelHandlerContext ctx )
+    {
+        Channel channel = ctx.channel();
+        channel.config().setAutoRead( false );
+
+        // Only read once from the socket each time we're asked, so we don't overshoot the stream's window. This is
+        // restored once the response has finished, as the channel may be reused.
+        previousAllocator = channel.config().getRecvByteBufAllocator();
+        channel.config().setRecvByteBufAllocator( new AdaptiveRecvByteBufAllocator().maxMessagesPerRead( 1 ) );
+
+        // The computer may take as long as it likes to read the body, so only apply the timeout to the headers.
+        if( ctx.pipeline().get( TIMEOUT ) != null ) ctx.pipeline().remove( TIMEOUT );
+
+        request.environment().addTrackingChange( TrackingField.HTTP_DOWNLOAD, getHeaderSize( responseHeaders ) );
+
+        HttpResponseStream stream = this.stream = new HttpResponseStream( request, channel );
+        HttpResponseStatus status = responseStatus;
+        HttpResponseHandle handle = new HttpResponseHandle( new HttpStreamHandle( stream ), status.code(), status.reasonPhrase(), getHeaders() );
+        request.streamed( handle, stream, status.code() >= 200 && status.code() < 400, status.reasonPhrase() );
+    }
+
+    private void streamContent( ChannelHandlerContext ctx, HttpContent content )
+    {
+        ByteBuf partial = content.content();
+        if( partial.isReadable() )
+        {
+            downloaded += partial.readableBytes();
+            if( options.maxDownload != 0 && downloaded > options.maxDownload )
+            {
+                closed = true;
+                ctx.close();
+
+                stream.finish( "Response is too large" );
+                return;
+            }
+
+            request.environment().addTrackingChange( TrackingField.HTTP_DOWNLOAD, partial.readableBytes() );
+            stream.offer( partial.retain() );
+        }
+
+        if( content instanceof LastHttpContent )
+        {
+            // Return the channel to the pool before waking the computer, so any follow-up request can reuse it.
+            ctx.channel().config().setRecvByteBufAllocator( previousAllocator );
+            ctx.channel().config().setAutoRead( true );
+            finish( ctx );
+            stream.finish( null );
+        }
+    }
+
+    /**
+     * Finish this request, returning the channel to the connection pool if the server allows it.
+     *
+     * @param ctx The current channel context.
+     */
+    private void finish( ChannelHandlerContext ctx )
+    {
+        closed = true;
+
+        Channel channel = ctx.channel();
+        this.channel = null;
+        if( !keepAlive || !channel.isActive() )
+        {
+            channel.close();
+            return;
+        }
+
+        ChannelPipeline pipeline = ctx.pipeline();
+        pipeline.remove( this );
+        if( pipeline.get( TIMEOUT ) != null ) pipeline.remove( TIMEOUT );
+        HttpConnectionPool.release( key, channel );
+    }
+
+    /**
+     * Servers may close idle keep-alive connections at any point, including just as we reuse them. If this request
+     * was sent on a reused connection and has not received a response, retry it once on a fresh connection. Only
+     * idempotent requests are retried, as the server may have processed the request before closing the connection.
+     *
+     * @return Whether the request will be retried.
+     */
+    private boolean retry()
+    {
+        if( !allowRetry || !reused || responseStatus != null || !IDEMPOTENT_METHODS.contains( method ) ) return false;
+
+        closed = true;
+        request.connect( key, uri, method, options, false );
+        return true;
     }
 
     private void sendResponse()
@@ -191,12 +366,7 @@ private void sendResponse()
 
         // Decode the headers
         HttpResponseStatus status = responseStatus;
-        Map<String, String> headers = new HashMap<>();
-        for( Map.Entry<String, String> header : responseHeaders )
-        {
-            String existing = headers.get( header.getKey() );
-            headers.put( header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue() );
-        }
+        Map<String, String> headers = getHeaders();
 
         // Fire off a stats event
         request.environment().addTrackingChange( TrackingField.HTTP_DOWNLOAD, getHeaderSize( responseHeaders ) + bytes.length );
@@ -218,6 +388,17 @@ private void sendResponse()
         }
     }
 
+    private Map<String, String> getHeaders()
+    {
+        Map<String, String> headers = new HashMap<>();
+        for( Map.Entry<String, String> header : responseHeaders )
+        {
+            String existing = headers.get( header.getKey() );
+            headers.put( header.getKey(), existing == null ? header.getValue() : existing + "," + header.getValue() );
+        }
+        return headers;
+    }
+
     /**
      * Determine the redirect from this response.
      *
@@ -247,6 +428,10 @@ private URI getRedirect( HttpResponseStatus status, HttpHeaders headers )
     public void close()
     {
         closed = true;
+
+        Channel channel = this.channel;
+        if( channel != null ) channel.close();
+
         if( responseBody != null )
         {
             responseBody.release();
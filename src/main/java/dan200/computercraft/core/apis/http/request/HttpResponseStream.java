@@ -0,0 +1,230 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.core.filesystem.TrackingCloseable;
+import dan200.computercraft.core.lua.OwnedBytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * The body of a streamed HTTP response, shared between the Netty thread (which receives content) and the computer
+ * (which reads it through a {@link HttpStreamHandle}).
+ *
+ * The channel has auto-read disabled, and we only ask it for more data while less than {@link #WINDOW} bytes (or
+ * however many bytes the computer is currently waiting for) are buffered. Each request reads from the socket once, so
+ * at most one socket read's worth of data is buffered beyond this. This means a slow reader applies back-pressure to
+ * the server, rather than the whole response being held in memory.
+ *
+ * Read methods either return their result immediately, or {@link #PENDING} if the computer should wait for an
+ * {@link #EVENT} and try again.
+ */
+final class HttpResponseStream implements TrackingCloseable
+{
+    static final String EVENT = "http_stream";
+    static final Object[] PENDING = new Object[0];
+
+    static final int WINDOW = 64 * 1024;
+
+    private final HttpRequest request;
+    private final Channel channel;
+
+    private final Queue<ByteBuf> chunks = new ArrayDeque<>();
+    private int buffered;
+
+    /**
+     * The number of bytes the computer is waiting for, or 0 if it is not waiting.
+     */
+    private int demand;
+    private boolean finished;
+    private String error;
+    private volatile boolean open = true;
+
+    HttpResponseStream( HttpRequest request, Channel channel )
+    {
+        this.request = request;
+        this.channel = channel;
+    }
+
+    /**
+     * Add a chunk of the response body, taking ownership of it.
+     *
+     * @param chunk The received content.
+     */
+    void offer( ByteBuf chunk )
+    {
+        boolean wake;
+        synchronized( this )
+        {
+            if( !open )
+            {
+                chunk.release();
+                return;
+            }
+
+            chunks.add( chunk );
+            buffered += chunk.readableBytes();
+            wake = demand > 0 && buffered >= demand;
+            if( wake ) demand = 0;
+        }
+
+        if( wake ) wake();
+    }
+
+    /**
+     * Mark the response as finished.
+     *
+     * @param error The error which caused it to finish early, or {@code null} if the whole body was received.
+     */
+    void finish( String error )
+    {
+        boolean wake;
+        synchronized( this )
+        {
+            if( finished ) return;
+            finished = true;
+            this.error = error;
+
+            wake = demand > 0;
+            demand = 0;
+        }
+
+        if( wake ) wake();
+    }
+
+    /**
+     * Whether the channel should read more data.
+     *
+     * @return If more data should be read.
+     */
+    synchronized boolean wantsMore()
+    {
+        return open && !finished && buffered < Math.max( WINDOW, demand );
+    }
+
+    synchronized Object[] readByte()
+    {
+        if( !await( 1 ) ) return PENDING;
+        if( buffered == 0 ) return end();
+        return new Object[] { take( 1 )[0] & 0xFF };
+    }
+
+    synchronized Object[] read( int count )
+    {
+        if( !await( Math.max( count, 1 ) ) ) return PENDING;
+        if( buffered == 0 ) return end();
+        return new Object[] { count == 0 ? "" : OwnedBytes.of( take( Math.min( count, buffered ) ) ) };
+    }
+
+    synchronized Object[] readLine( boolean withTrailing )
+    {
+        int newline = indexOf( (byte) '\n' );
+        if( newline < 0 )
+        {
+            // Wait until we've got at least one more byte, or the response has finished.
+            if( !await( buffered + 1 ) ) return PENDING;
+
+            newline = indexOf( (byte) '\n' );
+            if( newline < 0 ) return buffered == 0 ? end() : new Object[] { OwnedBytes.of( take( buffered ) ) };
+        }
+
+        byte[] line = take( newline + 1 );
+        if( withTrailing ) return new Object[] { OwnedBytes.of( line ) };
+
+        int length = line.length - 1;
+        if( length > 0 && line[length - 1] == '\r' ) length--;
+        return new Object[] { OwnedBytes.of( line, 0, length ) };
+    }
+
+    synchronized Object[] readAll()
+    {
+        if( !await( Integer.MAX_VALUE ) ) return PENDING;
+        return buffered == 0 ? end() : new Object[] { OwnedBytes.of( take( buffered ) ) };
+    }
+
+    /**
+     * Determine if {@code needed} bytes are available. If not, and the response has not finished, register our
+     * interest and request more data from the channel.
+     *
+     * @param needed The number of bytes needed.
+     * @return Whether to continue with the read.
+     */
+    private boolean await( int needed )
+    {
+        if( buffered >= needed || finished ) return true;
+
+        demand = needed;
+        channel.read();
+        return false;
+    }
+
+    private Object[] end()
+    {
+        return error == null ? null : new Object[] { null, error };
+    }
+
+    private int indexOf( byte value )
+    {
+        int offset = 0;
+        for( ByteBuf chunk : chunks )
+        {
+            int index = chunk.indexOf( chunk.readerIndex(), chunk.writerIndex(), value );
+            if( index >= 0 ) return offset + index - chunk.readerIndex();
+            offset += chunk.readableBytes();
+        }
+
+        return -1;
+    }
+
+    private byte[] take( int count )
+    {
+        byte[] result = new byte[count];
+        int offset = 0;
+        while( offset < count )
+        {
+            ByteBuf chunk = chunks.element();
+            int length = Math.min( count - offset, chunk.readableBytes() );
+            chunk.readBytes( result, offset, length );
+            offset += length;
+
+            if( !chunk.isReadable() ) chunks.remove().release();
+        }
+
+        buffered -= count;
+        if( wantsMore() ) channel.read();
+        return result;
+    }
+
+    private void wake()
+    {
+        request.environment().queueEvent( EVENT, request.address() );
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return open;
+    }
+
+    @Override
+    public void close()
+    {
+        synchronized( this )
+        {
+            if( !open ) return;
+            open = false;
+
+            ByteBuf chunk;
+            while( (chunk = chunks.poll()) != null ) chunk.release();
+            buffered = 0;
+        }
+
+        request.close();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.apis.handles.BinaryReadableHandle;
+import dan200.computercraft.core.apis.handles.HandleGeneric;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The body of a http response made with the {@code stream} option. This behaves like a {@link BinaryReadableHandle},
+ * but data is read from the network as it is requested, rather than the whole response being downloaded first.
+ *
+ * If not enough data has been received yet, these methods will wait (like {@code os.pullEvent}) until it arrives.
+ *
+ * @cc.module http.StreamResponse
+ */
+public class HttpStreamHandle extends HandleGeneric
+{
+    private final HttpResponseStream stream;
+
+    HttpStreamHandle( HttpResponseStream stream )
+    {
+        super( stream );
+        this.stream = stream;
+    }
+
+    /**
+     * Read a number of bytes from this response.
+     *
+     * @param countArg The number of bytes to read. When absent, a single byte will be read <em>as a number</em>. This
+     *                 may be 0 to determine we are at the end of the response.
+     * @return The read bytes.
+     * @throws LuaException When trying to read a negative number of bytes.
+     * @throws LuaException If the response has been closed.
+     * @cc.treturn [1] nil If we are at the end of the response.
+     * @cc.treturn [2] number The value of the byte read. This is returned when the {@code count} is absent.
+     * @cc.treturn [3] string The bytes read as a string. This is returned when the {@code count} is given.
+     * @cc.treturn [4] nil If the connection failed before the whole response was received.
+     * @cc.treturn string The reason the connection failed.
+     */
+    @LuaFunction
+    public final MethodResult read( Optional<Integer> countArg ) throws LuaException
+    {
+        if( countArg.isPresent() && countArg.get() < 0 ) throw new LuaException( "Cannot read a negative number of bytes" );
+        return await( countArg.isPresent() ? () -> stream.read( countArg.get() ) : stream::readByte );
+    }
+
+    /**
+     * Read the remainder of the response.
+     *
+     * @return The response, or {@code null} if at the end of it.
+     * @throws LuaException If the response has been closed.
+     * @cc.treturn string|nil The remaining contents of the response, or {@code nil} if we are at the end.
+     */
+    @LuaFunction
+    public final MethodResult readAll() throws LuaException
+    {
+        return await( stream::readAll );
+    }
+
+    /**
+     * Read a line from the response.
+     *
+     * @param withTrailingArg Whether to include the newline characters with the returned string. Defaults to {@code false}.
+     * @return The read string.
+     * @throws LuaException If the response has been closed.
+     * @cc.treturn string|nil The read line or {@code nil} if at the end of the response.
+     */
+    @LuaFunction
+    public final MethodResult readLine( Optional<Boolean> withTrailingArg ) throws LuaException
+    {
+        boolean withTrailing = withTrailingArg.orElse( false );
+        return await( () -> stream.readLine( withTrailing ) );
+    }
+
+    private MethodResult await( Supplier<Object[]> read ) throws LuaException
+    {
+        checkOpen();
+
+        Object[] result = read.get();
+        if( result != HttpResponseStream.PENDING ) return MethodResult.of( result );
+        return MethodResult.pullEvent( HttpResponseStream.EVENT, args -> await( read ) );
+    }
+}
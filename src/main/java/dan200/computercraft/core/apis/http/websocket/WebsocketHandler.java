@@ -7,6 +7,7 @@
 
 import dan200.computercraft.core.apis.http.NetworkUtils;
 import dan200.computercraft.core.apis.http.options.Options;
+import dan200.computercraft.core.lua.OwnedBytes;
 import dan200.computercraft.core.tracking.TrackingField;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
@@ -73,7 +74,7 @@ else if( frame instanceof BinaryWebSocketFrame )
             byte[] converted = NetworkUtils.toBytes( frame.content() );
 
             websocket.environment().addTrackingChange( TrackingField.WEBSOCKET_INCOMING, converted.length );
-            websocket.environment().queueEvent( MESSAGE_EVENT, websocket.address(), converted, true );
+            websocket.environment().queueEvent( MESSAGE_EVENT, websocket.address(), OwnedBytes.of( converted ), true );
         }
         else if( frame instanceof CloseWebSocketFrame closeFrame )
         {
@@ -114,6 +114,14 @@
      */
     long vRuntimeStart;
 
+    /**
+     * The index of the {@link ComputerThread} queue this executor was last scheduled on, or {@code -1} if it has never
+     * been queued. {@link #virtualRuntime} is relative to that queue's minimum runtime.
+     *
+     * @see ComputerThread
+     */
+    int runQueue = -1;
+
     /**
      * The command that {@link #work()} should execute on the computer thread.
      *
@@ -296,11 +304,25 @@ void queueEvent( @Nonnull String event, @Nullable Object[] args )
             // We also limit the number of events which can be queued.
             if( closed || command != null || eventQueue.size() >= QUEUE_LIMIT ) return;
 
+            // If the computer is idle and waiting for a specific event, drop anything it would ignore anyway, rather
+            // than scheduling the computer just to discard it. We can only do this when nothing is queued or running,
+            // as otherwise the filter may change before this event is handled.
+            if( !onComputerQueue && isFiltered( event ) ) return;
+
             eventQueue.offer( new Event( event, args ) );
             enqueue();
         }
     }
 
+    private boolean isFiltered( @Nonnull String event )
+    {
+        ILuaMachine machine = this.machine;
+        if( machine == null || event.equals( "terminate" ) ) return false;
+
+        String filter = machine.getEventFilter();
+        return filter != null && !filter.equals( event );
+    }
+
     /**
      * Add this executor to the {@link ComputerThread} if not already there.
      */
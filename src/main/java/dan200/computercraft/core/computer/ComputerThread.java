@@ -10,6 +10,8 @@
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TreeSet;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +46,12 @@
  * In reality, it's unlikely that more than a few computers are waiting to execute at once, so this will not have much
  * effect unless you have a computer hogging execution time. However, it is pretty effective in those situations.
  *
+ * By default, all runners share a single {@link RunQueue}. When {@link ComputerCraft#computerWorkStealing} is enabled,
+ * each runner instead gets its own queue (and its own notion of minimum virtual runtime), meaning queueing and
+ * requeueing work only contends on that queue's lock. Idle runners will steal work from other queues, and the
+ * {@link Monitor} periodically moves work from the longest to the shortest queue. Both of these are guarded by a single
+ * {@link #rebalanceLock}, which is never acquired when queueing work.
+ *
  * @see TimeoutState For how hard timeouts are handled.
  * @see ComputerExecutor For how computers actually do execution.
  */
@@ -104,30 +112,40 @@
      */
     private static TaskRunner[] runners;
 
+    /**
+     * How long an idle runner should wait on its own queue before attempting to steal work from another one.
+     *
+     * @see TaskRunner#nextExecutor()
+     */
+    private static final long STEAL_INTERVAL = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    /**
+     * The queues which runners pull work from. This either contains a single queue shared between all runners, or
+     * one queue per runner when {@link ComputerCraft#computerWorkStealing work stealing} is enabled.
+     */
+    private static RunQueue[] queues;
+
     private static long latency;
     private static long minPeriod;
 
-    private static final ReentrantLock computerLock = new ReentrantLock();
+    /**
+     * Lock held when moving work between queues. This ensures only one thread is rebalancing at once, and so we never
+     * hold more than one queue's lock at a time.
+     */
+    private static final ReentrantLock rebalanceLock = new ReentrantLock();
 
-    private static final Condition hasWork = computerLock.newCondition();
-    private static final AtomicInteger idleWorkers = new AtomicInteger( 0 );
-    private static final Condition monitorWakeup = computerLock.newCondition();
+    private static final ReentrantLock monitorLock = new ReentrantLock();
+    private static final Condition monitorWakeup = monitorLock.newCondition();
 
     /**
-     * Active queues to execute.
+     * The number of runners currently waiting for work.
      */
-    private static final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>( ( a, b ) -> {
-        if( a == b ) return 0; // Should never happen, but let's be consistent here
-
-        long at = a.virtualRuntime, bt = b.virtualRuntime;
-        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
-        return at < bt ? -1 : 1;
-    } );
+    private static final AtomicInteger idleWorkers = new AtomicInteger( 0 );
 
     /**
-     * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
+     * The total number of executors waiting on any queue.
      */
-    private static long minimumVirtualRuntime = 0;
+    private static final AtomicInteger queuedWork = new AtomicInteger( 0 );
 
     private static final ThreadFactory monitorFactory = ThreadUtils.factory( "Computer-Monitor" );
     private static final ThreadFactory runnerFactory = ThreadUtils.factory( "Computer-Runner" );
@@ -147,6 +165,8 @@ static void start()
             {
                 // TODO: Update this on config reloads. Or possibly on world restarts?
                 runners = new TaskRunner[ComputerCraft.computerThreads];
+                queues = new RunQueue[ComputerCraft.computerWorkStealing ? runners.length : 1];
+                for( int i = 0; i < queues.length; i++ ) queues[i] = new RunQueue( i );
 
                 // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
                 // longer when executing on more than one thread.
@@ -163,7 +183,7 @@ static void start()
                     // Mark the old runner as dead, just in case.
                     if( runner != null ) runner.running = false;
                     // And start a new runner
-                    runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
+                    runnerFactory.newThread( runners[i] = new TaskRunner( i ) ).start();
                 }
             }
 
@@ -191,14 +211,21 @@ public static void stop()
             }
         }
 
-        computerLock.lock();
-        try
-        {
-            computerQueue.clear();
-        }
-        finally
+        RunQueue[] currentQueues = queues;
+        if( currentQueues == null ) return;
+
+        for( RunQueue queue : currentQueues )
         {
-            computerLock.unlock();
+            queue.lock.lock();
+            try
+            {
+                queuedWork.addAndGet( -queue.executors.size() );
+                queue.executors.clear();
+            }
+            finally
+            {
+                queue.lock.unlock();
+            }
         }
     }
 
@@ -212,17 +239,19 @@ public static void stop()
      */
     static void queue( @Nonnull ComputerExecutor executor )
     {
-        computerLock.lock();
+        RunQueue queue = pickQueue( executor );
+        queue.lock.lock();
         try
         {
             if( executor.onComputerQueue ) throw new IllegalStateException( "Cannot queue already queued executor" );
             executor.onComputerQueue = true;
 
-            updateRuntimes( null );
+            updateRuntimes( queue, null );
+            migrate( executor, queue );
 
             // We're not currently on the queue, so update its current execution time to
             // ensure its at least as high as the minimum.
-            long newRuntime = minimumVirtualRuntime;
+            long newRuntime = queue.minimumVirtualRuntime;
 
             if( executor.virtualRuntime == 0 )
             {
@@ -239,44 +268,208 @@ static void queue( @Nonnull ComputerExecutor executor )
 
             boolean wasBusy = isBusy();
             // Add to the queue, and signal the workers.
-            computerQueue.add( executor );
-            hasWork.signal();
+            queue.add( executor );
+            queue.hasWork.signal();
 
             // If we've transitioned into a busy state, notify the monitor. This will cause it to sleep for scaledPeriod
             // instead of the longer wakeup duration.
-            if( !wasBusy && isBusy() ) monitorWakeup.signal();
+            if( !wasBusy && isBusy() ) wakeMonitor();
         }
         finally
         {
-            computerLock.unlock();
+            queue.lock.unlock();
         }
     }
 
+    /**
+     * Pick which queue an executor should be added to.
+     *
+     * We prefer to keep computers on the queue they last ran on, unless that queue's runner is busy and another runner
+     * is idle.
+     *
+     * @param executor The executor being queued.
+     * @return The queue to add this executor to.
+     */
+    private static RunQueue pickQueue( ComputerExecutor executor )
+    {
+        RunQueue[] currentQueues = queues;
+        if( currentQueues.length == 1 ) return currentQueues[0];
+
+        int home = executor.runQueue;
+        if( home < 0 || home >= currentQueues.length ) home = Math.floorMod( executor.hashCode(), currentQueues.length );
+        if( currentQueues[home].idleRunners > 0 ) return currentQueues[home];
+
+        for( int i = 1; i < currentQueues.length; i++ )
+        {
+            RunQueue queue = currentQueues[(home + i) % currentQueues.length];
+            if( queue.idleRunners > 0 ) return queue;
+        }
+
+        return currentQueues[home];
+    }
 
     /**
-     * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the
-     * {@link #minimumVirtualRuntime} based on the current tasks.
+     * Move an executor onto a new queue, rebasing its {@link ComputerExecutor#virtualRuntime} from the old queue's
+     * minimum runtime to the new one's. This ensures computers which move between queues are neither penalised nor
+     * given a boost.
      *
-     * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date.
+     * @param executor The executor to move.
+     * @param queue    The queue it is being moved to.
+     */
+    private static void migrate( ComputerExecutor executor, RunQueue queue )
+    {
+        int previous = executor.runQueue;
+        if( previous == queue.index ) return;
+
+        RunQueue[] currentQueues = queues;
+        if( previous >= 0 && previous < currentQueues.length && executor.virtualRuntime != 0 )
+        {
+            executor.virtualRuntime += queue.minimumVirtualRuntime - currentQueues[previous].minimumVirtualRuntime;
+        }
+        executor.runQueue = queue.index;
+    }
+
+    /**
+     * Steal an executor from another queue, for a runner which has no work of its own.
      *
+     * @param thief The queue of the runner which is out of work.
+     * @return The stolen executor, or {@code null} if there is nothing to steal.
+     */
+    @Nullable
+    private static ComputerExecutor steal( RunQueue thief )
+    {
+        // If someone else is already rebalancing, they'll probably hand us work anyway.
+        if( queuedWork.get() == 0 || !rebalanceLock.tryLock() ) return null;
+        try
+        {
+            RunQueue victim = null;
+            for( RunQueue queue : queues )
+            {
+                if( queue != thief && queue.size() > 0 && (victim == null || queue.size() > victim.size()) ) victim = queue;
+            }
+            if( victim == null ) return null;
+
+            victim.lock.lock();
+            try
+            {
+                ComputerExecutor executor = victim.pollFirst();
+                if( executor != null ) migrate( executor, thief );
+                return executor;
+            }
+            finally
+            {
+                victim.lock.unlock();
+            }
+        }
+        finally
+        {
+            rebalanceLock.unlock();
+        }
+    }
+
+    /**
+     * Move work from the longest queues to the shortest ones, until they are roughly balanced.
+     */
+    private static void rebalance()
+    {
+        RunQueue[] currentQueues = queues;
+        if( currentQueues == null || currentQueues.length == 1 ) return;
+
+        rebalanceLock.lock();
+        try
+        {
+            List<ComputerExecutor> moving = new ArrayList<>();
+            for( int i = 0; i < currentQueues.length; i++ )
+            {
+                RunQueue longest = currentQueues[0], shortest = currentQueues[0];
+                for( RunQueue queue : currentQueues )
+                {
+                    if( queue.size() > longest.size() ) longest = queue;
+                    if( queue.size() < shortest.size() ) shortest = queue;
+                }
+
+                int toMove = (longest.size() - shortest.size()) / 2;
+                if( toMove <= 0 ) break;
+
+                // Take the executors with the largest runtimes, as they're the ones which would wait the longest.
+                longest.lock.lock();
+                try
+                {
+                    for( int j = 0; j < toMove; j++ )
+                    {
+                        ComputerExecutor executor = longest.pollLast();
+                        if( executor == null ) break;
+                        moving.add( executor );
+                    }
+                }
+                finally
+                {
+                    longest.lock.unlock();
+                }
+
+                shortest.lock.lock();
+                try
+                {
+                    for( ComputerExecutor executor : moving )
+                    {
+                        migrate( executor, shortest );
+                        shortest.add( executor );
+                        shortest.hasWork.signal();
+                    }
+                }
+                finally
+                {
+                    shortest.lock.unlock();
+                }
+
+                moving.clear();
+            }
+        }
+        finally
+        {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private static void wakeMonitor()
+    {
+        monitorLock.lock();
+        try
+        {
+            monitorWakeup.signal();
+        }
+        finally
+        {
+            monitorLock.unlock();
+        }
+    }
+
+    /**
+     * Update the {@link ComputerExecutor#virtualRuntime}s of all tasks running from a queue, and then update the
+     * queue's {@link RunQueue#minimumVirtualRuntime} based on the current tasks.
+     *
+     * This is called before queueing tasks, to ensure that {@link RunQueue#minimumVirtualRuntime} is up-to-date. One
+     * must hold the queue's lock when calling this.
+     *
+     * @param queue   The queue to update.
      * @param current The machine which we updating runtimes from.
      */
-    private static void updateRuntimes( @Nullable ComputerExecutor current )
+    private static void updateRuntimes( RunQueue queue, @Nullable ComputerExecutor current )
     {
         long minRuntime = Long.MAX_VALUE;
 
         // If we've a task on the queue, use that as our base time.
-        if( !computerQueue.isEmpty() ) minRuntime = computerQueue.first().virtualRuntime;
+        if( !queue.executors.isEmpty() ) minRuntime = queue.executors.first().virtualRuntime;
 
         // Update all the currently executing tasks
         long now = System.nanoTime();
-        int tasks = 1 + computerQueue.size();
+        int tasks = 1 + queue.executors.size();
         TaskRunner[] currentRunners = runners;
         if( currentRunners != null )
         {
             for( TaskRunner runner : currentRunners )
             {
-                if( runner == null ) continue;
+                if( runner == null || runner.queue != queue ) continue;
                 ComputerExecutor executor = runner.currentExecutor.get();
                 if( executor == null ) continue;
 
@@ -293,9 +486,9 @@ private static void updateRuntimes( @Nullable ComputerExecutor current )
             minRuntime = Math.min( minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks );
         }
 
-        if( minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
+        if( minRuntime > queue.minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
         {
-            minimumVirtualRuntime = minRuntime;
+            queue.minimumVirtualRuntime = minRuntime;
         }
     }
 
@@ -318,21 +511,22 @@ private static void afterWork( TaskRunner runner, ComputerExecutor executor )
             );
         }
 
-        computerLock.lock();
+        RunQueue queue = runner.queue;
+        queue.lock.lock();
         try
         {
-            updateRuntimes( executor );
+            updateRuntimes( queue, executor );
 
             // If we've no more tasks, just return.
             if( !executor.afterWork() ) return;
 
             // Otherwise, add to the queue, and signal any waiting workers.
-            computerQueue.add( executor );
-            hasWork.signal();
+            queue.add( executor );
+            queue.hasWork.signal();
         }
         finally
         {
-            computerLock.unlock();
+            queue.lock.unlock();
         }
     }
 
@@ -346,8 +540,9 @@ private static void afterWork( TaskRunner runner, ComputerExecutor executor )
      */
     static long scaledPeriod()
     {
-        // +1 to include the current task
-        int count = 1 + computerQueue.size();
+        // +1 to include the current task. If each runner has its own queue, we only consider this runner's share.
+        RunQueue[] currentQueues = queues;
+        int count = 1 + queuedWork.get() / (currentQueues == null ? 1 : currentQueues.length);
         return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
     }
 
@@ -358,7 +553,66 @@ static long scaledPeriod()
      */
     static boolean hasPendingWork()
     {
-        return !computerQueue.isEmpty();
+        return queuedWork.get() > 0;
+    }
+
+    /**
+     * Get the number of computers waiting to run. This is used for metrics.
+     *
+     * @return The number of queued computers.
+     */
+    public static int getQueuedWork()
+    {
+        return queuedWork.get();
+    }
+
+    /**
+     * Get the number of runner threads, and how many of them are currently running a computer. This is used for
+     * metrics.
+     *
+     * @return A pair of the total and busy runners.
+     */
+    public static int[] getRunnerUsage()
+    {
+        synchronized( threadLock )
+        {
+            if( runners == null ) return new int[] { 0, 0 };
+
+            int busy = 0;
+            for( TaskRunner runner : runners )
+            {
+                if( runner != null && runner.currentExecutor.get() != null ) busy++;
+            }
+            return new int[] { runners.length, busy };
+        }
+    }
+
+    /**
+     * Get the largest difference in {@link ComputerExecutor#virtualRuntime} between two computers on the same queue.
+     * A large skew means some computers are being starved of execution time. This is used for metrics.
+     *
+     * @return The maximum virtual runtime skew, in nanoseconds.
+     */
+    public static long getRuntimeSkew()
+    {
+        RunQueue[] currentQueues = queues;
+        if( currentQueues == null ) return 0;
+
+        long skew = 0;
+        for( RunQueue queue : currentQueues )
+        {
+            queue.lock.lock();
+            try
+            {
+                if( queue.executors.isEmpty() ) continue;
+                skew = Math.max( skew, queue.executors.last().virtualRuntime - queue.executors.first().virtualRuntime );
+            }
+            finally
+            {
+                queue.lock.unlock();
+            }
+        }
+        return skew;
     }
 
     /**
@@ -369,7 +623,7 @@ static boolean hasPendingWork()
      */
     private static boolean isBusy()
     {
-        return computerQueue.size() > idleWorkers.get();
+        return queuedWork.get() > idleWorkers.get();
     }
 
     /**
@@ -385,7 +639,7 @@ public void run()
         {
             while( true )
             {
-                computerLock.lock();
+                monitorLock.lock();
                 try
                 {
                     // If we've got more work than we have capacity for it, then we'll need to pause a task soon, so
@@ -400,10 +654,11 @@ public void run()
                 }
                 finally
                 {
-                    computerLock.unlock();
+                    monitorLock.unlock();
                 }
 
                 checkRunners();
+                rebalance();
             }
         }
 
@@ -424,7 +679,7 @@ private static void checkRunners()
                     ComputerCraft.log.warn( "Previous runner ({}) has crashed, restarting!",
                         runner != null && runner.owner != null ? runner.owner.getName() : runner );
                     if( runner != null ) runner.running = false;
-                    runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
+                    runnerFactory.newThread( runners[i] = new TaskRunner( i ) ).start();
                 }
 
                 // If the runner has no work, skip
@@ -459,7 +714,7 @@ private static void checkRunners()
                     {
                         if( running && runners.length > i && runners[i] == runner )
                         {
-                            runnerFactory.newThread( currentRunners[i] = new TaskRunner() ).start();
+                            runnerFactory.newThread( currentRunners[i] = new TaskRunner( i ) ).start();
                         }
                     }
                 }
@@ -475,7 +730,7 @@ else if( afterHardAbort >= ABORT_TIMEOUT )
     }
 
     /**
-     * Pulls tasks from the {@link #computerQueue} queue and runs them.
+     * Pulls tasks from its {@link RunQueue} and runs them.
      *
      * This is responsible for running the {@link ComputerExecutor#work()}, {@link ComputerExecutor#beforeWork()} and
      * {@link ComputerExecutor#afterWork()} functions. Everything else is either handled by the executor, timeout
@@ -483,12 +738,18 @@ else if( afterHardAbort >= ABORT_TIMEOUT )
      */
     private static final class TaskRunner implements Runnable
     {
+        final RunQueue queue;
         Thread owner;
         long lastReport = Long.MIN_VALUE;
         volatile boolean running = true;
 
         final AtomicReference<ComputerExecutor> currentExecutor = new AtomicReference<>();
 
+        TaskRunner( int index )
+        {
+            queue = queues[index % queues.length];
+        }
+
         @Override
         public void run()
         {
@@ -501,19 +762,7 @@ public void run()
                 ComputerExecutor executor;
                 try
                 {
-                    computerLock.lockInterruptibly();
-                    try
-                    {
-                        idleWorkers.incrementAndGet();
-                        while( computerQueue.isEmpty() ) hasWork.await();
-                        executor = computerQueue.pollFirst();
-                        assert executor != null : "hasWork should ensure we never receive null work";
-                    }
-                    finally
-                    {
-                        computerLock.unlock();
-                        idleWorkers.decrementAndGet();
-                    }
+                    executor = nextExecutor();
                 }
                 catch( InterruptedException ignored )
                 {
@@ -522,6 +771,8 @@ public void run()
                     continue;
                 }
 
+                if( executor == null ) continue;
+
                 // If we're trying to executing some task on this computer while someone else is doing work, something
                 // is seriously wrong.
                 while( !executor.executingThread.compareAndSet( null, owner ) )
@@ -563,6 +814,24 @@ public void run()
             }
         }
 
+        /**
+         * Find the next executor to run. This will take work from our own queue, and then attempt to steal work from
+         * other runners' queues if we have none.
+         *
+         * @return The next executor to run, or {@code null} if no work could be found.
+         * @throws InterruptedException If we were interrupted while waiting for work.
+         */
+        @Nullable
+        private ComputerExecutor nextExecutor() throws InterruptedException
+        {
+            if( queues.length == 1 ) return queue.take( -1 );
+
+            ComputerExecutor executor = queue.tryTake();
+            if( executor == null ) executor = steal( queue );
+            if( executor == null ) executor = queue.take( STEAL_INTERVAL );
+            return executor;
+        }
+
         private void reportTimeout( ComputerExecutor executor, long time )
         {
             if( !ComputerCraft.logComputerErrors ) return;
@@ -590,4 +859,135 @@ private void reportTimeout( ComputerExecutor executor, long time )
             ComputerCraft.log.warn( builder.toString() );
         }
     }
+
+    /**
+     * A queue of executors waiting to be run, ordered by their {@link ComputerExecutor#virtualRuntime}.
+     *
+     * Unless otherwise noted, one must hold {@link #lock} when accessing this queue.
+     */
+    private static final class RunQueue
+    {
+        final int index;
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition hasWork = lock.newCondition();
+
+        final TreeSet<ComputerExecutor> executors = new TreeSet<>( ( a, b ) -> {
+            if( a == b ) return 0; // Should never happen, but let's be consistent here
+
+            long at = a.virtualRuntime, bt = b.virtualRuntime;
+            if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
+            return at < bt ? -1 : 1;
+        } );
+
+        /**
+         * The minimum {@link ComputerExecutor#virtualRuntime} time on this queue. This may be read without holding the
+         * lock.
+         */
+        volatile long minimumVirtualRuntime = 0;
+
+        /**
+         * The number of runners waiting on this queue. This may be read without holding the lock.
+         */
+        volatile int idleRunners = 0;
+
+        RunQueue( int index )
+        {
+            this.index = index;
+        }
+
+        /**
+         * Get the number of executors on this queue. This may be called without holding the lock, though the result
+         * may be out of date.
+         *
+         * @return The size of this queue.
+         */
+        int size()
+        {
+            return executors.size();
+        }
+
+        void add( ComputerExecutor executor )
+        {
+            if( executors.add( executor ) ) queuedWork.incrementAndGet();
+        }
+
+        @Nullable
+        ComputerExecutor pollFirst()
+        {
+            ComputerExecutor executor = executors.pollFirst();
+            if( executor != null ) queuedWork.decrementAndGet();
+            return executor;
+        }
+
+        @Nullable
+        ComputerExecutor pollLast()
+        {
+            ComputerExecutor executor = executors.pollLast();
+            if( executor != null ) queuedWork.decrementAndGet();
+            return executor;
+        }
+
+        /**
+         * Take an executor from this queue if one is available, without waiting.
+         *
+         * @return The executor with the smallest runtime, or {@code null} if the queue is empty.
+         */
+        @Nullable
+        ComputerExecutor tryTake()
+        {
+            lock.lock();
+            try
+            {
+                return pollFirst();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Wait for an executor to become available on this queue, and take it.
+         *
+         * @param timeout The maximum time to wait for, in nanoseconds. If negative, we will wait indefinitely.
+         * @return The executor with the smallest runtime, or {@code null} if we timed out.
+         * @throws InterruptedException If we were interrupted while waiting.
+         */
+        @Nullable
+        ComputerExecutor take( long timeout ) throws InterruptedException
+        {
+            lock.lockInterruptibly();
+            try
+            {
+                idleWorkers.incrementAndGet();
+                idleRunners++;
+                try
+                {
+                    while( executors.isEmpty() )
+                    {
+                        if( timeout < 0 )
+                        {
+                            hasWork.await();
+                        }
+                        else if( (timeout = hasWork.awaitNanos( timeout )) <= 0 )
+                        {
+                            return null;
+                        }
+                    }
+
+                    return pollFirst();
+                }
+                finally
+                {
+                    idleRunners--;
+                    idleWorkers.decrementAndGet();
+                }
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+    }
 }
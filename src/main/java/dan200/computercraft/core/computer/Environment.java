@@ -13,12 +13,9 @@
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.core.tracking.TrackingField;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
-import java.util.Iterator;
 
 /**
  * Represents the "environment" that a {@link Computer} exists in.
@@ -57,7 +54,7 @@ public final class Environment implements IAPIEnvironment
     private final IPeripheral[] peripherals = new IPeripheral[ComputerSide.COUNT];
     private IPeripheralChangeListener peripheralListener = null;
 
-    private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+    private final TimerWheel timers = new TimerWheel();
     private int nextTimerToken = 0;
 
     Environment( Computer computer )
@@ -231,20 +228,8 @@ void tick()
 
         synchronized( timers )
         {
-            // Countdown all of our active timers
-            Iterator<Int2ObjectMap.Entry<Timer>> it = timers.int2ObjectEntrySet().iterator();
-            while( it.hasNext() )
-            {
-                Int2ObjectMap.Entry<Timer> entry = it.next();
-                Timer timer = entry.getValue();
-                timer.ticksLeft--;
-                if( timer.ticksLeft <= 0 )
-                {
-                    // Queue the "timer" event
-                    queueEvent( TIMER_EVENT, entry.getIntKey() );
-                    it.remove();
-                }
-            }
+            // Advance our timers, queuing a "timer" event for any which have expired.
+            timers.advance( id -> queueEvent( TIMER_EVENT, id ) );
         }
     }
 
@@ -345,7 +330,7 @@ public int startTimer( long ticks )
     {
         synchronized( timers )
         {
-            timers.put( nextTimerToken, new Timer( ticks ) );
+            timers.add( nextTimerToken, ticks );
             return nextTimerToken++;
         }
     }
@@ -355,7 +340,7 @@ public void cancelTimer( int id )
     {
         synchronized( timers )
         {
-            timers.remove( id );
+            timers.cancel( id );
         }
     }
 
@@ -364,14 +349,4 @@ public void addTrackingChange( @Nonnull TrackingField field, long change )
     {
         Tracking.addValue( computer, field, change );
     }
-
-    private static class Timer
-    {
-        long ticksLeft;
-
-        Timer( long ticksLeft )
-        {
-            this.ticksLeft = ticksLeft;
-        }
-    }
 }
@@ -77,6 +77,13 @@
 
     private static long minimumTime = 0;
 
+    /**
+     * The time spent executing tasks in the last tick, and the number of computers which were cooling down at the
+     * time. These are only written by the server thread, and are read for metrics.
+     */
+    private static volatile long lastTickTime = 0;
+    private static volatile int lastCooling = 0;
+
     private MainThread() {}
 
     public static long getUniqueTaskID()
@@ -138,8 +145,13 @@ public static void executePendingTasks()
 
         // Cool down any warm computers.
         cooling.removeIf( MainThreadExecutor::tickCooling );
+        lastCooling = cooling.size();
 
-        if( !canExecute ) return;
+        if( !canExecute )
+        {
+            lastTickTime = 0;
+            return;
+        }
 
         // Run until we meet the deadline.
         long start = System.nanoTime();
@@ -175,7 +187,29 @@ public static void executePendingTasks()
             if( taskStop >= deadline ) break;
         }
 
-        consumeTime( System.nanoTime() - start );
+        long time = System.nanoTime() - start;
+        lastTickTime = time;
+        consumeTime( time );
+    }
+
+    /**
+     * Get how long we spent executing tasks in the last tick. This is used for metrics.
+     *
+     * @return The time spent, in nanoseconds.
+     */
+    public static long getLastTickTime()
+    {
+        return lastTickTime;
+    }
+
+    /**
+     * Get the number of computers which have exceeded their budget and are cooling down. This is used for metrics.
+     *
+     * @return The number of cooling computers.
+     */
+    public static int getCoolingCount()
+    {
+        return lastCooling;
     }
 
     public static void reset()
@@ -184,6 +218,8 @@ public static void reset()
         budget = 0;
         canExecute = true;
         minimumTime = 0;
+        lastTickTime = 0;
+        lastCooling = 0;
         lastTaskId.set( 0 );
         cooling.clear();
         synchronized( executors )
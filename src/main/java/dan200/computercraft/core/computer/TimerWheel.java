@@ -0,0 +1,201 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import java.util.function.IntConsumer;
+
+/**
+ * A hierarchical timer wheel, used to implement {@code os.startTimer}.
+ *
+ * Timers are bucketed by the tick they fire on. The first level has one slot per tick for the next 64 ticks, the
+ * second has one slot per 64 ticks for the next 4096, and so on. Advancing the wheel only looks at the current slot of
+ * the first level, and occasionally moves ("cascades") the timers of one slot of a higher level down into the lower
+ * ones. This means timers which are not about to fire cost nothing each tick, unlike decrementing every timer.
+ *
+ * This class is not thread safe.
+ */
+final class TimerWheel
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+
+    private final Timer[][] levels = new Timer[LEVELS][];
+    private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Timers too far in the future to fit into any level. These are re-examined every time the top level wraps around.
+     */
+    private Timer overflow;
+
+    private long now;
+
+    /**
+     * Add a new timer.
+     *
+     * @param id    The timer's id. Any existing timer with this id will be cancelled.
+     * @param ticks The number of ticks until this timer fires. Values less than 1 will fire on the next tick.
+     */
+    void add( int id, long ticks )
+    {
+        cancel( id );
+
+        Timer timer = new Timer( id, now + Math.max( ticks, 1 ) );
+        timers.put( id, timer );
+        insert( timer );
+    }
+
+    /**
+     * Cancel a timer, if it exists.
+     *
+     * @param id The timer to cancel.
+     */
+    void cancel( int id )
+    {
+        Timer timer = timers.remove( id );
+        if( timer != null ) unlink( timer );
+    }
+
+    void clear()
+    {
+        timers.clear();
+        for( int i = 0; i < LEVELS; i++ ) levels[i] = null;
+        overflow = null;
+    }
+
+    int size()
+    {
+        return timers.size();
+    }
+
+    /**
+     * Advance the wheel by a single tick, firing any timers which have expired.
+     *
+     * @param fire The function to call with the id of each expired timer.
+     */
+    void advance( IntConsumer fire )
+    {
+        now++;
+        if( timers.isEmpty() ) return;
+
+        // Move timers from higher levels down, if we have reached the start of one of their slots.
+        for( int level = 1; level < LEVELS; level++ )
+        {
+            if( (now & ((1L << (level * SLOT_BITS)) - 1)) != 0 ) break;
+
+            cascade( level, (int) (now >>> (level * SLOT_BITS)) & SLOT_MASK );
+            if( level == LEVELS - 1 ) cascadeOverflow();
+        }
+
+        Timer[] slots = levels[0];
+        if( slots == null ) return;
+
+        int slot = (int) now & SLOT_MASK;
+        Timer timer = slots[slot];
+        slots[slot] = null;
+        while( timer != null )
+        {
+            Timer next = timer.next;
+            timer.next = timer.previous = null;
+            timers.remove( timer.id );
+            fire.accept( timer.id );
+            timer = next;
+        }
+    }
+
+    private void insert( Timer timer )
+    {
+        long delta = timer.deadline - now;
+        for( int level = 0; level < LEVELS; level++ )
+        {
+            if( delta < 1L << ((level + 1) * SLOT_BITS) )
+            {
+                Timer[] slots = levels[level];
+                if( slots == null ) slots = levels[level] = new Timer[SLOTS];
+
+                int slot = (int) (timer.deadline >>> (level * SLOT_BITS)) & SLOT_MASK;
+                timer.level = level;
+                timer.slot = slot;
+                timer.next = slots[slot];
+                if( timer.next != null ) timer.next.previous = timer;
+                slots[slot] = timer;
+                return;
+            }
+        }
+
+        timer.level = -1;
+        timer.next = overflow;
+        if( timer.next != null ) timer.next.previous = timer;
+        overflow = timer;
+    }
+
+    private void unlink( Timer timer )
+    {
+        if( timer.previous != null )
+        {
+            timer.previous.next = timer.next;
+        }
+        else if( timer.level < 0 )
+        {
+            overflow = timer.next;
+        }
+        else
+        {
+            levels[timer.level][timer.slot] = timer.next;
+        }
+
+        if( timer.next != null ) timer.next.previous = timer.previous;
+        timer.next = timer.previous = null;
+    }
+
+    private void cascade( int level, int slot )
+    {
+        Timer[] slots = levels[level];
+        if( slots == null ) return;
+
+        Timer timer = slots[slot];
+        slots[slot] = null;
+        reinsert( timer );
+    }
+
+    private void cascadeOverflow()
+    {
+        Timer timer = overflow;
+        overflow = null;
+        reinsert( timer );
+    }
+
+    private void reinsert( Timer timer )
+    {
+        while( timer != null )
+        {
+            Timer next = timer.next;
+            timer.next = timer.previous = null;
+            insert( timer );
+            timer = next;
+        }
+    }
+
+    private static final class Timer
+    {
+        final int id;
+        final long deadline;
+        int level;
+        int slot;
+        Timer next;
+        Timer previous;
+
+        Timer( int id, long deadline )
+        {
+            this.id = id;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -9,19 +9,37 @@
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.FileOperationException;
 import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.shared.util.ThreadUtils;
 
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
 import java.util.List;
 import java.util.OptionalLong;
 import java.util.Set;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A mount backed by a directory on disk.
+ *
+ * Computing how much space a mount uses requires walking the whole directory, which is expensive when many computers
+ * are loaded at once. Instead, we persist the used space to a ledger file next to the mount's directory (for instance,
+ * {@code computer/0.usage}), and update it after the mount is modified. When the ledger exists, it is trusted
+ * immediately and the directory is walked on a background thread to catch any changes made outside the game.
+ *
+ * Pending ledger writes are flushed when the mount is removed from a {@link FileSystem}, when the server stops (see
+ * {@link #flushLedgers()}), and before another mount for the same directory reads the ledger.
+ */
 public class FileMount implements IWritableMount
 {
     private static final int MINIMUM_FILE_SIZE = 500;
@@ -29,6 +47,29 @@ public class FileMount implements IWritableMount
     private static final Set<OpenOption> WRITE_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING );
     private static final Set<OpenOption> APPEND_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND );
 
+    /**
+     * How long to wait after the mount is modified before writing the ledger. This means a computer writing lots of
+     * files will only update the ledger occasionally.
+     */
+    private static final long LEDGER_DELAY = 5;
+
+    /**
+     * How long to wait before walking the mount again, if it was modified while we were verifying the ledger, and how
+     * many times to try before giving up.
+     */
+    private static final long VERIFY_RETRY_DELAY = 10;
+    private static final int VERIFY_ATTEMPTS = 5;
+
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+        ThreadUtils.builder( "FileMount" ).setPriority( Thread.MIN_PRIORITY ).build()
+    );
+
+    /**
+     * Mounts whose ledger has not yet been written, keyed by the ledger's path. Mounts are only removed once their
+     * ledger is on disk, so a new mount can wait for any in-progress write.
+     */
+    private static final ConcurrentMap<Path, FileMount> dirtyMounts = new ConcurrentHashMap<>();
+
     private class WritableCountingChannel implements WritableByteChannel
     {
 
@@ -56,9 +97,7 @@ void count( long n ) throws IOException
                 long newBytes = -ignoredBytesLeft;
                 ignoredBytesLeft = 0;
 
-                long bytesLeft = capacity - usedSpace;
-                if( newBytes > bytesLeft ) throw new IOException( "Out of space" );
-                usedSpace += newBytes;
+                if( !tryAllocate( newBytes ) ) throw new IOException( "Out of space" );
             }
         }
 
@@ -134,14 +173,51 @@ public long size() throws IOException
     }
 
     private final File rootPath;
+    private final Path ledgerPath;
     private final long capacity;
+
     private long usedSpace;
 
+    /**
+     * Incremented every time {@link #usedSpace} changes, so we can determine if the mount was modified while measuring
+     * it.
+     */
+    private long version;
+    private boolean ledgerDirty;
+
+    /**
+     * Held while writing the ledger, ensuring writes happen in order. This is separate from the mount's monitor, so
+     * that allocating space never waits on file IO.
+     */
+    private final Object ledgerLock = new Object();
+
     public FileMount( File rootPath, long capacity )
     {
         this.rootPath = rootPath;
+        ledgerPath = new File( rootPath.getParentFile(), rootPath.getName() + ".usage" ).toPath();
         this.capacity = capacity + MINIMUM_FILE_SIZE;
-        usedSpace = created() ? measureUsedSpace( this.rootPath ) : MINIMUM_FILE_SIZE;
+
+        if( !created() )
+        {
+            usedSpace = MINIMUM_FILE_SIZE;
+            return;
+        }
+
+        // If a previous mount for this directory has not yet written its ledger, do so before reading it.
+        FileMount previous = dirtyMounts.get( ledgerPath );
+        if( previous != null ) previous.flushLedger();
+
+        long ledger = readLedger();
+        if( ledger >= 0 )
+        {
+            usedSpace = ledger;
+            EXECUTOR.execute( () -> verifyUsedSpace( 1 ) );
+        }
+        else
+        {
+            usedSpace = measureUsedSpace( this.rootPath );
+            writeLedger( usedSpace );
+        }
     }
 
     // IMount implementation
@@ -253,7 +329,7 @@ public void makeDirectory( @Nonnull String path ) throws IOException
 
         if( file.mkdirs() )
         {
-            usedSpace += dirsToCreate * MINIMUM_FILE_SIZE;
+            addUsedSpace( dirsToCreate * MINIMUM_FILE_SIZE );
         }
         else
         {
@@ -290,7 +366,7 @@ private void deleteRecursively( File file ) throws IOException
         boolean success = file.delete();
         if( success )
         {
-            usedSpace -= Math.max( MINIMUM_FILE_SIZE, fileSize );
+            addUsedSpace( -Math.max( MINIMUM_FILE_SIZE, fileSize ) );
         }
         else
         {
@@ -308,13 +384,12 @@ public WritableByteChannel openForWrite( @Nonnull String path ) throws IOExcepti
 
         if( file.exists() )
         {
-            usedSpace -= Math.max( file.length(), MINIMUM_FILE_SIZE );
+            addUsedSpace( MINIMUM_FILE_SIZE - Math.max( file.length(), MINIMUM_FILE_SIZE ) );
         }
-        else if( getRemainingSpace() < MINIMUM_FILE_SIZE )
+        else if( !tryAllocate( MINIMUM_FILE_SIZE ) )
         {
             throw new FileOperationException( path, "Out of space" );
         }
-        usedSpace += MINIMUM_FILE_SIZE;
 
         return new SeekableCountingChannel( Files.newByteChannel( file.toPath(), WRITE_OPTIONS ), MINIMUM_FILE_SIZE );
     }
@@ -340,7 +415,7 @@ public WritableByteChannel openForAppend( @Nonnull String path ) throws IOExcept
     }
 
     @Override
-    public long getRemainingSpace()
+    public synchronized long getRemainingSpace()
     {
         return Math.max( capacity - usedSpace, 0 );
     }
@@ -374,6 +449,137 @@ private void create() throws IOException
         }
     }
 
+    private synchronized boolean tryAllocate( long bytes )
+    {
+        if( bytes > capacity - usedSpace ) return false;
+        addUsedSpace( bytes );
+        return true;
+    }
+
+    private synchronized void addUsedSpace( long delta )
+    {
+        usedSpace += delta;
+        version++;
+
+        if( !ledgerDirty )
+        {
+            ledgerDirty = true;
+            dirtyMounts.put( ledgerPath, this );
+            EXECUTOR.schedule( this::flushLedger, LEDGER_DELAY, TimeUnit.SECONDS );
+        }
+    }
+
+    /**
+     * Write every pending ledger to disk. This should be called when the server stops.
+     */
+    public static void flushLedgers()
+    {
+        for( FileMount mount : dirtyMounts.values() ) mount.flushLedger();
+    }
+
+    /**
+     * Write this mount's ledger if it has changed since it was last written.
+     */
+    void flushLedger()
+    {
+        synchronized( ledgerLock )
+        {
+            long size;
+            synchronized( this )
+            {
+                if( !ledgerDirty ) return;
+                ledgerDirty = false;
+                size = usedSpace;
+            }
+
+            writeLedger( size );
+
+            synchronized( this )
+            {
+                if( !ledgerDirty ) dirtyMounts.remove( ledgerPath, this );
+            }
+        }
+    }
+
+    /**
+     * Read the used space from the ledger.
+     *
+     * @return The used space, or {@code -1} if the ledger is missing or invalid.
+     */
+    private long readLedger()
+    {
+        if( !Files.isRegularFile( ledgerPath ) ) return -1;
+
+        try
+        {
+            long size = Long.parseLong( Files.readString( ledgerPath, StandardCharsets.UTF_8 ).trim() );
+            return size >= MINIMUM_FILE_SIZE ? size : -1;
+        }
+        catch( IOException | NumberFormatException e )
+        {
+            ComputerCraft.log.warn( "Cannot read usage ledger {}", ledgerPath, e );
+            return -1;
+        }
+    }
+
+    private void writeLedger( long size )
+    {
+        if( !created() ) return;
+
+        // Write to a temporary file first, so a crash while writing doesn't leave a truncated ledger.
+        Path temp = ledgerPath.resolveSibling( ledgerPath.getFileName() + ".tmp" );
+        try
+        {
+            Files.writeString( temp, Long.toString( size ), StandardCharsets.UTF_8 );
+            Files.move( temp, ledgerPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Cannot write usage ledger {}", ledgerPath, e );
+        }
+    }
+
+    /**
+     * Walk the mount's directory and correct the used space if it differs from the ledger. If the mount was modified
+     * while walking, our measurement may count those changes twice (or not at all), so we discard it and try again
+     * later.
+     *
+     * @param attempt The number of times we have tried to verify the ledger, including this one.
+     */
+    private void verifyUsedSpace( int attempt )
+    {
+        if( !created() ) return;
+
+        long startVersion;
+        synchronized( this )
+        {
+            startVersion = version;
+        }
+
+        long measured = measureUsedSpace( rootPath );
+
+        synchronized( this )
+        {
+            if( version == startVersion )
+            {
+                if( measured == usedSpace ) return;
+
+                ComputerCraft.log.debug( "Usage ledger for {} was out of date (recorded {}, actually {})", rootPath, usedSpace, measured );
+                addUsedSpace( measured - usedSpace );
+                return;
+            }
+        }
+
+        if( attempt < VERIFY_ATTEMPTS )
+        {
+            EXECUTOR.schedule( () -> verifyUsedSpace( attempt + 1 ), VERIFY_RETRY_DELAY, TimeUnit.SECONDS );
+        }
+        else
+        {
+            ComputerCraft.log.debug( "Could not verify usage ledger for {}, as it is constantly being modified", rootPath );
+        }
+    }
+
     private static class Visitor extends SimpleFileVisitor<Path>
     {
         long size;
@@ -24,6 +24,8 @@
 import java.nio.file.AccessDeniedException;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -38,7 +40,18 @@
     private static final int MAX_COPY_DEPTH = 128;
 
     private final FileSystemWrapperMount wrapper = new FileSystemWrapperMount( this );
+
+    /**
+     * Guards the mount table and any changes to the structure of the file system.
+     *
+     * Queries (such as {@link #exists(String)} or {@link #list(String)}) and opening files for reading only need the
+     * read lock, and so may run concurrently. Anything which changes mounts or the files on them (such as
+     * {@link #mount(String, String, IMount)}, {@link #delete(String)} or {@link #move(String, String)}) needs the write
+     * lock. Reading from or writing to an already open file does not take this lock at all.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
     private final Map<String, MountWrapper> mounts = new HashMap<>();
+    private final MountTrie mountIndex = new MountTrie();
 
     private final HashMap<WeakReference<FileSystemWrapper<?>>, ChannelWrapper<?>> openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> openFileQueue = new ReferenceQueue<>();
@@ -62,61 +75,107 @@ public void close()
             openFiles.clear();
             while( openFileQueue.poll() != null ) ;
         }
+
+        lock.readLock().lock();
+        try
+        {
+            for( MountWrapper mount : mounts.values() ) mount.release();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void mount( String label, String location, IMount mount ) throws FileSystemException
+    public void mount( String label, String location, IMount mount ) throws FileSystemException
     {
-        if( mount == null ) throw new NullPointerException();
-        location = sanitizePath( location );
-        if( location.contains( ".." ) ) throw new FileSystemException( "Cannot mount below the root" );
-        mount( new MountWrapper( label, location, mount ) );
+        lock.writeLock().lock();
+        try
+        {
+            if( mount == null ) throw new NullPointerException();
+            location = sanitizePath( location );
+            if( location.contains( ".." ) ) throw new FileSystemException( "Cannot mount below the root" );
+            mount( new MountWrapper( label, location, mount ) );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
+    public void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
     {
-        if( mount == null )
+        lock.writeLock().lock();
+        try
         {
-            throw new NullPointerException();
+            if( mount == null )
+            {
+                throw new NullPointerException();
+            }
+            location = sanitizePath( location );
+            if( location.contains( ".." ) )
+            {
+                throw new FileSystemException( "Cannot mount below the root" );
+            }
+            mount( new MountWrapper( label, location, mount ) );
         }
-        location = sanitizePath( location );
-        if( location.contains( ".." ) )
+        finally
         {
-            throw new FileSystemException( "Cannot mount below the root" );
+            lock.writeLock().unlock();
         }
-        mount( new MountWrapper( label, location, mount ) );
     }
 
-    private synchronized void mount( MountWrapper wrapper )
+    private void mount( MountWrapper wrapper )
     {
         String location = wrapper.getLocation();
         mounts.remove( location );
         mounts.put( location, wrapper );
+        reindexMounts();
     }
 
-    public synchronized void unmount( String path )
+    private void reindexMounts()
     {
-        MountWrapper mount = mounts.remove( sanitizePath( path ) );
-        if( mount == null ) return;
-
-        cleanup();
+        // Mounting and unmounting is rare, so just rebuild the whole index.
+        mountIndex.clear();
+        for( MountWrapper mount : mounts.values() ) mountIndex.add( mount );
+    }
 
-        // Close any files which belong to this mount - don't want people writing to a disk after it's been ejected!
-        // There's no point storing a Mount -> Wrapper[] map, as openFiles is small and unmount isn't called very
-        // often.
-        synchronized( openFiles )
+    public void unmount( String path )
+    {
+        lock.writeLock().lock();
+        try
         {
-            for( Iterator<WeakReference<FileSystemWrapper<?>>> iterator = openFiles.keySet().iterator(); iterator.hasNext(); )
-            {
-                WeakReference<FileSystemWrapper<?>> reference = iterator.next();
-                FileSystemWrapper<?> wrapper = reference.get();
-                if( wrapper == null ) continue;
+            MountWrapper mount = mounts.remove( sanitizePath( path ) );
+            if( mount == null ) return;
+
+            reindexMounts();
+
+            cleanup();
 
-                if( wrapper.mount == mount )
+            // Close any files which belong to this mount - don't want people writing to a disk after it's been ejected!
+            // There's no point storing a Mount -> Wrapper[] map, as openFiles is small and unmount isn't called very
+            // often.
+            synchronized( openFiles )
+            {
+                for( Iterator<WeakReference<FileSystemWrapper<?>>> iterator = openFiles.keySet().iterator(); iterator.hasNext(); )
                 {
-                    wrapper.closeExternally();
-                    iterator.remove();
+                    WeakReference<FileSystemWrapper<?>> reference = iterator.next();
+                    FileSystemWrapper<?> wrapper = reference.get();
+                    if( wrapper == null ) continue;
+
+                    if( wrapper.mount == mount )
+                    {
+                        wrapper.closeExternally();
+                        iterator.remove();
+                    }
                 }
             }
+
+            mount.release();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
         }
     }
 
@@ -167,39 +226,65 @@ public static String getName( String path )
         return lastSlash >= 0 ? path.substring( lastSlash + 1 ) : path;
     }
 
-    public synchronized long getSize( String path ) throws FileSystemException
+    public long getSize( String path ) throws FileSystemException
     {
-        return getMount( sanitizePath( path ) ).getSize( sanitizePath( path ) );
+        lock.readLock().lock();
+        try
+        {
+            return getMount( sanitizePath( path ) ).getSize( sanitizePath( path ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized BasicFileAttributes getAttributes( String path ) throws FileSystemException
+    public BasicFileAttributes getAttributes( String path ) throws FileSystemException
     {
-        return getMount( sanitizePath( path ) ).getAttributes( sanitizePath( path ) );
+        lock.readLock().lock();
+        try
+        {
+            return getMount( sanitizePath( path ) ).getAttributes( sanitizePath( path ) );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized String[] list( String path ) throws FileSystemException
+    public String[] list( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
 
-        // Gets a list of the files in the mount
-        List<String> list = new ArrayList<>();
-        mount.list( path, list );
+            // Gets a list of the files in the mount
+            List<String> list = new ArrayList<>();
+            mount.list( path, list );
 
-        // Add any mounts that are mounted at this location
-        for( MountWrapper otherMount : mounts.values() )
-        {
-            if( getDirectory( otherMount.getLocation() ).equals( path ) )
+            // Add any mounts that are mounted at this location
+            List<MountWrapper> children = new ArrayList<>();
+            mountIndex.findChildren( path, children );
+            for( MountWrapper otherMount : children )
             {
-                list.add( getName( otherMount.getLocation() ) );
+                if( getDirectory( otherMount.getLocation() ).equals( path ) )
+                {
+                    list.add( getName( otherMount.getLocation() ) );
+                }
             }
-        }
 
-        // Return list
-        String[] array = new String[list.size()];
-        list.toArray( array );
-        Arrays.sort( array );
-        return array;
+            // Return list
+            String[] array = new String[list.size()];
+            list.toArray( array );
+            Arrays.sort( array );
+            return array;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
     private void findIn( String dir, List<String> matches, Pattern wildPattern ) throws FileSystemException
@@ -219,126 +304,198 @@ private void findIn( String dir, List<String> matches, Pattern wildPattern ) thr
         }
     }
 
-    public synchronized String[] find( String wildPath ) throws FileSystemException
+    public String[] find( String wildPath ) throws FileSystemException
     {
-        // Match all the files on the system
-        wildPath = sanitizePath( wildPath, true );
-
-        // If we don't have a wildcard at all just check the file exists
-        int starIndex = wildPath.indexOf( '*' );
-        if( starIndex == -1 )
+        lock.readLock().lock();
+        try
         {
-            return exists( wildPath ) ? new String[] { wildPath } : new String[0];
-        }
-
-        // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
-        int prevDir = wildPath.substring( 0, starIndex ).lastIndexOf( '/' );
-        String startDir = prevDir == -1 ? "" : wildPath.substring( 0, prevDir );
+            // Match all the files on the system
+            wildPath = sanitizePath( wildPath, true );
 
-        // If this isn't a directory then just abort
-        if( !isDir( startDir ) ) return new String[0];
+            // If we don't have a wildcard at all just check the file exists
+            int starIndex = wildPath.indexOf( '*' );
+            if( starIndex == -1 )
+            {
+                return exists( wildPath ) ? new String[] { wildPath } : new String[0];
+            }
 
-        // Scan as normal, starting from this directory
-        Pattern wildPattern = Pattern.compile( "^\\Q" + wildPath.replaceAll( "\\*", "\\\\E[^\\\\/]*\\\\Q" ) + "\\E$" );
-        List<String> matches = new ArrayList<>();
-        findIn( startDir, matches, wildPattern );
+            // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
+            int prevDir = wildPath.substring( 0, starIndex ).lastIndexOf( '/' );
+            String startDir = prevDir == -1 ? "" : wildPath.substring( 0, prevDir );
 
-        // Return matches
-        String[] array = new String[matches.size()];
-        matches.toArray( array );
-        return array;
-    }
+            // If this isn't a directory then just abort
+            if( !isDir( startDir ) ) return new String[0];
 
-    public synchronized boolean exists( String path ) throws FileSystemException
-    {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.exists( path );
-    }
+            // Scan as normal, starting from this directory
+            Pattern wildPattern = Pattern.compile( "^\\Q" + wildPath.replaceAll( "\\*", "\\\\E[^\\\\/]*\\\\Q" ) + "\\E$" );
+            List<String> matches = new ArrayList<>();
+            findIn( startDir, matches, wildPattern );
 
-    public synchronized boolean isDir( String path ) throws FileSystemException
-    {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isDirectory( path );
+            // Return matches
+            String[] array = new String[matches.size()];
+            matches.toArray( array );
+            return array;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized boolean isReadOnly( String path ) throws FileSystemException
+    public boolean exists( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isReadOnly( path );
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.exists( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized String getMountLabel( String path ) throws FileSystemException
+    public boolean isDir( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getLabel();
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.isDirectory( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void makeDir( String path ) throws FileSystemException
+    public boolean isReadOnly( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.makeDirectory( path );
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.isReadOnly( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void delete( String path ) throws FileSystemException
+    public String getMountLabel( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.delete( path );
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getLabel();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void move( String sourcePath, String destPath ) throws FileSystemException
+    public void makeDir( String path ) throws FileSystemException
     {
-        sourcePath = sanitizePath( sourcePath );
-        destPath = sanitizePath( destPath );
-        if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "Access denied" );
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            mount.makeDirectory( path );
         }
-        if( !exists( sourcePath ) )
+        finally
         {
-            throw new FileSystemException( "No such file" );
+            lock.writeLock().unlock();
         }
-        if( exists( destPath ) )
+    }
+
+    public void delete( String path ) throws FileSystemException
+    {
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "File exists" );
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            mount.delete( path );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "Can't move a directory inside itself" );
+            lock.writeLock().unlock();
         }
-        copy( sourcePath, destPath );
-        delete( sourcePath );
     }
 
-    public synchronized void copy( String sourcePath, String destPath ) throws FileSystemException
+    public void move( String sourcePath, String destPath ) throws FileSystemException
     {
-        sourcePath = sanitizePath( sourcePath );
-        destPath = sanitizePath( destPath );
-        if( isReadOnly( destPath ) )
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "/" + destPath + ": Access denied" );
+            sourcePath = sanitizePath( sourcePath );
+            destPath = sanitizePath( destPath );
+            if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "Can't move a directory inside itself" );
+            }
+            copy( sourcePath, destPath );
+            delete( sourcePath );
         }
-        if( !exists( sourcePath ) )
+        finally
         {
-            throw new FileSystemException( "/" + sourcePath + ": No such file" );
+            lock.writeLock().unlock();
         }
-        if( exists( destPath ) )
+    }
+
+    public void copy( String sourcePath, String destPath ) throws FileSystemException
+    {
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "/" + destPath + ": File exists" );
+            sourcePath = sanitizePath( sourcePath );
+            destPath = sanitizePath( destPath );
+            if( isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            }
+            copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ), 0 );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            lock.writeLock().unlock();
         }
-        copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ), 0 );
     }
 
-    private synchronized void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount, int depth ) throws FileSystemException
+    private void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount, int depth ) throws FileSystemException
     {
         if( !sourceMount.exists( sourcePath ) ) return;
         if( depth >= MAX_COPY_DEPTH ) throw new FileSystemException( "Too many directories to copy" );
@@ -393,7 +550,7 @@ private void cleanup()
         }
     }
 
-    private synchronized <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull MountWrapper mount, @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
+    private <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull MountWrapper mount, @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
     {
         synchronized( openFiles )
         {
@@ -420,60 +577,77 @@ void removeFile( FileSystemWrapper<?> handle )
         }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
     {
-        cleanup();
+        lock.readLock().lock();
+        try
+        {
+            cleanup();
 
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        ReadableByteChannel channel = mount.openForRead( path );
-        return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            ReadableByteChannel channel = mount.openForRead( path );
+            return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
     {
-        cleanup();
+        lock.writeLock().lock();
+        try
+        {
+            cleanup();
 
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
-        return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
+            return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized long getFreeSpace( String path ) throws FileSystemException
+    public long getFreeSpace( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getFreeSpace();
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getFreeSpace();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
     @Nonnull
-    public synchronized OptionalLong getCapacity( String path ) throws FileSystemException
+    public OptionalLong getCapacity( String path ) throws FileSystemException
     {
-        path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getCapacity();
+        lock.readLock().lock();
+        try
+        {
+            path = sanitizePath( path );
+            MountWrapper mount = getMount( path );
+            return mount.getCapacity();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    private synchronized MountWrapper getMount( String path ) throws FileSystemException
+    private MountWrapper getMount( String path ) throws FileSystemException
     {
         // Return the deepest mount that contains a given path
-        Iterator<MountWrapper> it = mounts.values().iterator();
-        MountWrapper match = null;
-        int matchLength = 999;
-        while( it.hasNext() )
-        {
-            MountWrapper mount = it.next();
-            if( contains( mount.getLocation(), path ) )
-            {
-                int len = toLocal( path, mount.getLocation() ).length();
-                if( match == null || len < matchLength )
-                {
-                    match = mount;
-                    matchLength = len;
-                }
-            }
-        }
+        MountWrapper match = mountIndex.find( path );
         if( match == null )
         {
             throw new FileSystemException( "/" + path + ": Invalid Path" );
@@ -11,6 +11,7 @@
 import dan200.computercraft.api.filesystem.FileOperationException;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.core.apis.handles.ArrayByteChannel;
+import dan200.computercraft.core.lua.PrototypeCache;
 import dan200.computercraft.shared.util.IoUtil;
 
 import javax.annotation.Nonnull;
@@ -190,7 +191,11 @@ public ReadableByteChannel openForRead( @Nonnull String path ) throws IOExceptio
         if( file != null && !file.isDirectory() )
         {
             byte[] contents = CONTENTS_CACHE.getIfPresent( file );
-            if( contents != null ) return new ArrayByteChannel( contents );
+            if( contents != null )
+            {
+                PrototypeCache.trust( contents );
+                return new ArrayByteChannel( contents );
+            }
 
             try
             {
@@ -203,6 +208,7 @@ public ReadableByteChannel openForRead( @Nonnull String path ) throws IOExceptio
 
                         contents = ByteStreams.toByteArray( stream );
                         CONTENTS_CACHE.put( file, contents );
+                        PrototypeCache.trust( contents );
                         return new ArrayByteChannel( contents );
                     }
                 }
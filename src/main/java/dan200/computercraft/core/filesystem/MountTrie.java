@@ -0,0 +1,166 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * An index of mounts by their location, split into path segments.
+ *
+ * This allows finding the deepest mount containing a path by walking down the path once, rather than checking every
+ * mount. Segments are looked up by a case-insensitive hash of the region of the path, so no strings are allocated.
+ *
+ * Like {@link FileSystem#contains(String, String)}, segments are compared case-insensitively. Paths passed to this
+ * class should already be sanitised.
+ */
+final class MountTrie
+{
+    private final Node root = new Node( "" );
+
+    void clear()
+    {
+        root.mount = null;
+        root.children.clear();
+    }
+
+    void add( MountWrapper mount )
+    {
+        String location = mount.getLocation();
+
+        Node node = root;
+        int start = 0, length = location.length();
+        while( start < length )
+        {
+            int end = segmentEnd( location, start );
+            node = node.getOrCreateChild( location, start, end );
+            start = end + 1;
+        }
+
+        node.mount = mount;
+    }
+
+    /**
+     * Find the deepest mount which contains a path.
+     *
+     * @param path The path to look up.
+     * @return The mount, or {@code null} if no mount contains this path.
+     */
+    @Nullable
+    MountWrapper find( String path )
+    {
+        if( path.equals( ".." ) || path.startsWith( "../" ) ) return null;
+
+        Node node = root;
+        MountWrapper match = root.mount;
+        int start = 0, length = path.length();
+        while( start < length )
+        {
+            int end = segmentEnd( path, start );
+            node = node.getChild( path, start, end );
+            if( node == null ) break;
+
+            if( node.mount != null ) match = node.mount;
+            start = end + 1;
+        }
+
+        return match;
+    }
+
+    /**
+     * Find all mounts directly inside a directory.
+     *
+     * @param path   The directory to search in.
+     * @param mounts The list to add the found mounts to.
+     */
+    void findChildren( String path, List<MountWrapper> mounts )
+    {
+        Node node = root;
+        int start = 0, length = path.length();
+        while( start < length && node != null )
+        {
+            int end = segmentEnd( path, start );
+            node = node.getChild( path, start, end );
+            start = end + 1;
+        }
+
+        if( node == null ) return;
+        for( Node child : node.children.values() )
+        {
+            for( ; child != null; child = child.sibling )
+            {
+                if( child.mount != null ) mounts.add( child.mount );
+            }
+        }
+    }
+
+    private static int segmentEnd( String path, int start )
+    {
+        int end = path.indexOf( '/', start );
+        return end < 0 ? path.length() : end;
+    }
+
+    private static char fold( char c )
+    {
+        // The same folding as String.regionMatches(true, ...)
+        return Character.toLowerCase( Character.toUpperCase( c ) );
+    }
+
+    private static int hash( String path, int start, int end )
+    {
+        int hash = 0;
+        for( int i = start; i < end; i++ ) hash = 31 * hash + fold( path.charAt( i ) );
+        return hash;
+    }
+
+    private static final class Node
+    {
+        final String name;
+
+        /**
+         * The next node with the same hash as this one.
+         */
+        @Nullable
+        Node sibling;
+
+        @Nullable
+        MountWrapper mount;
+
+        final Int2ObjectMap<Node> children = new Int2ObjectOpenHashMap<>( 0 );
+
+        Node( String name )
+        {
+            this.name = name;
+        }
+
+        @Nullable
+        Node getChild( String path, int start, int end )
+        {
+            int length = end - start;
+            for( Node node = children.get( hash( path, start, end ) ); node != null; node = node.sibling )
+            {
+                if( node.name.length() == length && node.name.regionMatches( true, 0, path, start, length ) ) return node;
+            }
+
+            return null;
+        }
+
+        Node getOrCreateChild( String path, int start, int end )
+        {
+            Node existing = getChild( path, start, end );
+            if( existing != null ) return existing;
+
+            int hash = hash( path, start, end );
+            Node child = new Node( path.substring( start, end ) );
+            child.sibling = children.get( hash );
+            children.put( hash, child );
+            return child;
+        }
+    }
+}
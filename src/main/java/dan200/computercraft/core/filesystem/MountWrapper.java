@@ -43,6 +43,14 @@
         writableMount = mount;
     }
 
+    /**
+     * Called when this mount is removed from the file system, or the file system is closed.
+     */
+    void release()
+    {
+        if( writableMount instanceof FileMount fileMount ) fileMount.flushLedger();
+    }
+
     public String getLabel()
     {
         return label;
@@ -11,6 +11,7 @@
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.core.apis.handles.ArrayByteChannel;
+import dan200.computercraft.core.lua.PrototypeCache;
 import dan200.computercraft.shared.util.IoUtil;
 import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
 import net.fabricmc.fabric.api.resource.SimpleResourceReloadListener;
@@ -240,7 +241,11 @@ public ReadableByteChannel openForRead( @Nonnull String path ) throws IOExceptio
         if( file != null && !file.isDirectory() )
         {
             byte[] contents = CONTENTS_CACHE.getIfPresent( file );
-            if( contents != null ) return new ArrayByteChannel( contents );
+            if( contents != null )
+            {
+                PrototypeCache.trust( contents );
+                return new ArrayByteChannel( contents );
+            }
 
             try
             {
@@ -257,6 +262,7 @@ public ReadableByteChannel openForRead( @Nonnull String path ) throws IOExceptio
                 }
 
                 CONTENTS_CACHE.put( file, contents );
+                PrototypeCache.trust( contents );
                 return new ArrayByteChannel( contents );
             }
             catch( Throwable ignored )
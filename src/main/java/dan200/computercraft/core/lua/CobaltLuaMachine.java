@@ -5,6 +5,8 @@
  */
 package dan200.computercraft.core.lua;
 
+import com.google.common.collect.Lists;
+import com.google.common.io.ByteStreams;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.IDynamicLuaObject;
 import dan200.computercraft.api.lua.ILuaAPI;
@@ -29,6 +31,7 @@
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.*;
@@ -74,6 +77,7 @@ public CobaltLuaMachine( Computer computer, TimeoutState timeout )
         LuaState state = this.state = LuaState.builder()
             .resourceManipulator( new VoidResourceManipulator() )
             .debug( debug )
+            .compiler( PrototypeCache.compiler( computer ) )
             .coroutineExecutor( command -> {
                 Tracking.addValue( this.computer, TrackingField.COROUTINES_CREATED, 1 );
                 COROUTINES.execute( () -> {
@@ -141,7 +145,11 @@ public MachineResult loadBios( @Nonnull InputStream bios )
 
         try
         {
-            LuaFunction value = LoadState.load( state, bios, "@bios.lua", globals );
+            // The BIOS is identical across all computers, so allow it to be cached.
+            byte[] contents = ByteStreams.toByteArray( bios );
+            PrototypeCache.trust( contents );
+
+            LuaFunction value = LoadState.load( state, new ByteArrayInputStream( contents ), "@bios.lua", globals );
             mainRoutine = new LuaThread( state, value, globals );
             return MachineResult.OK;
         }
@@ -158,6 +166,13 @@ public MachineResult loadBios( @Nonnull InputStream bios )
         }
     }
 
+    @Nullable
+    @Override
+    public String getEventFilter()
+    {
+        return mainRoutine == null ? null : eventFilter;
+    }
+
     @Override
     public MachineResult handleEvent( String eventName, Object[] arguments )
     {
@@ -233,25 +248,22 @@ private LuaTable wrapLuaObject( Object object )
             ? Objects.requireNonNull( ((IDynamicLuaObject) object).getMethodNames(), "Methods cannot be null" )
             : LuaMethod.EMPTY_METHODS;
 
-        LuaTable table = new LuaTable();
+        MethodTable methods = MethodTable.of( object.getClass() );
+        List<Object> extra = object instanceof ObjectSource source ? Lists.newArrayList( source.getExtra() ) : List.of();
+
+        int size = dynamicMethods.length + methods.size();
+        for( Object child : extra ) size += MethodTable.of( child.getClass() ).size();
+        if( size == 0 ) return null;
+
+        LuaTable table = new LuaTable( 0, size );
         for( int i = 0; i < dynamicMethods.length; i++ )
         {
             String method = dynamicMethods[i];
             table.rawset( method, new ResultInterpreterFunction( this, LuaMethod.DYNAMIC.get( i ), object, context, method ) );
         }
 
-        ObjectSource.allMethods( LuaMethod.GENERATOR, object, ( instance, method ) ->
-            table.rawset( method.getName(), method.nonYielding()
-                ? new BasicFunction( this, method.getMethod(), instance, context, method.getName() )
-                : new ResultInterpreterFunction( this, method.getMethod(), instance, context, method.getName() ) ) );
-
-        try
-        {
-            if( table.keyCount() == 0 ) return null;
-        }
-        catch( LuaError ignored )
-        {
-        }
+        methods.bind( this, context, table, object );
+        for( Object child : extra ) MethodTable.of( child.getClass() ).bind( this, context, table, child );
 
         return table;
     }
@@ -273,6 +285,7 @@ private LuaValue toValue( @Nullable Object object, @Nullable Map<Object, LuaValu
             b.get( bytes );
             return valueOf( bytes );
         }
+        if( object instanceof OwnedBytes b ) return LuaString.valueOf( b.bytes, b.offset, b.length );
 
         if( values == null ) values = new IdentityHashMap<>( 1 );
         LuaValue result = values.get( object );
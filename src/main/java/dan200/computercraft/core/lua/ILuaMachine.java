@@ -61,6 +61,20 @@
      */
     MachineResult handleEvent( @Nullable String eventName, @Nullable Object[] arguments );
 
+    /**
+     * Get the name of the event this machine is currently waiting for. Any other event (except {@code terminate})
+     * passed to {@link #handleEvent(String, Object[])} will be ignored, and so may be dropped before it is queued.
+     *
+     * This is only read while the machine is idle, and so does not need to be thread-safe.
+     *
+     * @return The current event filter, or {@code null} if any event may resume the machine.
+     */
+    @Nullable
+    default String getEventFilter()
+    {
+        return null;
+    }
+
     /**
      * Close the Lua machine, aborting any running functions and deleting the internal state.
      */
@@ -0,0 +1,76 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.asm.LuaMethod;
+import dan200.computercraft.core.asm.NamedMethod;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * The Lua methods of a single class, resolved once and then reused every time an instance of that class is converted
+ * to a Lua table.
+ *
+ * File handles, HTTP responses and the like are wrapped very frequently, so we avoid looking up the class's methods
+ * and re-encoding every method name each time. Wrapping an object then only allocates a pre-sized table and the
+ * functions bound to that instance.
+ */
+final class MethodTable
+{
+    private static final ClassValue<MethodTable> CACHE = new ClassValue<>()
+    {
+        @Override
+        protected MethodTable computeValue( Class<?> type )
+        {
+            return new MethodTable( LuaMethod.GENERATOR.getMethods( type ) );
+        }
+    };
+
+    private final List<NamedMethod<LuaMethod>> methods;
+    private final LuaString[] names;
+
+    private MethodTable( List<NamedMethod<LuaMethod>> methods )
+    {
+        this.methods = methods;
+        names = new LuaString[methods.size()];
+        for( int i = 0; i < names.length; i++ ) names[i] = LuaString.valueOf( methods.get( i ).getName() );
+    }
+
+    @Nonnull
+    static MethodTable of( @Nonnull Class<?> klass )
+    {
+        return CACHE.get( klass );
+    }
+
+    int size()
+    {
+        return names.length;
+    }
+
+    /**
+     * Add this class's methods to a table, bound to a specific instance.
+     *
+     * @param machine  The machine these functions belong to.
+     * @param context  The context to call methods with.
+     * @param table    The table to add the functions to.
+     * @param instance The instance to bind the methods to. This must be an instance of the class this table was
+     *                 created for.
+     */
+    void bind( CobaltLuaMachine machine, ILuaContext context, LuaTable table, Object instance )
+    {
+        for( int i = 0; i < names.length; i++ )
+        {
+            NamedMethod<LuaMethod> method = methods.get( i );
+            table.rawset( names[i], method.nonYielding()
+                ? new BasicFunction( machine, method.getMethod(), instance, context, method.getName() )
+                : new ResultInterpreterFunction( machine, method.getMethod(), instance, context, method.getName() ) );
+        }
+    }
+}
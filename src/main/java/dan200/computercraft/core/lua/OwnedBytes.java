@@ -0,0 +1,81 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A region of a byte array, whose ownership is handed over to the Lua machine when returned from a method (or passed
+ * as an event argument).
+ *
+ * Plain {@code byte[]}s and {@link ByteBuffer}s are copied when converted to a Lua string, as the caller may continue
+ * to modify them. This instead allows methods which have just allocated an array (such as reading from a file handle)
+ * to avoid that second copy. The array must not be modified after it has been wrapped.
+ */
+public final class OwnedBytes
+{
+    final byte[] bytes;
+    final int offset;
+    final int length;
+
+    private OwnedBytes( byte[] bytes, int offset, int length )
+    {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Nonnull
+    public static OwnedBytes of( @Nonnull byte[] bytes )
+    {
+        return new OwnedBytes( bytes, 0, bytes.length );
+    }
+
+    @Nonnull
+    public static OwnedBytes of( @Nonnull byte[] bytes, int offset, int length )
+    {
+        if( offset < 0 || length < 0 || offset + length > bytes.length ) throw new IndexOutOfBoundsException();
+        return new OwnedBytes( bytes, offset, length );
+    }
+
+    /**
+     * Take ownership of the remaining contents of a heap buffer.
+     *
+     * @param buffer The buffer to wrap. This must be backed by an accessible array.
+     * @return The wrapped bytes.
+     */
+    @Nonnull
+    public static OwnedBytes of( @Nonnull ByteBuffer buffer )
+    {
+        return new OwnedBytes( buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining() );
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    /**
+     * Copy these bytes into a new array.
+     *
+     * @return A copy of the wrapped bytes.
+     */
+    @Nonnull
+    public byte[] toByteArray()
+    {
+        byte[] result = new byte[length];
+        System.arraycopy( bytes, offset, result, 0, length );
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return new String( bytes, offset, length, StandardCharsets.ISO_8859_1 );
+    }
+}
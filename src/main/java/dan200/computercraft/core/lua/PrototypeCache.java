@@ -0,0 +1,162 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.tracking.Tracking;
+import dan200.computercraft.core.tracking.TrackingField;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.Prototype;
+import org.squiddev.cobalt.compiler.CompileException;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.compiler.LuaC;
+import org.squiddev.cobalt.function.LuaClosure;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A JVM-wide cache of compiled Lua chunks.
+ *
+ * Every computer compiles the same BIOS and ROM files when booting. Rather than parsing these from scratch each time,
+ * we compile each chunk once and create a new closure from the shared {@link Prototype} for each machine.
+ *
+ * Only chunks whose contents have been marked as {@link #trust(byte[]) trusted} (such as files served from read-only
+ * mounts) are cached, as arbitrary user code is unlikely to be shared between computers. As hashing every chunk would
+ * cost more than it saves, we first check that the chunk was loaded from a file ({@code loadfile} and the BIOS both use
+ * names starting with {@code @}) and has the same length as a trusted file, and only hash it if so.
+ */
+public final class PrototypeCache
+{
+    /**
+     * The first byte of a binary chunk. We never cache these.
+     */
+    private static final byte LUA_SIGNATURE = 0x1B;
+
+    /**
+     * The first byte of a chunk name which was loaded from a file.
+     */
+    private static final byte FILE_PREFIX = '@';
+
+    /**
+     * The hashes of all chunks which may be cached.
+     */
+    private static final Cache<HashCode, Boolean> TRUSTED = CacheBuilder.newBuilder()
+        .concurrencyLevel( 4 )
+        .maximumSize( 4096 )
+        .build();
+
+    /**
+     * The hashes of file contents which have already been trusted. This is keyed by identity and holds its keys weakly,
+     * so mounts may cheaply re-{@link #trust(byte[])} their cached contents on every read, ensuring they are never
+     * evicted from {@link #TRUSTED} while still in use.
+     */
+    private static final Cache<byte[], HashCode> HASHES = CacheBuilder.newBuilder()
+        .concurrencyLevel( 4 )
+        .weakKeys()
+        .build();
+
+    /**
+     * The lengths of every trusted chunk. This allows us to skip hashing most untrusted chunks. This is never cleared,
+     * but is bounded by the number of distinct file sizes on read-only mounts.
+     */
+    private static final Set<Integer> TRUSTED_LENGTHS = ConcurrentHashMap.newKeySet();
+
+    private static final Cache<Key, Prototype> PROTOTYPES = CacheBuilder.newBuilder()
+        .concurrencyLevel( 4 )
+        .maximumSize( 1024 )
+        .softValues()
+        .build();
+
+    private PrototypeCache()
+    {
+    }
+
+    /**
+     * Mark some file contents as being worth caching, should they be loaded as a Lua chunk.
+     *
+     * @param contents The file's contents.
+     */
+    public static void trust( @Nonnull byte[] contents )
+    {
+        HashCode hash = HASHES.getIfPresent( contents );
+        if( hash == null ) HASHES.put( contents, hash = hash( contents ) );
+
+        TRUSTED.put( hash, Boolean.TRUE );
+        TRUSTED_LENGTHS.add( contents.length );
+    }
+
+    /**
+     * Create a compiler which uses this cache, recording cache hits and misses against the given computer.
+     *
+     * @param computer The computer which will be using this compiler.
+     * @return The compiler to use for this computer's {@link org.squiddev.cobalt.LuaState}.
+     */
+    static LoadState.LuaCompiler compiler( @Nonnull Computer computer )
+    {
+        return ( stream, name, mode, env ) -> load( computer, stream, name, mode, env );
+    }
+
+    private static LuaClosure load( Computer computer, InputStream stream, LuaString name, @Nullable LuaString mode, LuaTable env ) throws IOException, CompileException
+    {
+        if( name.length() == 0 || name.luaByte( 0 ) != FILE_PREFIX || (mode != null && mode.toString().indexOf( 't' ) < 0) )
+        {
+            return LuaC.INSTANCE.load( stream, name, mode, env );
+        }
+
+        byte[] contents = ByteStreams.toByteArray( stream );
+        if( contents.length == 0 || contents[0] == LUA_SIGNATURE || !TRUSTED_LENGTHS.contains( contents.length ) )
+        {
+            return LuaC.INSTANCE.load( new ByteArrayInputStream( contents ), name, mode, env );
+        }
+
+        HashCode hash = hash( contents );
+        if( TRUSTED.getIfPresent( hash ) == null )
+        {
+            return LuaC.INSTANCE.load( new ByteArrayInputStream( contents ), name, mode, env );
+        }
+
+        Key key = new Key( name, hash );
+        Prototype prototype = PROTOTYPES.getIfPresent( key );
+        if( prototype == null )
+        {
+            Tracking.addValue( computer, TrackingField.PROTOTYPE_CACHE_MISSES, 1 );
+            prototype = LuaC.compile( new ByteArrayInputStream( contents ), name );
+            PROTOTYPES.put( key, prototype );
+        }
+        else
+        {
+            Tracking.addValue( computer, TrackingField.PROTOTYPE_CACHE_HITS, 1 );
+        }
+
+        return new LuaInterpretedFunction( prototype, env );
+    }
+
+    private static HashCode hash( byte[] contents )
+    {
+        return Hashing.sha256().hashBytes( contents );
+    }
+
+    /**
+     * The key for a compiled chunk. The chunk name is included as it is baked into the prototype (and so appears in
+     * error messages).
+     */
+    private record Key(LuaString name, HashCode hash)
+    {
+    }
+}
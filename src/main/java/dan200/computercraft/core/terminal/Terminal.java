@@ -8,15 +8,30 @@
 import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.Palette;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.Tag;
 import net.minecraft.network.FriendlyByteBuf;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
-
+import java.util.BitSet;
+
+/**
+ * The contents of a computer's (or monitor's) screen.
+ *
+ * Each cell is packed into two bytes of a single array: the character, and then the background and text colours (the
+ * background in the upper nibble). This is the same format lines are sent over the network in, so serialising the
+ * terminal is just a copy. {@link #getLine(int)}, {@link #getTextColourLine(int)} and
+ * {@link #getBackgroundColourLine(int)} provide {@link TextBuffer} views over a single line of this array.
+ */
 public class Terminal
 {
     private static final String base16 = "0123456789abcdef";
 
+    private static final int TEXT = 0;
+    private static final int TEXT_COLOUR = 1;
+    private static final int BACKGROUND_COLOUR = 2;
+
     private int cursorX = 0;
     private int cursorY = 0;
     private boolean cursorBlink = false;
@@ -26,14 +41,22 @@
     private int width;
     private int height;
 
-    private TextBuffer[] text;
-    private TextBuffer[] textColour;
-    private TextBuffer[] backgroundColour;
+    private byte[] cells;
+    private TextBuffer[] textLines;
+    private TextBuffer[] textColourLines;
+    private TextBuffer[] backgroundColourLines;
 
     private final Palette palette = new Palette();
 
     private final Runnable onChanged;
 
+    /**
+     * The lines which have changed since {@link #pollChangedLines()} was last called, or {@code null} if the whole
+     * terminal has changed.
+     */
+    @Nullable
+    private BitSet changedLines = null;
+
     public Terminal( int width, int height )
     {
         this( width, height, null );
@@ -45,14 +68,21 @@ public Terminal( int width, int height, Runnable changedCallback )
         this.height = height;
         onChanged = changedCallback;
 
-        text = new TextBuffer[height];
-        textColour = new TextBuffer[height];
-        backgroundColour = new TextBuffer[height];
-        for( int i = 0; i < this.height; i++ )
+        cells = new byte[width * height * 2];
+        for( int y = 0; y < height; y++ ) clearLine( y, 0 );
+        createLines();
+    }
+
+    private void createLines()
+    {
+        textLines = new TextBuffer[height];
+        textColourLines = new TextBuffer[height];
+        backgroundColourLines = new TextBuffer[height];
+        for( int y = 0; y < height; y++ )
         {
-            text[i] = new TextBuffer( ' ', this.width );
-            textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-            backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
+            textLines[y] = new Line( y, TEXT );
+            textColourLines[y] = new Line( y, TEXT_COLOUR );
+            backgroundColourLines[y] = new Line( y, BACKGROUND_COLOUR );
         }
     }
 
@@ -87,41 +117,28 @@ public synchronized void resize( int width, int height )
 
         int oldHeight = this.height;
         int oldWidth = this.width;
-        TextBuffer[] oldText = text;
-        TextBuffer[] oldTextColour = textColour;
-        TextBuffer[] oldBackgroundColour = backgroundColour;
+        byte[] oldCells = cells;
 
         this.width = width;
         this.height = height;
 
-        text = new TextBuffer[height];
-        textColour = new TextBuffer[height];
-        backgroundColour = new TextBuffer[height];
-        for( int i = 0; i < this.height; i++ )
+        cells = new byte[width * height * 2];
+        int keepWidth = Math.min( width, oldWidth );
+        for( int y = 0; y < height; y++ )
         {
-            if( i >= oldHeight )
-            {
-                text[i] = new TextBuffer( ' ', this.width );
-                textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-                backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
-            }
-            else if( this.width == oldWidth )
+            if( y < oldHeight )
             {
-                text[i] = oldText[i];
-                textColour[i] = oldTextColour[i];
-                backgroundColour[i] = oldBackgroundColour[i];
+                System.arraycopy( oldCells, y * oldWidth * 2, cells, y * width * 2, keepWidth * 2 );
+                clearLine( y, keepWidth );
             }
             else
             {
-                text[i] = new TextBuffer( ' ', this.width );
-                textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-                backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
-                text[i].write( oldText[i] );
-                textColour[i].write( oldTextColour[i] );
-                backgroundColour[i].write( oldBackgroundColour[i] );
+                clearLine( y, 0 );
             }
         }
-        setChanged();
+
+        createLines();
+        setAllChanged();
     }
 
     public void setCursorPos( int x, int y )
@@ -198,11 +215,56 @@ public synchronized void blit( ByteBuffer text, ByteBuffer textColour, ByteBuffe
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            this.text[y].write( text, x );
-            this.textColour[y].write( textColour, x );
-            this.backgroundColour[y].write( backgroundColour, x );
-            setChanged();
+            int start = Math.max( x, 0 ), end = Math.min( x + text.remaining(), width );
+            int index = (y * width + start) * 2;
+            for( int i = start; i < end; i++ )
+            {
+                cells[index++] = text.get( i - x );
+                cells[index++] = packColour(
+                    getColour( (char) (textColour.get( i - x ) & 0xFF), Colour.WHITE ),
+                    getColour( (char) (backgroundColour.get( i - x ) & 0xFF), Colour.BLACK )
+                );
+            }
+            setLineChanged( y );
+        }
+    }
+
+    /**
+     * Write several lines of text, with the specified foreground and background colours. Unlike
+     * {@link #blit(ByteBuffer, ByteBuffer, ByteBuffer)}, this does not depend on the cursor position, and only
+     * notifies listeners once.
+     *
+     * @param x                The column to start writing at.
+     * @param y                The line to write the first row to.
+     * @param text             The text of each row.
+     * @param textColour       The text colour of each row, as a string of hexadecimal digits.
+     * @param backgroundColour The background colour of each row, as a string of hexadecimal digits.
+     */
+    public synchronized void blitLines( int x, int y, String[] text, String[] textColour, String[] backgroundColour )
+    {
+        boolean changed = false;
+        for( int i = 0; i < text.length; i++ )
+        {
+            int line = y + i;
+            if( line < 0 || line >= height ) continue;
+
+            String lineText = text[i], lineTextColour = textColour[i], lineBackgroundColour = backgroundColour[i];
+            int start = Math.max( x, 0 ), end = Math.min( x + lineText.length(), width );
+            int index = (line * width + start) * 2;
+            for( int j = start; j < end; j++ )
+            {
+                cells[index++] = (byte) lineText.charAt( j - x );
+                cells[index++] = packColour(
+                    getColour( lineTextColour.charAt( j - x ), Colour.WHITE ),
+                    getColour( lineBackgroundColour.charAt( j - x ), Colour.BLACK )
+                );
+            }
+
+            if( changedLines != null ) changedLines.set( line );
+            changed = true;
         }
+
+        if( changed ) setChanged();
     }
 
     public synchronized void write( String text )
@@ -211,10 +273,15 @@ public synchronized void write( String text )
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            this.text[y].write( text, x );
-            textColour[y].fill( base16.charAt( cursorColour ), x, x + text.length() );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ), x, x + text.length() );
-            setChanged();
+            byte colour = packColour( cursorColour, cursorBackgroundColour );
+            int start = Math.max( x, 0 ), end = Math.min( x + text.length(), width );
+            int index = (y * width + start) * 2;
+            for( int i = start; i < end; i++ )
+            {
+                cells[index++] = (byte) text.charAt( i - x );
+                cells[index++] = colour;
+            }
+            setLineChanged( y );
         }
     }
 
@@ -222,41 +289,26 @@ public synchronized void scroll( int yDiff )
     {
         if( yDiff != 0 )
         {
-            TextBuffer[] newText = new TextBuffer[height];
-            TextBuffer[] newTextColour = new TextBuffer[height];
-            TextBuffer[] newBackgroundColour = new TextBuffer[height];
-            for( int y = 0; y < height; y++ )
+            int shift = Math.max( -height, Math.min( height, yDiff ) );
+            int lineSize = width * 2;
+            if( shift > 0 )
             {
-                int oldY = y + yDiff;
-                if( oldY >= 0 && oldY < height )
-                {
-                    newText[y] = text[oldY];
-                    newTextColour[y] = textColour[oldY];
-                    newBackgroundColour[y] = backgroundColour[oldY];
-                }
-                else
-                {
-                    newText[y] = new TextBuffer( ' ', width );
-                    newTextColour[y] = new TextBuffer( base16.charAt( cursorColour ), width );
-                    newBackgroundColour[y] = new TextBuffer( base16.charAt( cursorBackgroundColour ), width );
-                }
+                System.arraycopy( cells, shift * lineSize, cells, 0, (height - shift) * lineSize );
+                for( int y = height - shift; y < height; y++ ) clearLine( y, 0 );
             }
-            text = newText;
-            textColour = newTextColour;
-            backgroundColour = newBackgroundColour;
-            setChanged();
+            else
+            {
+                System.arraycopy( cells, 0, cells, -shift * lineSize, (height + shift) * lineSize );
+                for( int y = 0; y < -shift; y++ ) clearLine( y, 0 );
+            }
+            setAllChanged();
         }
     }
 
     public synchronized void clear()
     {
-        for( int y = 0; y < height; y++ )
-        {
-            text[y].fill( ' ' );
-            textColour[y].fill( base16.charAt( cursorColour ) );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ) );
-        }
-        setChanged();
+        for( int y = 0; y < height; y++ ) clearLine( y, 0 );
+        setAllChanged();
     }
 
     public synchronized void clearLine()
@@ -264,10 +316,8 @@ public synchronized void clearLine()
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            text[y].fill( ' ' );
-            textColour[y].fill( base16.charAt( cursorColour ) );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ) );
-            setChanged();
+            clearLine( y, 0 );
+            setLineChanged( y );
         }
     }
 
@@ -275,24 +325,24 @@ public synchronized TextBuffer getLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return text[y];
+            return textLines[y];
         }
         return null;
     }
 
     public synchronized void setLine( int y, String text, String textColour, String backgroundColour )
     {
-        this.text[y].write( text );
-        this.textColour[y].write( textColour );
-        this.backgroundColour[y].write( backgroundColour );
-        setChanged();
+        textLines[y].write( text );
+        textColourLines[y].write( textColour );
+        backgroundColourLines[y].write( backgroundColour );
+        setLineChanged( y );
     }
 
     public synchronized TextBuffer getTextColourLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return textColour[y];
+            return textColourLines[y];
         }
         return null;
     }
@@ -301,7 +351,7 @@ public synchronized TextBuffer getBackgroundColourLine( int y )
     {
         if( y >= 0 && y < height )
         {
-            return backgroundColour[y];
+            return backgroundColourLines[y];
         }
         return null;
     }
@@ -311,33 +361,112 @@ public final void setChanged()
         if( onChanged != null ) onChanged.run();
     }
 
+    private void setLineChanged( int y )
+    {
+        if( changedLines != null ) changedLines.set( y );
+        setChanged();
+    }
+
+    private void setAllChanged()
+    {
+        changedLines = null;
+        setChanged();
+    }
+
+    /**
+     * Get the lines which have changed since this method was last called, and reset the set of changed lines.
+     *
+     * Changes to the cursor and palette are not tracked, and so should always be sent alongside any changed lines.
+     *
+     * @return The indices of all changed lines, or {@code null} if the whole terminal has changed (for instance, it
+     * was resized or scrolled) and so should be sent in full.
+     */
+    @Nullable
+    public synchronized BitSet pollChangedLines()
+    {
+        BitSet lines = changedLines;
+        changedLines = new BitSet( height );
+        return lines == null || lines.cardinality() >= height ? null : lines;
+    }
+
     public synchronized void write( FriendlyByteBuf buffer )
     {
-        buffer.writeInt( cursorX );
-        buffer.writeInt( cursorY );
-        buffer.writeBoolean( cursorBlink );
-        buffer.writeByte( cursorBackgroundColour << 4 | cursorColour );
+        writeCursor( buffer );
+        for( int y = 0; y < height; y++ ) writeLine( buffer, y );
+        palette.write( buffer );
+    }
 
-        for( int y = 0; y < height; y++ )
-        {
-            TextBuffer text = this.text[y];
-            TextBuffer textColour = this.textColour[y];
-            TextBuffer backColour = backgroundColour[y];
+    public synchronized void read( FriendlyByteBuf buffer )
+    {
+        readCursor( buffer );
+        for( int y = 0; y < height; y++ ) readLine( buffer, y );
+        palette.read( buffer );
+        setAllChanged();
+    }
 
-            for( int x = 0; x < width; x++ )
-            {
-                buffer.writeByte( text.charAt( x ) & 0xFF );
-                buffer.writeByte( getColour(
-                    backColour.charAt( x ), Colour.BLACK ) << 4 |
-                    getColour( textColour.charAt( x ), Colour.WHITE )
-                );
-            }
+    /**
+     * Write a subset of this terminal's lines to a buffer, along with the cursor and palette. Consecutive lines are
+     * grouped into ranges.
+     *
+     * @param buffer The buffer to write to.
+     * @param lines  The lines to write, as returned by {@link #pollChangedLines()}.
+     * @see #readLines(FriendlyByteBuf)
+     */
+    public synchronized void writeLines( FriendlyByteBuf buffer, BitSet lines )
+    {
+        BitSet changed = lines.get( 0, height );
+
+        int ranges = 0;
+        for( int start = changed.nextSetBit( 0 ); start >= 0; start = changed.nextSetBit( changed.nextClearBit( start ) ) )
+        {
+            ranges++;
         }
 
+        writeCursor( buffer );
+        buffer.writeVarInt( ranges );
+        for( int start = changed.nextSetBit( 0 ); start >= 0; )
+        {
+            int end = changed.nextClearBit( start );
+            buffer.writeVarInt( start );
+            buffer.writeVarInt( end - start );
+            for( int y = start; y < end; y++ ) writeLine( buffer, y );
+
+            start = changed.nextSetBit( end );
+        }
         palette.write( buffer );
     }
 
-    public synchronized void read( FriendlyByteBuf buffer )
+    /**
+     * Read a set of lines written with {@link #writeLines(FriendlyByteBuf, BitSet)}. This terminal must have the same
+     * dimensions as the one which was written.
+     *
+     * @param buffer The buffer to read from.
+     */
+    public synchronized void readLines( FriendlyByteBuf buffer )
+    {
+        readCursor( buffer );
+        int ranges = buffer.readVarInt();
+        for( int i = 0; i < ranges; i++ )
+        {
+            int start = buffer.readVarInt();
+            int end = start + buffer.readVarInt();
+            if( start < 0 || end > height ) throw new IllegalStateException( "Line range out of bounds" );
+
+            for( int y = start; y < end; y++ ) readLine( buffer, y );
+        }
+        palette.read( buffer );
+        setChanged();
+    }
+
+    private void writeCursor( FriendlyByteBuf buffer )
+    {
+        buffer.writeInt( cursorX );
+        buffer.writeInt( cursorY );
+        buffer.writeBoolean( cursorBlink );
+        buffer.writeByte( cursorBackgroundColour << 4 | cursorColour );
+    }
+
+    private void readCursor( FriendlyByteBuf buffer )
     {
         cursorX = buffer.readInt();
         cursorY = buffer.readInt();
@@ -346,25 +475,16 @@ public synchronized void read( FriendlyByteBuf buffer )
         byte cursorColour = buffer.readByte();
         cursorBackgroundColour = (cursorColour >> 4) & 0xF;
         this.cursorColour = cursorColour & 0xF;
+    }
 
-        for( int y = 0; y < height; y++ )
-        {
-            TextBuffer text = this.text[y];
-            TextBuffer textColour = this.textColour[y];
-            TextBuffer backColour = backgroundColour[y];
-
-            for( int x = 0; x < width; x++ )
-            {
-                text.setChar( x, (char) (buffer.readByte() & 0xFF) );
-
-                byte colour = buffer.readByte();
-                backColour.setChar( x, base16.charAt( (colour >> 4) & 0xF ) );
-                textColour.setChar( x, base16.charAt( colour & 0xF ) );
-            }
-        }
+    private void writeLine( FriendlyByteBuf buffer, int y )
+    {
+        buffer.writeBytes( cells, y * width * 2, width * 2 );
+    }
 
-        palette.read( buffer );
-        setChanged();
+    private void readLine( FriendlyByteBuf buffer, int y )
+    {
+        buffer.readBytes( cells, y * width * 2, width * 2 );
     }
 
     public synchronized CompoundTag writeToNBT( CompoundTag nbt )
@@ -374,12 +494,8 @@ public synchronized CompoundTag writeToNBT( CompoundTag nbt )
         nbt.putBoolean( "term_cursorBlink", cursorBlink );
         nbt.putInt( "term_textColour", cursorColour );
         nbt.putInt( "term_bgColour", cursorBackgroundColour );
-        for( int n = 0; n < height; n++ )
-        {
-            nbt.putString( "term_text_" + n, text[n].toString() );
-            nbt.putString( "term_textColour_" + n, textColour[n].toString() );
-            nbt.putString( "term_textBgColour_" + n, backgroundColour[n].toString() );
-        }
+        nbt.putInt( "term_width", width );
+        nbt.putByteArray( "term_contents", cells.clone() );
 
         palette.writeToNBT( nbt );
         return nbt;
@@ -393,27 +509,66 @@ public synchronized void readFromNBT( CompoundTag nbt )
         cursorColour = nbt.getInt( "term_textColour" );
         cursorBackgroundColour = nbt.getInt( "term_bgColour" );
 
+        if( nbt.contains( "term_contents", Tag.TAG_BYTE_ARRAY ) )
+        {
+            readContents( nbt.getInt( "term_width" ), nbt.getByteArray( "term_contents" ) );
+        }
+        else
+        {
+            readLegacyContents( nbt );
+        }
+
+        palette.readFromNBT( nbt );
+        setAllChanged();
+    }
+
+    /**
+     * Read the terminal's contents from the packed cells of a terminal which may have had different dimensions.
+     *
+     * @param width    The width of the saved terminal.
+     * @param contents The saved terminal's cells.
+     */
+    private void readContents( int width, byte[] contents )
+    {
+        int height = width <= 0 ? 0 : contents.length / (width * 2);
+        int keepWidth = Math.min( width, this.width );
+        for( int y = 0; y < this.height; y++ )
+        {
+            if( y < height )
+            {
+                System.arraycopy( contents, y * width * 2, cells, y * this.width * 2, keepWidth * 2 );
+                clearLine( y, keepWidth );
+            }
+            else
+            {
+                clearLine( y, 0 );
+            }
+        }
+    }
+
+    /**
+     * Read the terminal's contents from the string-per-line format used by older versions.
+     *
+     * @param nbt The tag to read from.
+     */
+    private void readLegacyContents( CompoundTag nbt )
+    {
         for( int n = 0; n < height; n++ )
         {
-            text[n].fill( ' ' );
+            clearLine( n, 0 );
             if( nbt.contains( "term_text_" + n ) )
             {
-                text[n].write( nbt.getString( "term_text_" + n ) );
+                textLines[n].write( nbt.getString( "term_text_" + n ) );
             }
-            textColour[n].fill( base16.charAt( cursorColour ) );
             if( nbt.contains( "term_textColour_" + n ) )
             {
-                textColour[n].write( nbt.getString( "term_textColour_" + n ) );
+                textColourLines[n].write( nbt.getString( "term_textColour_" + n ) );
             }
-            backgroundColour[n].fill( base16.charAt( cursorBackgroundColour ) );
             if( nbt.contains( "term_textBgColour_" + n ) )
             {
-                backgroundColour[n].write( nbt.getString( "term_textBgColour_" + n ) );
+                backgroundColourLines[n].write( nbt.getString( "term_textBgColour_" + n ) );
             }
         }
-
-        palette.readFromNBT( nbt );
-        setChanged();
     }
 
     public static int getColour( char c, Colour def )
@@ -423,4 +578,81 @@ public static int getColour( char c, Colour def )
         if( c >= 'A' && c <= 'F' ) return c - 'A' + 10;
         return 15 - def.ordinal();
     }
+
+    private static byte packColour( int textColour, int backgroundColour )
+    {
+        return (byte) ((backgroundColour & 0xF) << 4 | (textColour & 0xF));
+    }
+
+    /**
+     * Fill the end of a line with spaces, using the current text and background colour.
+     *
+     * @param y     The line to clear.
+     * @param start The column to start clearing from.
+     */
+    private void clearLine( int y, int start )
+    {
+        byte colour = packColour( cursorColour, cursorBackgroundColour );
+        for( int index = (y * width + start) * 2, end = (y + 1) * width * 2; index < end; index += 2 )
+        {
+            cells[index] = ' ';
+            cells[index + 1] = colour;
+        }
+    }
+
+    /**
+     * A view over one component (the text, text colour or background colour) of a single line of the terminal.
+     */
+    private final class Line extends TextBuffer
+    {
+        private final int y;
+        private final int kind;
+
+        Line( int y, int kind )
+        {
+            this.y = y;
+            this.kind = kind;
+        }
+
+        @Override
+        public int length()
+        {
+            return width;
+        }
+
+        @Override
+        public char charAt( int x )
+        {
+            int index = (y * width + x) * 2;
+            if( kind == TEXT ) return (char) (cells[index] & 0xFF);
+            if( kind == TEXT_COLOUR ) return base16.charAt( cells[index + 1] & 0xF );
+            return base16.charAt( (cells[index + 1] >> 4) & 0xF );
+        }
+
+        @Override
+        void set( int x, char c )
+        {
+            int index = (y * width + x) * 2;
+            if( kind == TEXT )
+            {
+                cells[index] = (byte) c;
+            }
+            else if( kind == TEXT_COLOUR )
+            {
+                cells[index + 1] = packColour( getColour( c, Colour.WHITE ), cells[index + 1] >> 4 );
+            }
+            else
+            {
+                cells[index + 1] = packColour( cells[index + 1], getColour( c, Colour.BLACK ) );
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            char[] chars = new char[width];
+            for( int x = 0; x < width; x++ ) chars[x] = charAt( x );
+            return new String( chars );
+        }
+    }
 }
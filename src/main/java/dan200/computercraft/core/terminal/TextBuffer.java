@@ -22,6 +22,15 @@ public TextBuffer( String text )
         this.text = text.toCharArray();
     }
 
+    /**
+     * Construct a text buffer which stores its contents elsewhere. Subclasses must override {@link #length()},
+     * {@link #charAt(int)}, {@link #set(int, char)} and {@link #toString()}.
+     */
+    TextBuffer()
+    {
+        text = null;
+    }
+
     public int length()
     {
         return text.length;
@@ -37,10 +46,10 @@ public void write( String text, int start )
         int pos = start;
         start = Math.max( start, 0 );
         int end = Math.min( start + text.length(), pos + text.length() );
-        end = Math.min( end, this.text.length );
+        end = Math.min( end, length() );
         for( int i = start; i < end; i++ )
         {
-            this.text[i] = text.charAt( i - pos );
+            set( i, text.charAt( i - pos ) );
         }
     }
 
@@ -50,34 +59,34 @@ public void write( ByteBuffer text, int start )
         start = Math.max( start, 0 );
         int length = text.remaining();
         int end = Math.min( start + length, pos + length );
-        end = Math.min( end, this.text.length );
+        end = Math.min( end, length() );
         for( int i = start; i < end; i++ )
         {
-            this.text[i] = (char) (text.get( i - pos ) & 0xFF);
+            set( i, (char) (text.get( i - pos ) & 0xFF) );
         }
     }
 
     public void write( TextBuffer text )
     {
-        int end = Math.min( text.length(), this.text.length );
+        int end = Math.min( text.length(), length() );
         for( int i = 0; i < end; i++ )
         {
-            this.text[i] = text.charAt( i );
+            set( i, text.charAt( i ) );
         }
     }
 
     public void fill( char c )
     {
-        fill( c, 0, text.length );
+        fill( c, 0, length() );
     }
 
     public void fill( char c, int start, int end )
     {
         start = Math.max( start, 0 );
-        end = Math.min( end, text.length );
+        end = Math.min( end, length() );
         for( int i = start; i < end; i++ )
         {
-            text[i] = c;
+            set( i, c );
         }
     }
 
@@ -88,12 +97,23 @@ public char charAt( int i )
 
     public void setChar( int i, char c )
     {
-        if( i >= 0 && i < text.length )
+        if( i >= 0 && i < length() )
         {
-            text[i] = c;
+            set( i, c );
         }
     }
 
+    /**
+     * Set a character in this buffer, without checking it is in bounds.
+     *
+     * @param i The index to set.
+     * @param c The new character.
+     */
+    void set( int i, char c )
+    {
+        text[i] = c;
+    }
+
     @Override
     public String toString()
     {
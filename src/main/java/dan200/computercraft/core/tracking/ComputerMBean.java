@@ -14,7 +14,7 @@
 import javax.management.*;
 import java.lang.management.ManagementFactory;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.LongSupplier;
 
 public final class ComputerMBean implements DynamicMBean, Tracker
@@ -124,8 +124,8 @@ public void addServerTiming( Computer computer, long time )
     public void addValue( Computer computer, TrackingField field, long change )
     {
         Counter counter = values.get( field );
-        counter.value.addAndGet( change );
-        counter.count.incrementAndGet();
+        counter.value.add( change );
+        counter.count.increment();
     }
 
     private MBeanAttributeInfo addAttribute( String name, String description, LongSupplier value )
@@ -140,17 +140,17 @@ private void add( String name, TrackingField field, List<MBeanAttributeInfo> att
         values.put( field, counter );
 
         String prettyName = Language.getInstance().getOrDefault( field.translationKey() );
-        attributes.add( addAttribute( name, prettyName, counter.value::longValue ) );
+        attributes.add( addAttribute( name, prettyName, counter.value::sum ) );
         if( count != null )
         {
             String countName = Language.getInstance().getOrDefault( count.translationKey() );
-            attributes.add( addAttribute( name + "Count", countName, counter.count::longValue ) );
+            attributes.add( addAttribute( name + "Count", countName, counter.count::sum ) );
         }
     }
 
     private static class Counter
     {
-        final AtomicLong value = new AtomicLong();
-        final AtomicLong count = new AtomicLong();
+        final LongAdder value = new LongAdder();
+        final LongAdder count = new LongAdder();
     }
 }
@@ -6,30 +6,36 @@
 package dan200.computercraft.core.tracking;
 
 import dan200.computercraft.core.computer.Computer;
-import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
 
 import javax.annotation.Nullable;
 import java.lang.ref.WeakReference;
-
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and other metrics for a single computer. These are updated from many threads at once, and so use
+ * {@link LongAdder}s rather than locking.
+ */
 public class ComputerTracker
 {
     private final WeakReference<Computer> computer;
     private final int computerId;
 
-    private long tasks;
-    private long totalTime;
-    private long maxTime;
+    private final LongAdder tasks = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator maxTime = new LongAccumulator( Math::max, 0 );
 
-    private long serverCount;
-    private long serverTime;
+    private final LongAdder serverCount = new LongAdder();
+    private final LongAdder serverTime = new LongAdder();
 
-    private final Object2LongOpenHashMap<TrackingField> fields;
+    private final Map<TrackingField, LongAdder> fields = new ConcurrentHashMap<>();
 
     public ComputerTracker( Computer computer )
     {
         this.computer = new WeakReference<>( computer );
         computerId = computer.getID();
-        fields = new Object2LongOpenHashMap<>();
     }
 
     ComputerTracker( ComputerTracker timings )
@@ -37,14 +43,19 @@ public ComputerTracker( Computer computer )
         computer = timings.computer;
         computerId = timings.computerId;
 
-        tasks = timings.tasks;
-        totalTime = timings.totalTime;
-        maxTime = timings.maxTime;
+        tasks.add( timings.getTasks() );
+        totalTime.add( timings.getTotalTime() );
+        maxTime.accumulate( timings.getMaxTime() );
 
-        serverCount = timings.serverCount;
-        serverTime = timings.serverTime;
+        serverCount.add( timings.serverCount.sum() );
+        serverTime.add( timings.serverTime.sum() );
 
-        fields = new Object2LongOpenHashMap<>( timings.fields );
+        for( Map.Entry<TrackingField, LongAdder> field : timings.fields.entrySet() )
+        {
+            LongAdder value = new LongAdder();
+            value.add( field.getValue().sum() );
+            fields.put( field.getKey(), value );
+        }
     }
 
     @Nullable
@@ -60,59 +71,58 @@ public int getComputerId()
 
     public long getTasks()
     {
-        return tasks;
+        return tasks.sum();
     }
 
     public long getTotalTime()
     {
-        return totalTime;
+        return totalTime.sum();
     }
 
     public long getMaxTime()
     {
-        return maxTime;
+        return maxTime.get();
     }
 
     public long getAverage()
     {
-        return totalTime / tasks;
+        return getTotalTime() / getTasks();
     }
 
     void addTaskTiming( long time )
     {
-        tasks++;
-        totalTime += time;
-        if( time > maxTime ) maxTime = time;
+        tasks.increment();
+        totalTime.add( time );
+        maxTime.accumulate( time );
     }
 
     void addMainTiming( long time )
     {
-        serverCount++;
-        serverTime += time;
+        serverCount.increment();
+        serverTime.add( time );
     }
 
     void addValue( TrackingField field, long change )
     {
-        synchronized( fields )
-        {
-            fields.addTo( field, change );
-        }
+        fields.computeIfAbsent( field, x -> new LongAdder() ).add( change );
     }
 
     public long get( TrackingField field )
     {
-        if( field == TrackingField.TASKS ) return tasks;
-        if( field == TrackingField.MAX_TIME ) return maxTime;
-        if( field == TrackingField.TOTAL_TIME ) return totalTime;
-        if( field == TrackingField.AVERAGE_TIME ) return tasks == 0 ? 0 : totalTime / tasks;
-
-        if( field == TrackingField.SERVER_COUNT ) return serverCount;
-        if( field == TrackingField.SERVER_TIME ) return serverTime;
-
-        synchronized( fields )
+        if( field == TrackingField.TASKS ) return getTasks();
+        if( field == TrackingField.MAX_TIME ) return getMaxTime();
+        if( field == TrackingField.TOTAL_TIME ) return getTotalTime();
+        if( field == TrackingField.AVERAGE_TIME )
         {
-            return fields.getLong( field );
+            long tasks = getTasks();
+            return tasks == 0 ? 0 : getTotalTime() / tasks;
         }
+
+        if( field == TrackingField.SERVER_COUNT ) return serverCount.sum();
+        if( field == TrackingField.SERVER_TIME ) return serverTime.sum();
+
+        LongAdder value = fields.get( field );
+        return value == null ? 0 : value.sum();
     }
 
     public String getFormatted( TrackingField field )
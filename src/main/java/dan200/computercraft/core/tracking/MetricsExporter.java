@@ -0,0 +1,312 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.tracking;
+
+import com.google.common.collect.MapMaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.ComputerThread;
+import dan200.computercraft.core.computer.MainThread;
+import dan200.computercraft.shared.util.ThreadUtils;
+import net.minecraft.locale.Language;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Exposes metrics about computers, the computer thread, main thread tasks and monitors over HTTP, using the
+ * OpenMetrics text format (as scraped by Prometheus).
+ *
+ * Every {@link TrackingField} is reported as a server-wide counter. In order to avoid producing an unbounded number of
+ * series, per-computer counters are only reported for the {@link ComputerCraft#metricsTopComputers} computer IDs which
+ * have used the most time in total. Computers sharing an ID (such as copies of a pocket computer) are reported as one.
+ * All counters are cumulative, so rates should be computed by the scraper.
+ *
+ * Metrics from outside the core (such as monitors) may be added with {@link #addGauge(String, String, DoubleSupplier)}
+ * and {@link #addCounter(String, String, DoubleSupplier)}.
+ *
+ * @see ComputerMBean For the equivalent JMX bean.
+ */
+public final class MetricsExporter implements Tracker
+{
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    /**
+     * Fields which are not counters, and so are not exported.
+     */
+    private static final Set<TrackingField> SKIP = Set.of( TrackingField.AVERAGE_TIME, TrackingField.MAX_TIME );
+
+    /**
+     * Fields which are measured in nanoseconds, and so are exported in seconds.
+     */
+    private static final Set<TrackingField> TIMES = Set.of( TrackingField.TOTAL_TIME, TrackingField.SERVER_TIME );
+
+    /**
+     * Metric names for fields whose id does not make sense on its own.
+     */
+    private static final Map<TrackingField, String> NAMES = Map.of(
+        TrackingField.TOTAL_TIME, "task_seconds",
+        TrackingField.SERVER_COUNT, "server_tasks",
+        TrackingField.SERVER_TIME, "server_task_seconds"
+    );
+
+    /**
+     * Additional metrics, registered by {@link #addGauge(String, String, DoubleSupplier)} and
+     * {@link #addCounter(String, String, DoubleSupplier)}.
+     */
+    private static final List<Metric> extraMetrics = new CopyOnWriteArrayList<>();
+
+    private static MetricsExporter instance;
+
+    private final Map<TrackingField, LongAdder> totals = new HashMap<>();
+    private final ConcurrentMap<Computer, ComputerTracker> computers = new MapMaker().weakKeys().makeMap();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private MetricsExporter( HttpServer server, ExecutorService executor )
+    {
+        this.server = server;
+        this.executor = executor;
+        for( TrackingField field : TrackingField.fields().values() ) totals.put( field, new LongAdder() );
+    }
+
+    /**
+     * Add an additional gauge to the exported metrics.
+     *
+     * @param name  The metric's name.
+     * @param help  A description of this metric.
+     * @param value Get the current value of this metric. This is called from the metrics thread.
+     */
+    public static void addGauge( String name, String help, DoubleSupplier value )
+    {
+        extraMetrics.add( new Metric( name, "gauge", help, value ) );
+    }
+
+    /**
+     * Add an additional counter to the exported metrics.
+     *
+     * @param name  The metric's name, without the {@code _total} suffix.
+     * @param help  A description of this metric.
+     * @param value Get the current value of this counter. This is called from the metrics thread.
+     */
+    public static void addCounter( String name, String help, DoubleSupplier value )
+    {
+        extraMetrics.add( new Metric( name, "counter", help, value ) );
+    }
+
+    public static synchronized void start()
+    {
+        if( instance != null || !ComputerCraft.metricsEnabled ) return;
+
+        HttpServer server;
+        try
+        {
+            server = HttpServer.create( new InetSocketAddress( ComputerCraft.metricsAddress, ComputerCraft.metricsPort ), 0 );
+        }
+        catch( IOException e )
+        {
+            ComputerCraft.log.error( "Failed to start metrics server on {}:{}", ComputerCraft.metricsAddress, ComputerCraft.metricsPort, e );
+            return;
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor( ThreadUtils.factory( "Metrics" ) );
+        MetricsExporter exporter = instance = new MetricsExporter( server, executor );
+        server.createContext( "/metrics", exporter::handle );
+        server.setExecutor( executor );
+        server.start();
+        Tracking.add( exporter );
+    }
+
+    public static synchronized void stop()
+    {
+        MetricsExporter exporter = instance;
+        if( exporter == null ) return;
+
+        instance = null;
+        Tracking.remove( exporter );
+        exporter.server.stop( 0 );
+        exporter.executor.shutdown();
+    }
+
+    @Override
+    public void addTaskTiming( Computer computer, long time )
+    {
+        totals.get( TrackingField.TASKS ).increment();
+        totals.get( TrackingField.TOTAL_TIME ).add( time );
+        getTracker( computer ).addTaskTiming( time );
+    }
+
+    @Override
+    public void addServerTiming( Computer computer, long time )
+    {
+        totals.get( TrackingField.SERVER_COUNT ).increment();
+        totals.get( TrackingField.SERVER_TIME ).add( time );
+        getTracker( computer ).addMainTiming( time );
+    }
+
+    @Override
+    public void addValue( Computer computer, TrackingField field, long change )
+    {
+        LongAdder total = totals.get( field );
+        if( total != null ) total.add( change );
+        getTracker( computer ).addValue( field, change );
+    }
+
+    private ComputerTracker getTracker( Computer computer )
+    {
+        ComputerTracker tracker = computers.get( computer );
+        if( tracker != null ) return tracker;
+
+        ComputerTracker created = new ComputerTracker( computer );
+        tracker = computers.putIfAbsent( computer, created );
+        return tracker == null ? created : tracker;
+    }
+
+    private void handle( HttpExchange exchange ) throws IOException
+    {
+        try( exchange )
+        {
+            if( !exchange.getRequestMethod().equals( "GET" ) )
+            {
+                exchange.sendResponseHeaders( 405, -1 );
+                return;
+            }
+
+            byte[] body = write().getBytes( StandardCharsets.UTF_8 );
+            exchange.getResponseHeaders().set( "Content-Type", CONTENT_TYPE );
+            exchange.sendResponseHeaders( 200, body.length );
+            try( OutputStream output = exchange.getResponseBody() )
+            {
+                output.write( body );
+            }
+        }
+    }
+
+    private synchronized String write()
+    {
+        StringBuilder out = new StringBuilder();
+
+        List<ComputerMetrics> top = getTopComputers();
+        for( TrackingField field : TrackingField.fields().values() )
+        {
+            if( SKIP.contains( field ) ) continue;
+
+            String name = NAMES.getOrDefault( field, field.id() );
+            String help = Language.getInstance().getOrDefault( field.translationKey() );
+
+            header( out, "computercraft_" + name, "counter", help );
+            sample( out, "computercraft_" + name + "_total", "", toUnit( field, totals.get( field ).sum() ) );
+
+            if( top.isEmpty() ) continue;
+            header( out, "computercraft_computer_" + name, "counter", help + " (per computer)" );
+            for( ComputerMetrics computer : top )
+            {
+                String labels = "{computer=\"" + computer.id() + "\"}";
+                sample( out, "computercraft_computer_" + name + "_total", labels, toUnit( field, computer.get( field ) ) );
+            }
+        }
+
+        int[] runners = ComputerThread.getRunnerUsage();
+        gauge( out, "computercraft_computer_thread_queued", "Computers waiting to run", ComputerThread.getQueuedWork() );
+        gauge( out, "computercraft_computer_thread_runners", "Computer thread runners", runners[0] );
+        gauge( out, "computercraft_computer_thread_busy_runners", "Computer thread runners currently running a computer", runners[1] );
+        gauge( out, "computercraft_computer_thread_runtime_skew_seconds", "Largest difference in virtual runtime between queued computers", ComputerThread.getRuntimeSkew() * 1e-9 );
+
+        gauge( out, "computercraft_main_thread_tick_seconds", "Time spent running main thread tasks in the last tick", MainThread.getLastTickTime() * 1e-9 );
+        gauge( out, "computercraft_main_thread_budget_seconds", "Maximum time to spend running main thread tasks each tick", ComputerCraft.maxMainGlobalTime * 1e-9 );
+        gauge( out, "computercraft_main_thread_cooling", "Computers which have exceeded their main thread budget", MainThread.getCoolingCount() );
+
+        for( Metric metric : extraMetrics )
+        {
+            header( out, metric.name(), metric.type(), metric.help() );
+            sample( out, metric.type().equals( "counter" ) ? metric.name() + "_total" : metric.name(), "", metric.value().getAsDouble() );
+        }
+
+        out.append( "# EOF\n" );
+        return out.toString();
+    }
+
+    /**
+     * Find the computer IDs which have used the most time in total. Ranking by total (rather than recent) time keeps
+     * the set of reported computers stable between scrapes.
+     *
+     * @return The most expensive computers.
+     */
+    private List<ComputerMetrics> getTopComputers()
+    {
+        int limit = ComputerCraft.metricsTopComputers;
+        if( limit <= 0 ) return Collections.emptyList();
+
+        Map<Integer, ComputerMetrics> byId = new HashMap<>();
+        for( ComputerTracker tracker : computers.values() )
+        {
+            byId.computeIfAbsent( tracker.getComputerId(), id -> new ComputerMetrics( id, new ArrayList<>( 1 ) ) ).trackers().add( tracker );
+        }
+
+        List<ComputerMetrics> top = new ArrayList<>( byId.values() );
+        Map<ComputerMetrics, Long> times = new IdentityHashMap<>();
+        for( ComputerMetrics computer : top )
+        {
+            times.put( computer, computer.get( TrackingField.TOTAL_TIME ) + computer.get( TrackingField.SERVER_TIME ) );
+        }
+
+        top.sort( Comparator.<ComputerMetrics>comparingLong( times::get ).reversed() );
+        return top.size() > limit ? top.subList( 0, limit ) : top;
+    }
+
+    private static double toUnit( TrackingField field, long value )
+    {
+        return TIMES.contains( field ) ? value * 1e-9 : value;
+    }
+
+    private static void header( StringBuilder out, String name, String type, String help )
+    {
+        out.append( "# TYPE " ).append( name ).append( ' ' ).append( type ).append( '\n' );
+        out.append( "# HELP " ).append( name ).append( ' ' ).append( help.replace( "\\", "\\\\" ).replace( "\n", "\\n" ) ).append( '\n' );
+    }
+
+    private static void sample( StringBuilder out, String name, String labels, double value )
+    {
+        out.append( name ).append( labels ).append( ' ' ).append( value ).append( '\n' );
+    }
+
+    private static void gauge( StringBuilder out, String name, String help, double value )
+    {
+        header( out, name, "gauge", help );
+        sample( out, name, "", value );
+    }
+
+    /**
+     * The metrics of every computer with a given ID.
+     *
+     * @param id       The computer ID.
+     * @param trackers The trackers of every computer with this ID.
+     */
+    private record ComputerMetrics(int id, List<ComputerTracker> trackers)
+    {
+        long get( TrackingField field )
+        {
+            long total = 0;
+            for( ComputerTracker tracker : trackers ) total += tracker.get( field );
+            return total;
+        }
+    }
+
+    private record Metric(String name, String type, String help, DoubleSupplier value)
+    {
+    }
+}
@@ -7,81 +7,62 @@
 
 import dan200.computercraft.core.computer.Computer;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+/**
+ * Dispatches timings and other metrics to any active {@link Tracker}s.
+ *
+ * These methods are called from the computer and server threads on almost every operation, so must be cheap. Rather
+ * than taking a lock, we keep a copy-on-write list of the currently active trackers (which changes very rarely), and
+ * trackers themselves are expected to be lock-free.
+ */
 public final class Tracking
 {
-    static final AtomicInteger tracking = new AtomicInteger( 0 );
-
-    private static final Object lock = new Object();
-    private static final HashMap<UUID, TrackingContext> contexts = new HashMap<>();
-    private static final List<Tracker> trackers = new ArrayList<>();
+    private static final Map<UUID, TrackingContext> contexts = new ConcurrentHashMap<>();
+    private static final List<Tracker> trackers = new CopyOnWriteArrayList<>();
 
     private Tracking() {}
 
     public static TrackingContext getContext( UUID uuid )
     {
-        synchronized( lock )
-        {
-            TrackingContext context = contexts.get( uuid );
-            if( context == null ) contexts.put( uuid, context = new TrackingContext() );
-            return context;
-        }
+        return contexts.computeIfAbsent( uuid, x -> new TrackingContext() );
     }
 
     public static void add( Tracker tracker )
     {
-        synchronized( lock )
-        {
-            trackers.add( tracker );
-            tracking.incrementAndGet();
-        }
+        trackers.add( tracker );
     }
 
-    public static void addTaskTiming( Computer computer, long time )
+    static void remove( Tracker tracker )
     {
-        if( tracking.get() == 0 ) return;
+        trackers.remove( tracker );
+    }
 
-        synchronized( contexts )
-        {
-            for( TrackingContext context : contexts.values() ) context.addTaskTiming( computer, time );
-            for( Tracker tracker : trackers ) tracker.addTaskTiming( computer, time );
-        }
+    public static void addTaskTiming( Computer computer, long time )
+    {
+        if( trackers.isEmpty() ) return;
+        for( Tracker tracker : trackers ) tracker.addTaskTiming( computer, time );
     }
 
     public static void addServerTiming( Computer computer, long time )
     {
-        if( tracking.get() == 0 ) return;
-
-        synchronized( contexts )
-        {
-            for( TrackingContext context : contexts.values() ) context.addServerTiming( computer, time );
-            for( Tracker tracker : trackers ) tracker.addServerTiming( computer, time );
-        }
+        if( trackers.isEmpty() ) return;
+        for( Tracker tracker : trackers ) tracker.addServerTiming( computer, time );
     }
 
     public static void addValue( Computer computer, TrackingField field, long change )
     {
-        if( tracking.get() == 0 ) return;
-
-        synchronized( lock )
-        {
-            for( TrackingContext context : contexts.values() ) context.addValue( computer, field, change );
-            for( Tracker tracker : trackers ) tracker.addValue( computer, field, change );
-        }
+        if( trackers.isEmpty() ) return;
+        for( Tracker tracker : trackers ) tracker.addValue( computer, field, change );
     }
 
     public static void reset()
     {
-        synchronized( lock )
-        {
-            contexts.clear();
-            trackers.clear();
-            tracking.set( 0 );
-        }
+        contexts.clear();
+        trackers.clear();
     }
 }
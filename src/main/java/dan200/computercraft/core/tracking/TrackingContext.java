@@ -10,7 +10,9 @@
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Tracks timing information about computers, including how long they ran for
@@ -21,14 +23,14 @@
  */
 public class TrackingContext implements Tracker
 {
-    private boolean tracking = false;
+    private volatile boolean tracking = false;
 
-    private final List<ComputerTracker> timings = new ArrayList<>();
-    private final Map<Computer, ComputerTracker> timingLookup = new MapMaker().weakKeys().makeMap();
+    private final Queue<ComputerTracker> timings = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Computer, ComputerTracker> timingLookup = new MapMaker().weakKeys().makeMap();
 
     public synchronized void start()
     {
-        if( !tracking ) Tracking.tracking.incrementAndGet();
+        if( !tracking ) Tracking.add( this );
         tracking = true;
 
         timings.clear();
@@ -39,20 +41,20 @@ public synchronized boolean stop()
     {
         if( !tracking ) return false;
 
-        Tracking.tracking.decrementAndGet();
+        Tracking.remove( this );
         tracking = false;
         timingLookup.clear();
         return true;
     }
 
-    public synchronized List<ComputerTracker> getImmutableTimings()
+    public List<ComputerTracker> getImmutableTimings()
     {
         ArrayList<ComputerTracker> timings = new ArrayList<>( this.timings.size() );
         for( ComputerTracker timing : this.timings ) timings.add( new ComputerTracker( timing ) );
         return timings;
     }
 
-    public synchronized List<ComputerTracker> getTimings()
+    public List<ComputerTracker> getTimings()
     {
         return new ArrayList<>( timings );
     }
@@ -60,57 +62,31 @@ public synchronized List<ComputerTracker> getTimings()
     @Override
     public void addTaskTiming( Computer computer, long time )
     {
-        if( !tracking ) return;
-
-        synchronized( this )
-        {
-            ComputerTracker computerTimings = timingLookup.get( computer );
-            if( computerTimings == null )
-            {
-                computerTimings = new ComputerTracker( computer );
-                timingLookup.put( computer, computerTimings );
-                timings.add( computerTimings );
-            }
-
-            computerTimings.addTaskTiming( time );
-        }
+        if( tracking ) getTracker( computer ).addTaskTiming( time );
     }
 
     @Override
     public void addServerTiming( Computer computer, long time )
     {
-        if( !tracking ) return;
-
-        synchronized( this )
-        {
-            ComputerTracker computerTimings = timingLookup.get( computer );
-            if( computerTimings == null )
-            {
-                computerTimings = new ComputerTracker( computer );
-                timingLookup.put( computer, computerTimings );
-                timings.add( computerTimings );
-            }
-
-            computerTimings.addMainTiming( time );
-        }
+        if( tracking ) getTracker( computer ).addMainTiming( time );
     }
 
     @Override
     public void addValue( Computer computer, TrackingField field, long change )
     {
-        if( !tracking ) return;
-
-        synchronized( this )
-        {
-            ComputerTracker computerTimings = timingLookup.get( computer );
-            if( computerTimings == null )
-            {
-                computerTimings = new ComputerTracker( computer );
-                timingLookup.put( computer, computerTimings );
-                timings.add( computerTimings );
-            }
-
-            computerTimings.addValue( field, change );
-        }
+        if( tracking ) getTracker( computer ).addValue( field, change );
+    }
+
+    private ComputerTracker getTracker( Computer computer )
+    {
+        ComputerTracker tracker = timingLookup.get( computer );
+        if( tracker != null ) return tracker;
+
+        ComputerTracker created = new ComputerTracker( computer );
+        tracker = timingLookup.putIfAbsent( computer, created );
+        if( tracker != null ) return tracker;
+
+        timings.add( created );
+        return created;
     }
 }
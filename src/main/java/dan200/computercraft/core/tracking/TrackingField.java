@@ -29,6 +29,7 @@
     public static final TrackingField HTTP_REQUESTS = TrackingField.of( "http", TrackingField::formatDefault );
     public static final TrackingField HTTP_UPLOAD = TrackingField.of( "http_upload", TrackingField::formatBytes );
     public static final TrackingField HTTP_DOWNLOAD = TrackingField.of( "http_download", TrackingField::formatBytes );
+    public static final TrackingField HTTP_POOL_HITS = TrackingField.of( "http_pool_hits", TrackingField::formatDefault );
 
     public static final TrackingField WEBSOCKET_INCOMING = TrackingField.of( "websocket_incoming", TrackingField::formatBytes );
     public static final TrackingField WEBSOCKET_OUTGOING = TrackingField.of( "websocket_outgoing", TrackingField::formatBytes );
@@ -36,6 +37,9 @@
     public static final TrackingField COROUTINES_CREATED = TrackingField.of( "coroutines_created", x -> String.format( "%4d", x ) );
     public static final TrackingField COROUTINES_DISPOSED = TrackingField.of( "coroutines_dead", x -> String.format( "%4d", x ) );
 
+    public static final TrackingField PROTOTYPE_CACHE_HITS = TrackingField.of( "prototype_cache_hits", TrackingField::formatDefault );
+    public static final TrackingField PROTOTYPE_CACHE_MISSES = TrackingField.of( "prototype_cache_misses", TrackingField::formatDefault );
+
     private final String id;
     private final String translationKey;
     private final LongFunction<String> format;
@@ -72,7 +72,7 @@ public ComputersSupplier parse( StringReader reader ) throws CommandSyntaxExcept
         {
             reader.skip();
             String label = reader.readUnquotedString();
-            computers = getComputers( x -> Objects.equals( label, x.getLabel() ) );
+            computers = s -> List.copyOf( ComputerCraft.serverComputerRegistry.lookupByLabel( label ) );
         }
         else if( kind == '~' )
         {
@@ -84,7 +84,7 @@ else if( kind == '#' )
         {
             reader.skip();
             int id = reader.readInt();
-            computers = getComputers( x -> x.getID() == id );
+            computers = s -> List.copyOf( ComputerCraft.serverComputerRegistry.lookupAll( id ) );
         }
         else
         {
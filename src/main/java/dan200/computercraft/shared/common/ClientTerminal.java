@@ -5,7 +5,9 @@
  */
 package dan200.computercraft.shared.common;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 
 public class ClientTerminal implements ITerminal
@@ -56,6 +58,19 @@ public void read( TerminalState state )
         }
     }
 
+    public void read( TerminalDelta delta )
+    {
+        Terminal terminal = this.terminal;
+        if( terminal == null || !delta.canApply( terminal ) )
+        {
+            // The server should always send us the full terminal before any changes, so this shouldn't happen.
+            ComputerCraft.log.debug( "Received terminal changes for a terminal we don't have a copy of." );
+            return;
+        }
+
+        delta.apply( terminal );
+    }
+
     private void resizeTerminal( int width, int height )
     {
         if( terminal == null )
@@ -6,8 +6,11 @@
 package dan200.computercraft.shared.common;
 
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 
+import javax.annotation.Nullable;
+import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ServerTerminal implements ITerminal
@@ -17,6 +20,16 @@ public class ServerTerminal implements ITerminal
     private final AtomicBoolean terminalChanged = new AtomicBoolean( false );
     private boolean terminalChangedLastFrame = false;
 
+    /**
+     * The lines which have changed since changes were last {@linkplain #pollDelta() polled}.
+     */
+    private final BitSet pendingLines = new BitSet();
+
+    /**
+     * Whether the whole terminal has changed since changes were last polled, and so needs to be sent in full.
+     */
+    private boolean pendingFull = true;
+
     public ServerTerminal( boolean colour )
     {
         this.colour = colour;
@@ -59,6 +72,54 @@ protected void markTerminalChanged()
     public void update()
     {
         terminalChangedLastFrame = terminalChanged.getAndSet( false );
+        if( terminalChangedLastFrame ) collectChanges();
+    }
+
+    private synchronized void collectChanges()
+    {
+        Terminal terminal = this.terminal;
+        BitSet lines = terminal == null ? null : terminal.pollChangedLines();
+        if( lines == null )
+        {
+            pendingFull = true;
+        }
+        else
+        {
+            pendingLines.or( lines );
+        }
+    }
+
+    /**
+     * Get the changes made to this terminal since this method (or {@link #discardChanges()}) was last called.
+     *
+     * @return The changed lines, or {@code null} if the whole terminal has changed and a full {@link TerminalState}
+     * should be sent instead.
+     */
+    @Nullable
+    public synchronized TerminalDelta pollDelta()
+    {
+        Terminal terminal = this.terminal;
+        TerminalDelta delta = pendingFull || terminal == null ? null : new TerminalDelta( terminal, pendingLines );
+        discardChanges();
+        return delta;
+    }
+
+    /**
+     * Forget about any pending changes. This should be called when a full {@link TerminalState} has been sent to all
+     * watching clients, or if there are no clients watching.
+     */
+    public synchronized void discardChanges()
+    {
+        pendingFull = false;
+        pendingLines.clear();
+    }
+
+    /**
+     * Mark this terminal as needing to be sent in full, for instance when a new client starts watching it.
+     */
+    protected synchronized void requireFullUpdate()
+    {
+        pendingFull = true;
     }
 
     public boolean hasTerminalChanged()
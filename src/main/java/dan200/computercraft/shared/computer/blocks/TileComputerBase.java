@@ -34,9 +34,13 @@
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.block.entity.BaseContainerBlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.phys.BlockHitResult;
 
 import javax.annotation.Nonnull;
@@ -395,6 +399,27 @@ public ServerComputer getServerComputer()
         return getLevel().isClientSide ? null : ComputerCraft.serverComputerRegistry.get( instanceID );
     }
 
+    /**
+     * Send the state of every computer in a chunk to a player who has just started tracking it. Computer state is only
+     * broadcast to players tracking the computer's chunk, so this player's copy may be out-of-date.
+     *
+     * @param player   The player who is now tracking this chunk.
+     * @param chunkPos The chunk being tracked.
+     */
+    public static void onWatch( ServerPlayer player, ChunkPos chunkPos )
+    {
+        LevelChunk chunk = (LevelChunk) player.getLevel().getChunk( chunkPos.x, chunkPos.z, ChunkStatus.FULL, false );
+        if( chunk == null ) return;
+
+        for( BlockEntity tile : chunk.getBlockEntities().values() )
+        {
+            if( !(tile instanceof TileComputerBase computerTile) ) continue;
+
+            ServerComputer computer = computerTile.getServerComputer();
+            if( computer != null ) computer.sendComputerState( player );
+        }
+    }
+
     // Networking stuff
 
     @Nonnull
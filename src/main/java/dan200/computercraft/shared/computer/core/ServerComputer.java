@@ -22,18 +22,25 @@
 import dan200.computercraft.shared.network.client.ComputerDataClientMessage;
 import dan200.computercraft.shared.network.client.ComputerDeletedClientMessage;
 import dan200.computercraft.shared.network.client.ComputerTerminalClientMessage;
+import dan200.computercraft.shared.network.client.ComputerTerminalDeltaClientMessage;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.fabric.util.GameInstanceUtils;
 import net.minecraft.SharedConstants;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
 
 public class ServerComputer extends ServerTerminal implements IComputer, IComputerEnvironment
 {
@@ -50,6 +57,10 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     private boolean changedLastFrame;
     private int ticksSincePing;
 
+    // The ID and label this computer is indexed under in ServerComputerRegistry.
+    int indexedID = -1;
+    String indexedLabel;
+
     public ServerComputer( Level level, int computerID, String label, int instanceID, ComputerFamily family, int terminalWidth, int terminalHeight )
     {
         super( family != ComputerFamily.NORMAL, terminalWidth, terminalHeight );
@@ -156,27 +167,50 @@ public void broadcastState( boolean force )
     {
         if( hasOutputChanged() || force )
         {
-            // Send computer state to all clients
-            NetworkHandler.sendToAllPlayers( createComputerPacket() );
+            // Send computer state to clients which may be interested in it.
+            NetworkHandler.sendToPlayers( getInterestedPlayers(), createComputerPacket() );
         }
 
         if( hasTerminalChanged() || force )
         {
-            // Send terminal state to clients who are currently interacting with the computer.
+            // Send terminal state to clients who are currently watching the computer.
             MinecraftServer server = GameInstanceUtils.getServer();
 
             NetworkMessage packet = null;
             for( Player player : server.getPlayerList().getPlayers() )
             {
-                if( isInteracting( player ) )
+                if( isWatchingTerminal( player ) )
                 {
-                    if( packet == null ) packet = createTerminalPacket();
+                    if( packet == null ) packet = createTerminalUpdatePacket( force );
                     NetworkHandler.sendToPlayer( player, packet );
                 }
             }
+
+            // If nobody is watching, there's no need to keep track of what has changed. Anyone who starts watching
+            // will be sent the full terminal.
+            if( packet == null ) discardChanges();
         }
     }
 
+    /**
+     * Create a packet containing the changes to this computer's terminal. This sends only the changed lines where
+     * possible, falling back to the full terminal state if it has been resized or replaced.
+     *
+     * @param force Whether to always send the full terminal.
+     * @return The packet to send.
+     */
+    private NetworkMessage createTerminalUpdatePacket( boolean force )
+    {
+        if( force )
+        {
+            discardChanges();
+            return createTerminalPacket();
+        }
+
+        TerminalDelta delta = pollDelta();
+        return delta == null ? createTerminalPacket() : new ComputerTerminalDeltaClientMessage( getInstanceID(), delta );
+    }
+
     public void sendComputerState( Player player )
     {
         // Send state to client
@@ -185,13 +219,17 @@ public void sendComputerState( Player player )
 
     public void sendTerminalState( Player player )
     {
+        // Computer state is only sent to interested players, so this player's copy may be out-of-date.
+        sendComputerState( player );
+
         // Send terminal state to client
         NetworkHandler.sendToPlayer( player, createTerminalPacket() );
     }
 
     public void broadcastDelete()
     {
-        // Send deletion to client
+        // Any client may have requested this computer's state at some point, so send deletion to everyone. This is rare
+        // enough that it is not worth tracking which players know about this computer.
         NetworkHandler.sendToAllPlayers( new ComputerDeletedClientMessage( getInstanceID() ) );
     }
 
@@ -367,8 +405,45 @@ public IContainerComputer getContainer( Player player )
         return computerContainer.getComputer() != this ? null : computerContainer;
     }
 
+    /**
+     * Get all players which may be interested in this computer's state. Namely, those tracking the chunk the computer
+     * is in, and those watching its terminal. Players who start tracking the chunk are sent the current state (see
+     * {@link dan200.computercraft.shared.computer.blocks.TileComputerBase#onWatch(ServerPlayer, ChunkPos)}), and other
+     * clients can request it on demand with {@link dan200.computercraft.shared.network.server.RequestComputerMessage}.
+     *
+     * @return The set of interested players.
+     */
+    private Set<ServerPlayer> getInterestedPlayers()
+    {
+        Set<ServerPlayer> players = new HashSet<>();
+        if( level instanceof ServerLevel serverLevel && position != null )
+        {
+            players.addAll( serverLevel.getChunkSource().chunkMap.getPlayers( new ChunkPos( position ), false ) );
+        }
+
+        MinecraftServer server = GameInstanceUtils.getServer();
+        for( ServerPlayer player : server.getPlayerList().getPlayers() )
+        {
+            if( isWatchingTerminal( player ) ) players.add( player );
+        }
+
+        return players;
+    }
+
     protected boolean isInteracting( Player player )
     {
         return getContainer( player ) != null;
     }
+
+    /**
+     * Determine whether a player should be sent updates to this computer's terminal. Any player for which this
+     * returns {@code true} must have already been sent the full terminal (see {@link #sendTerminalState(Player)}).
+     *
+     * @param player The player to check.
+     * @return Whether this player is watching the terminal.
+     */
+    protected boolean isWatchingTerminal( Player player )
+    {
+        return isInteracting( player );
+    }
 }
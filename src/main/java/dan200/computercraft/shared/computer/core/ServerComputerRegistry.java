@@ -5,10 +5,21 @@
  */
 package dan200.computercraft.shared.computer.core;
 
-import java.util.Iterator;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+import javax.annotation.Nonnull;
+import java.util.*;
 
 public class ServerComputerRegistry extends ComputerRegistry<ServerComputer>
 {
+    /*
+     * Secondary indexes of computers by their ID and label. These may be changed by the computer itself (on the
+     * computer thread), so are only brought up-to-date once per tick in update().
+     */
+    private final SetMultimap<Integer, ServerComputer> computersByID = HashMultimap.create();
+    private final SetMultimap<String, ServerComputer> computersByLabel = HashMultimap.create();
+
     public void update()
     {
         Iterator<ServerComputer> it = getComputers().iterator();
@@ -20,12 +31,14 @@ public void update()
                 //System.out.println( "TIMED OUT SERVER COMPUTER " + computer.getInstanceID() );
                 computer.unload();
                 computer.broadcastDelete();
+                removeIndex( computer );
                 it.remove();
                 //System.out.println( getComputers().size() + " SERVER COMPUTERS" );
             }
             else
             {
                 computer.update();
+                updateIndex( computer );
                 if( computer.hasTerminalChanged() || computer.hasOutputChanged() )
                 {
                     computer.broadcastState( false );
@@ -39,6 +52,7 @@ public void add( int instanceID, ServerComputer computer )
     {
         //System.out.println( "ADD SERVER COMPUTER " + instanceID );
         super.add( instanceID, computer );
+        updateIndex( computer );
         computer.broadcastState( true );
         //System.out.println( getComputers().size() + " SERVER COMPUTERS" );
     }
@@ -52,6 +66,7 @@ public void remove( int instanceID )
         {
             computer.unload();
             computer.broadcastDelete();
+            removeIndex( computer );
         }
         super.remove( instanceID );
         //System.out.println( getComputers().size() + " SERVER COMPUTERS" );
@@ -66,6 +81,8 @@ public void reset()
             computer.unload();
         }
         super.reset();
+        computersByID.clear();
+        computersByLabel.clear();
         //System.out.println( getComputers().size() + " SERVER COMPUTERS" );
     }
 
@@ -73,10 +90,61 @@ public ServerComputer lookup( int computerID )
     {
         if( computerID < 0 ) return null;
 
-        for( ServerComputer computer : getComputers() )
+        for( ServerComputer computer : computersByID.get( computerID ) )
         {
             if( computer.getID() == computerID ) return computer;
         }
         return null;
     }
+
+    /**
+     * Find all computers with the given ID.
+     *
+     * @param computerID The computer's ID.
+     * @return All loaded computers with this ID. This may be out-of-date if a computer's ID changed this tick.
+     */
+    @Nonnull
+    public Set<ServerComputer> lookupAll( int computerID )
+    {
+        return Collections.unmodifiableSet( computersByID.get( computerID ) );
+    }
+
+    /**
+     * Find all computers with the given label.
+     *
+     * @param label The computer's label.
+     * @return All loaded computers with this label. This may be out-of-date if a computer's label changed this tick.
+     */
+    @Nonnull
+    public Set<ServerComputer> lookupByLabel( @Nonnull String label )
+    {
+        return Collections.unmodifiableSet( computersByLabel.get( label ) );
+    }
+
+    private void updateIndex( ServerComputer computer )
+    {
+        int id = computer.getID();
+        if( id != computer.indexedID )
+        {
+            if( computer.indexedID >= 0 ) computersByID.remove( computer.indexedID, computer );
+            if( id >= 0 ) computersByID.put( id, computer );
+            computer.indexedID = id;
+        }
+
+        String label = computer.getLabel();
+        if( !Objects.equals( label, computer.indexedLabel ) )
+        {
+            if( computer.indexedLabel != null ) computersByLabel.remove( computer.indexedLabel, computer );
+            if( label != null ) computersByLabel.put( label, computer );
+            computer.indexedLabel = label;
+        }
+    }
+
+    private void removeIndex( ServerComputer computer )
+    {
+        if( computer.indexedID >= 0 ) computersByID.remove( computer.indexedID, computer );
+        if( computer.indexedLabel != null ) computersByLabel.remove( computer.indexedLabel, computer );
+        computer.indexedID = -1;
+        computer.indexedLabel = null;
+    }
 }
@@ -34,6 +34,7 @@
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.phys.Vec3;
 
+import java.util.Collection;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -77,6 +78,8 @@ public static void setup()
         registerMainThread( 19, SpeakerStopClientMessage.class, SpeakerStopClientMessage::new );
         registerMainThread( 20, UploadResultMessage.class, UploadResultMessage::new );
         registerMainThread( 21, TerminalDimensionsClientMessage.class, TerminalDimensionsClientMessage::new );
+        registerMainThread( 22, ComputerTerminalDeltaClientMessage.class, ComputerTerminalDeltaClientMessage::new );
+        registerMainThread( 23, MonitorDeltaClientMessage.class, MonitorDeltaClientMessage::new );
     }
 
     private static void receive( MinecraftServer server, ServerPlayer player, ServerGamePacketListenerImpl handler, FriendlyByteBuf buffer, PacketSender sender )
@@ -104,6 +107,14 @@ public static void sendToPlayer( Player player, NetworkMessage packet )
         ((ServerPlayer) player).connection.send( new ClientboundCustomPayloadPacket( ID, encode( packet ) ) );
     }
 
+    public static void sendToPlayers( Collection<ServerPlayer> players, NetworkMessage packet )
+    {
+        if( players.isEmpty() ) return;
+
+        ClientboundCustomPayloadPacket vanillaPacket = new ClientboundCustomPayloadPacket( ID, encode( packet ) );
+        for( ServerPlayer player : players ) player.connection.send( vanillaPacket );
+    }
+
     public static void sendToAllPlayers( NetworkMessage packet )
     {
         MinecraftServer server = GameInstanceUtils.getServer();
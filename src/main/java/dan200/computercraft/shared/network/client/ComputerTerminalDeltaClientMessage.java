@@ -0,0 +1,44 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.shared.network.PacketContext;
+import net.minecraft.network.FriendlyByteBuf;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends the lines of a computer's terminal which have changed since the last {@link ComputerTerminalClientMessage}.
+ */
+public class ComputerTerminalDeltaClientMessage extends ComputerClientMessage
+{
+    private final TerminalDelta delta;
+
+    public ComputerTerminalDeltaClientMessage( int instanceId, TerminalDelta delta )
+    {
+        super( instanceId );
+        this.delta = delta;
+    }
+
+    public ComputerTerminalDeltaClientMessage( @Nonnull FriendlyByteBuf buf )
+    {
+        super( buf );
+        delta = new TerminalDelta( buf );
+    }
+
+    @Override
+    public void toBytes( @Nonnull FriendlyByteBuf buf )
+    {
+        super.toBytes( buf );
+        delta.write( buf );
+    }
+
+    @Override
+    public void handle( PacketContext context )
+    {
+        getComputer().read( delta );
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.shared.network.NetworkMessage;
+import dan200.computercraft.shared.network.PacketContext;
+import dan200.computercraft.shared.peripheral.monitor.TileMonitor;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.block.entity.BlockEntity;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends the lines of a monitor's terminal which have changed since the last {@link MonitorClientMessage}.
+ */
+public class MonitorDeltaClientMessage implements NetworkMessage
+{
+    private final BlockPos pos;
+    private final TerminalDelta delta;
+
+    public MonitorDeltaClientMessage( BlockPos pos, TerminalDelta delta )
+    {
+        this.pos = pos;
+        this.delta = delta;
+    }
+
+    public MonitorDeltaClientMessage( @Nonnull FriendlyByteBuf buf )
+    {
+        pos = buf.readBlockPos();
+        delta = new TerminalDelta( buf );
+    }
+
+    @Override
+    public void toBytes( @Nonnull FriendlyByteBuf buf )
+    {
+        buf.writeBlockPos( pos );
+        delta.write( buf );
+    }
+
+    @Override
+    public void handle( PacketContext context )
+    {
+        LocalPlayer player = Minecraft.getInstance().player;
+        if( player == null || player.level == null ) return;
+
+        BlockEntity te = player.level.getBlockEntity( pos );
+        if( !(te instanceof TileMonitor) ) return;
+
+        ((TileMonitor) te).read( delta );
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.core.terminal.Terminal;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+
+import javax.annotation.Nonnull;
+import java.util.BitSet;
+
+/**
+ * The lines of a terminal which have changed since it was last sent to the client.
+ *
+ * Unlike {@link TerminalState}, this can only be applied to a terminal which the client already has a copy of. Every
+ * changed line is sent in full, so applying a delta on top of a newer state is harmless.
+ *
+ * @see Terminal#writeLines(FriendlyByteBuf, BitSet)
+ */
+public class TerminalDelta
+{
+    public final int width;
+    public final int height;
+
+    private final ByteBuf buffer;
+
+    public TerminalDelta( @Nonnull Terminal terminal, @Nonnull BitSet lines )
+    {
+        buffer = Unpooled.buffer();
+
+        // Ensure the terminal isn't resized while we're writing it.
+        synchronized( terminal )
+        {
+            width = terminal.getWidth();
+            height = terminal.getHeight();
+            terminal.writeLines( new FriendlyByteBuf( buffer ), lines );
+        }
+    }
+
+    public TerminalDelta( @Nonnull FriendlyByteBuf buf )
+    {
+        width = buf.readVarInt();
+        height = buf.readVarInt();
+
+        int length = buf.readVarInt();
+        buffer = Unpooled.buffer( length );
+        buf.readBytes( buffer, length );
+    }
+
+    public void write( @Nonnull FriendlyByteBuf buf )
+    {
+        buf.writeVarInt( width );
+        buf.writeVarInt( height );
+        buf.writeVarInt( buffer.readableBytes() );
+        buf.writeBytes( buffer, buffer.readerIndex(), buffer.readableBytes() );
+    }
+
+    public int size()
+    {
+        return buffer.readableBytes();
+    }
+
+    /**
+     * Determine whether this delta can be applied to a terminal.
+     *
+     * @param terminal The terminal to check against.
+     * @return If this terminal is non-null and has the same dimensions as the one the delta was created from.
+     */
+    public boolean canApply( @Nonnull Terminal terminal )
+    {
+        return terminal.getWidth() == width && terminal.getHeight() == height;
+    }
+
+    public void apply( @Nonnull Terminal terminal )
+    {
+        terminal.readLines( new FriendlyByteBuf( buffer ) );
+    }
+}
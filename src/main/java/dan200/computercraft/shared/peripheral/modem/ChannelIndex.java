@@ -0,0 +1,221 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem;
+
+import dan200.computercraft.api.network.IPacketReceiver;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+
+import java.util.*;
+
+/**
+ * Tracks which receivers on a network are listening on each channel, allowing networks to only deliver packets to
+ * receivers which will actually do something with them.
+ *
+ * {@link ModemPeripheral}s are indexed by their open channels, which are kept up-to-date by listening to their
+ * {@link ModemState}. Other receivers may listen on any channel, and so are always returned.
+ *
+ * An {@link Observer} may be notified whenever a channel gains its first listener or loses its last one, allowing
+ * several indexes to be combined into a larger one.
+ */
+public final class ChannelIndex
+{
+    /**
+     * The channel passed to an {@link Observer} when receivers which listen on any channel are added or removed.
+     */
+    public static final int ANY_CHANNEL = -1;
+
+    private final Map<IPacketReceiver, Listener> modems = new HashMap<>();
+    private final Set<IPacketReceiver> anyChannel = new HashSet<>();
+    private final Int2ObjectMap<Set<IPacketReceiver>> channels = new Int2ObjectOpenHashMap<>();
+    private final Observer observer;
+
+    public ChannelIndex()
+    {
+        this( null );
+    }
+
+    public ChannelIndex( Observer observer )
+    {
+        this.observer = observer;
+    }
+
+    public void add( IPacketReceiver receiver )
+    {
+        if( receiver instanceof ModemPeripheral modem )
+        {
+            Listener listener = new Listener( receiver );
+            synchronized( this )
+            {
+                if( modems.putIfAbsent( receiver, listener ) != null ) return;
+            }
+
+            // Must be called without holding our lock, as the modem will call back into the listener.
+            modem.getModemState().addListener( listener );
+
+            // If the receiver was removed while we were adding the listener, remove() may not have seen our listener.
+            // Remove it ourselves, so its channels don't linger in the index.
+            boolean current;
+            synchronized( this )
+            {
+                current = modems.get( receiver ) == listener;
+            }
+            if( !current ) modem.getModemState().removeListener( listener );
+        }
+        else
+        {
+            synchronized( this )
+            {
+                if( anyChannel.add( receiver ) && anyChannel.size() == 1 ) notify( ANY_CHANNEL, true );
+            }
+        }
+    }
+
+    public void remove( IPacketReceiver receiver )
+    {
+        if( receiver instanceof ModemPeripheral modem )
+        {
+            Listener listener;
+            synchronized( this )
+            {
+                listener = modems.remove( receiver );
+            }
+
+            if( listener != null ) modem.getModemState().removeListener( listener );
+        }
+        else
+        {
+            synchronized( this )
+            {
+                if( anyChannel.remove( receiver ) && anyChannel.isEmpty() ) notify( ANY_CHANNEL, false );
+            }
+        }
+    }
+
+    /**
+     * Get all receivers which may be listening on this channel.
+     *
+     * @param channel The channel to check.
+     * @return A copy of the receivers listening on this channel.
+     */
+    public synchronized List<IPacketReceiver> getListeners( int channel )
+    {
+        Set<IPacketReceiver> listening = channels.get( channel );
+        List<IPacketReceiver> result = new ArrayList<>( anyChannel.size() + (listening == null ? 0 : listening.size()) );
+        result.addAll( anyChannel );
+        if( listening != null ) result.addAll( listening );
+        return result;
+    }
+
+    /**
+     * Filter several groups of candidate receivers to those which may be listening on a channel.
+     *
+     * If there are fewer listeners than candidates, this returns the listeners instead, so the cost is proportional to
+     * whichever is smaller. Consequently, the returned list may contain receivers which were not candidates.
+     *
+     * @param channel    The channel to check.
+     * @param candidates The candidate receivers.
+     * @return A fresh list of receivers which are candidates and listening on this channel, or all listeners.
+     */
+    public synchronized List<IPacketReceiver> select( int channel, Collection<? extends Collection<IPacketReceiver>> candidates )
+    {
+        Set<IPacketReceiver> listening = channels.get( channel );
+        int listeners = anyChannel.size() + (listening == null ? 0 : listening.size());
+
+        int total = 0;
+        for( Collection<IPacketReceiver> group : candidates ) total += group.size();
+        if( listeners <= total ) return getListeners( channel );
+
+        List<IPacketReceiver> result = new ArrayList<>();
+        for( Collection<IPacketReceiver> group : candidates )
+        {
+            for( IPacketReceiver receiver : group )
+            {
+                if( anyChannel.contains( receiver ) || (listening != null && listening.contains( receiver )) ) result.add( receiver );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inform an observer of every channel which currently has listeners, including {@link #ANY_CHANNEL}.
+     *
+     * @param observer The observer to notify.
+     */
+    public synchronized void replay( Observer observer )
+    {
+        if( !anyChannel.isEmpty() ) observer.onChanged( ANY_CHANNEL, true );
+        for( IntIterator iterator = channels.keySet().iterator(); iterator.hasNext(); )
+        {
+            observer.onChanged( iterator.nextInt(), true );
+        }
+    }
+
+    private synchronized void open( IPacketReceiver receiver, int channel )
+    {
+        Set<IPacketReceiver> listening = channels.get( channel );
+        if( listening == null )
+        {
+            channels.put( channel, listening = new HashSet<>( 4 ) );
+            notify( channel, true );
+        }
+        listening.add( receiver );
+    }
+
+    private synchronized void close( IPacketReceiver receiver, int channel )
+    {
+        Set<IPacketReceiver> listening = channels.get( channel );
+        if( listening != null && listening.remove( receiver ) && listening.isEmpty() )
+        {
+            channels.remove( channel );
+            notify( channel, false );
+        }
+    }
+
+    private void notify( int channel, boolean listening )
+    {
+        if( observer != null ) observer.onChanged( channel, listening );
+    }
+
+    /**
+     * Observes channels gaining their first listener, or losing their last. This is called while the index is locked,
+     * and so should not call back into this {@link ChannelIndex}.
+     */
+    @FunctionalInterface
+    public interface Observer
+    {
+        /**
+         * Called when a channel's listeners change.
+         *
+         * @param channel   The channel which changed, or {@link #ANY_CHANNEL}.
+         * @param listening Whether anything is now listening on this channel.
+         */
+        void onChanged( int channel, boolean listening );
+    }
+
+    private final class Listener implements ModemState.ChannelListener
+    {
+        private final IPacketReceiver receiver;
+
+        private Listener( IPacketReceiver receiver )
+        {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void onOpen( int channel )
+        {
+            open( receiver, channel );
+        }
+
+        @Override
+        public void onClose( int channel )
+        {
+            close( receiver, channel );
+        }
+    }
+}
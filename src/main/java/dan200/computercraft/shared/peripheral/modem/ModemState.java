@@ -6,9 +6,12 @@
 package dan200.computercraft.shared.peripheral.modem;
 
 import dan200.computercraft.api.lua.LuaException;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ModemState
@@ -18,6 +21,7 @@
 
     private boolean open = false;
     private final IntSet channels = new IntOpenHashSet();
+    private final List<ChannelListener> listeners = new ArrayList<>( 0 );
 
     public ModemState()
     {
@@ -62,6 +66,7 @@ public void open( int channel ) throws LuaException
             {
                 if( channels.size() >= 128 ) throw new LuaException( "Too many open channels" );
                 channels.add( channel );
+                for( ChannelListener listener : listeners ) listener.onOpen( channel );
                 setOpen( true );
             }
         }
@@ -71,7 +76,10 @@ public void close( int channel )
     {
         synchronized( channels )
         {
-            channels.remove( channel );
+            if( channels.remove( channel ) )
+            {
+                for( ChannelListener listener : listeners ) listener.onClose( channel );
+            }
             if( channels.isEmpty() ) setOpen( false );
         }
     }
@@ -80,8 +88,54 @@ public void closeAll()
     {
         synchronized( channels )
         {
+            for( ChannelListener listener : listeners ) closeAll( listener );
             channels.clear();
             setOpen( false );
         }
     }
+
+    /**
+     * Add a listener which is notified when channels are opened or closed. The listener is immediately informed of
+     * all currently open channels.
+     *
+     * @param listener The listener to add.
+     */
+    public void addListener( ChannelListener listener )
+    {
+        synchronized( channels )
+        {
+            listeners.add( listener );
+            for( IntIterator iterator = channels.iterator(); iterator.hasNext(); ) listener.onOpen( iterator.nextInt() );
+        }
+    }
+
+    /**
+     * Remove a listener previously added with {@link #addListener(ChannelListener)}. The listener is informed that
+     * all currently open channels have been closed.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeListener( ChannelListener listener )
+    {
+        synchronized( channels )
+        {
+            if( listeners.remove( listener ) ) closeAll( listener );
+        }
+    }
+
+    private void closeAll( ChannelListener listener )
+    {
+        for( IntIterator iterator = channels.iterator(); iterator.hasNext(); ) listener.onClose( iterator.nextInt() );
+    }
+
+    /**
+     * A listener for channels being opened or closed. This is called while the modem's state is locked, and so
+     * should not call back into this {@link ModemState}.
+     */
+    public interface ChannelListener
+    {
+        void onOpen( int channel );
+
+        void onClose( int channel );
+    }
 }
@@ -18,6 +18,7 @@
 import dan200.computercraft.api.peripheral.IWorkMonitor;
 import dan200.computercraft.api.peripheral.NotAttachedException;
 import dan200.computercraft.core.apis.PeripheralAPI;
+import dan200.computercraft.core.apis.PeripheralBatch;
 import dan200.computercraft.core.asm.PeripheralMethod;
 import dan200.computercraft.shared.peripheral.modem.ModemPeripheral;
 import dan200.computercraft.shared.peripheral.modem.ModemState;
@@ -205,6 +206,33 @@ public final MethodResult callRemote( IComputerAccess computer, ILuaContext cont
         return wrapper.callMethod( context, methodName, arguments.drop( 2 ) );
     }
 
+    /**
+     * Call several methods on peripherals on this wired network, running them all within a single server tick where
+     * possible.
+     *
+     * :::note
+     * This function only appears on wired modems. Check {@link #isWireless} returns false before calling it.
+     * :::
+     *
+     * @param computer The calling computer.
+     * @param context  The Lua context we're executing in.
+     * @param calls    The calls to make, each of the form {@code { remoteName, method, ...args }}.
+     * @return The result of each call.
+     * @throws LuaException If the list of calls is malformed.
+     * @cc.treturn { { boolean, any... }... } The result of each call. This is either {@code true} followed by the
+     * method's return values, or {@code false} and an error message. This may contain fewer results than calls, in which
+     * case the remaining calls should be resubmitted.
+     * @see PeripheralAPI#callBatch
+     */
+    @LuaFunction
+    public final MethodResult callRemoteBatch( IComputerAccess computer, ILuaContext context, Map<?, ?> calls ) throws LuaException
+    {
+        return PeripheralBatch.call( context, calls, name -> {
+            RemotePeripheralWrapper wrapper = getWrapper( computer, name );
+            return wrapper == null ? null : wrapper::callMethod;
+        } );
+    }
+
     /**
      * Returns the network name of the current computer, if the modem is on. This
      * may be used by other computers on the network to wrap this computer as a
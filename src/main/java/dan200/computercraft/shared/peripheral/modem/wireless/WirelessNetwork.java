@@ -9,15 +9,47 @@
 import dan200.computercraft.api.network.IPacketReceiver;
 import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.shared.peripheral.modem.ChannelIndex;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nonnull;
-import java.util.Collections;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The network shared by all wireless and ender modems.
+ *
+ * In order to avoid checking every receiver when sending a packet, receivers are grouped into a grid of columns, one
+ * for each level. As receivers may move (or their range change) without telling us, this index is rebuilt (lazily) at
+ * the start of every server tick.
+ *
+ * Receivers are also indexed by the channels they are listening on (see {@link ChannelIndex}), so packets on quiet
+ * channels only visit the handful of modems which have that channel open.
+ */
 public class WirelessNetwork implements IPacketNetwork
 {
+    /**
+     * The size of each column in the spatial index. This is the default modem range, so most packets only need to
+     * look at the 3x3 grid of columns around the sender.
+     */
+    private static final int CELL_SHIFT = 6;
+
+    /**
+     * Receivers with a larger range than this are not put into the index, and so are considered for every packet.
+     * Likewise, packets with a larger range search the whole level.
+     */
+    private static final double MAX_INDEXED_RANGE = (1 << CELL_SHIFT) * 16;
+
+    /**
+     * Additional distance to search, to account for receivers which have moved since the index was built.
+     */
+    private static final double MOVEMENT_SLACK = 16;
+
     private static WirelessNetwork universalNetwork = null;
 
     public static WirelessNetwork getUniversal()
@@ -31,34 +63,65 @@ public static void resetNetworks()
         universalNetwork = null;
     }
 
+    /**
+     * Mark the spatial index as out-of-date, so that it is rebuilt the next time a packet is sent. This should be
+     * called at the start of every server tick.
+     */
+    public static void updateNetworks()
+    {
+        WirelessNetwork network = universalNetwork;
+        if( network != null ) network.invalidate();
+    }
+
     private final Set<IPacketReceiver> receivers = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+    private final ChannelIndex channels = new ChannelIndex();
+
+    // The spatial index, guarded by this.
+    private boolean stale = true;
+    private final Map<Level, LevelIndex> levels = new HashMap<>();
+    private final List<IPacketReceiver> interdimensional = new ArrayList<>();
+    private final List<IPacketReceiver> unbounded = new ArrayList<>();
+    private final Map<IPacketReceiver, List<IPacketReceiver>> buckets = new HashMap<>();
 
     @Override
     public void addReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.add( receiver );
+        if( !receivers.add( receiver ) ) return;
+        channels.add( receiver );
+
+        synchronized( this )
+        {
+            if( !stale && !buckets.containsKey( receiver ) ) index( receiver );
+        }
     }
 
     @Override
     public void removeReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.remove( receiver );
+        if( !receivers.remove( receiver ) ) return;
+        channels.remove( receiver );
+
+        synchronized( this )
+        {
+            List<IPacketReceiver> bucket = buckets.remove( receiver );
+            if( bucket != null ) bucket.remove( receiver );
+        }
     }
 
     @Override
     public void transmitSameDimension( @Nonnull Packet packet, double range )
     {
         Objects.requireNonNull( packet, "packet cannot be null" );
-        for( IPacketReceiver device : receivers ) tryTransmit( device, packet, range, false );
+        for( IPacketReceiver device : getCandidates( packet, range ) ) tryTransmit( device, packet, range, false );
     }
 
     @Override
     public void transmitInterdimensional( @Nonnull Packet packet )
     {
         Objects.requireNonNull( packet, "packet cannot be null" );
-        for( IPacketReceiver device : receivers ) tryTransmit( device, packet, 0, true );
+        for( IPacketReceiver device : channels.getListeners( packet.channel() ) ) tryTransmit( device, packet, 0, true );
     }
 
     private static void tryTransmit( IPacketReceiver receiver, Packet packet, double range, boolean interdimensional )
@@ -82,6 +145,105 @@ private static void tryTransmit( IPacketReceiver receiver, Packet packet, double
         }
     }
 
+    /**
+     * Find all receivers which may be able to receive this packet. This is a superset of those which actually can,
+     * and so should still be filtered with {@link #tryTransmit(IPacketReceiver, Packet, double, boolean)}.
+     *
+     * @param packet The packet to send.
+     * @param range  The range of this packet.
+     * @return All receivers which may receive this packet.
+     */
+    private synchronized List<IPacketReceiver> getCandidates( Packet packet, double range )
+    {
+        if( stale ) rebuild();
+
+        List<List<IPacketReceiver>> groups = new ArrayList<>();
+        groups.add( interdimensional );
+        groups.add( unbounded );
+
+        IPacketSender sender = packet.sender();
+        LevelIndex level = levels.get( sender.getLevel() );
+        if( level != null )
+        {
+            double radius = Math.max( range, level.maxRange ) + MOVEMENT_SLACK;
+            if( !(radius <= MAX_INDEXED_RANGE) )
+            {
+                groups.addAll( level.cells.values() );
+            }
+            else
+            {
+                Vec3 position = sender.getPosition();
+                int minX = cell( position.x - radius ), maxX = cell( position.x + radius );
+                int minZ = cell( position.z - radius ), maxZ = cell( position.z + radius );
+                for( int x = minX; x <= maxX; x++ )
+                {
+                    for( int z = minZ; z <= maxZ; z++ )
+                    {
+                        List<IPacketReceiver> bucket = level.cells.get( ChunkPos.asLong( x, z ) );
+                        if( bucket != null ) groups.add( bucket );
+                    }
+                }
+            }
+        }
+
+        return channels.select( packet.channel(), groups );
+    }
+
+    private synchronized void invalidate()
+    {
+        stale = true;
+    }
+
+    private void rebuild()
+    {
+        levels.clear();
+        interdimensional.clear();
+        unbounded.clear();
+        buckets.clear();
+
+        for( IPacketReceiver receiver : receivers ) index( receiver );
+        stale = false;
+    }
+
+    private void index( IPacketReceiver receiver )
+    {
+        List<IPacketReceiver> bucket = receiver.isInterdimensional() ? interdimensional : getBucket( receiver );
+        bucket.add( receiver );
+        buckets.put( receiver, bucket );
+    }
+
+    private List<IPacketReceiver> getBucket( IPacketReceiver receiver )
+    {
+        double range = receiver.getRange();
+        if( !(range <= MAX_INDEXED_RANGE) ) return unbounded;
+
+        LevelIndex level = levels.get( receiver.getLevel() );
+        if( level == null ) levels.put( receiver.getLevel(), level = new LevelIndex() );
+        level.maxRange = Math.max( level.maxRange, range );
+
+        Vec3 position = receiver.getPosition();
+        long key = ChunkPos.asLong( cell( position.x ), cell( position.z ) );
+        List<IPacketReceiver> bucket = level.cells.get( key );
+        if( bucket == null ) level.cells.put( key, bucket = new ArrayList<>() );
+        return bucket;
+    }
+
+    private static int cell( double position )
+    {
+        return Mth.floor( position ) >> CELL_SHIFT;
+    }
+
+    private static final class LevelIndex
+    {
+        final Long2ObjectMap<List<IPacketReceiver>> cells = new Long2ObjectOpenHashMap<>();
+
+        /**
+         * The largest range of any receiver in this level. This is only updated when a receiver is added, and so may
+         * be larger than the actual maximum.
+         */
+        double maxRange;
+    }
+
     @Override
     public boolean isWireless()
     {
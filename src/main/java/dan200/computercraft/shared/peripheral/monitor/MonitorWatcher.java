@@ -6,9 +6,12 @@
 package dan200.computercraft.shared.peripheral.monitor;
 
 import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.tracking.MetricsExporter;
 import dan200.computercraft.fabric.events.CustomServerEvents;
 import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.network.client.MonitorClientMessage;
+import dan200.computercraft.shared.network.client.MonitorDeltaClientMessage;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.core.BlockPos;
@@ -29,6 +32,14 @@
     private static final Queue<TileMonitor> watching = new ArrayDeque<>();
     private static final Queue<PlayerUpdate> playerUpdates = new ArrayDeque<>();
 
+    /**
+     * The total number of bytes counted against {@link ComputerCraft#monitorBandwidth}, and the number of monitors
+     * left waiting at the end of the last tick. These are only written by the server thread, and are read by the
+     * {@link MetricsExporter}.
+     */
+    private static volatile long sentBytes;
+    private static volatile int pendingMonitors;
+
     private MonitorWatcher()
     {
     }
@@ -37,6 +48,10 @@ public static void init()
     {
         ServerTickEvents.END_SERVER_TICK.register( MonitorWatcher::onTick );
         CustomServerEvents.SERVER_PLAYER_LOADED_CHUNK_EVENT.register( MonitorWatcher::onWatch );
+
+        MetricsExporter.addCounter( "computercraft_monitor_sent_bytes", "Monitor updates sent to players", () -> sentBytes );
+        MetricsExporter.addGauge( "computercraft_monitor_bandwidth_bytes", "Maximum monitor updates sent each tick", () -> ComputerCraft.monitorBandwidth );
+        MetricsExporter.addGauge( "computercraft_monitor_pending", "Monitors whose updates were delayed by the bandwidth limit", () -> pendingMonitors );
     }
 
     static void enqueue( TileMonitor monitor )
@@ -55,11 +70,12 @@ public static void onWatch( ServerPlayer serverPlayer, ChunkPos chunkPos )
 
         for( BlockEntity te : chunk.getBlockEntities().values() )
         {
-            // Find all origin monitors who are not already on the queue.
+            // Find all origin monitors. We need to send the full terminal even if the monitor is already queued, as
+            // queued monitors only send what has changed.
             if( !(te instanceof TileMonitor monitor) ) continue;
 
             ServerMonitor serverMonitor = getMonitor( monitor );
-            if( serverMonitor == null || monitor.enqueued ) continue;
+            if( serverMonitor == null ) continue;
 
             // The chunk hasn't been sent to the client yet, so we can't send an update. Do it on tick end.
             playerUpdates.add( new PlayerUpdate( serverPlayer, monitor ) );
@@ -72,7 +88,7 @@ public static void onTick( MinecraftServer server )
         while( (playerUpdate = playerUpdates.poll()) != null )
         {
             TileMonitor tile = playerUpdate.monitor;
-            if( tile.enqueued || tile.isRemoved() ) continue;
+            if( tile.isRemoved() ) continue;
 
             ServerMonitor monitor = getMonitor( tile );
             if( monitor == null ) continue;
@@ -85,7 +101,7 @@ public static void onTick( MinecraftServer server )
             NetworkHandler.sendToPlayer( playerUpdate.player, new MonitorClientMessage( tile.getBlockPos(), getState( tile, monitor ) ) );
         }
 
-        long limit = ComputerCraft.monitorBandwidth;
+        long limit = ComputerCraft.monitorBandwidth, sent = 0;
         boolean obeyLimit = limit > 0;
 
         TileMonitor tile;
@@ -102,14 +118,30 @@ public static void onTick( MinecraftServer server )
             LevelChunk chunk = world.getChunkAt( pos );
             if( ((ServerLevel) world).getChunkSource().chunkMap.getPlayers( chunk.getPos(), false ).isEmpty() )
             {
+                // Nobody is watching, so forget what has changed. Players who start watching are sent the full state.
+                monitor.discardChanges();
                 continue;
             }
 
-            TerminalState state = getState( tile, monitor );
-            NetworkHandler.sendToAllTracking( new MonitorClientMessage( pos, state ), chunk );
-
-            limit -= state.size();
+            // Only send the changed lines where possible, falling back to the full state after a resize.
+            TerminalDelta delta = monitor.pollDelta();
+            if( delta != null )
+            {
+                NetworkHandler.sendToAllTracking( new MonitorDeltaClientMessage( pos, delta ), chunk );
+                limit -= delta.size();
+                sent += delta.size();
+            }
+            else
+            {
+                TerminalState state = tile.cached = monitor.write();
+                NetworkHandler.sendToAllTracking( new MonitorClientMessage( pos, state ), chunk );
+                limit -= state.size();
+                sent += state.size();
+            }
         }
+
+        sentBytes += sent;
+        pendingMonitors = watching.size();
     }
 
     private static ServerMonitor getMonitor( TileMonitor monitor )
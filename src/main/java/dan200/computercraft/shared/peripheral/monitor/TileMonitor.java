@@ -12,6 +12,7 @@
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.common.ServerTerminal;
 import dan200.computercraft.shared.common.TileGeneric;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 import dan200.computercraft.shared.util.TickScheduler;
 import net.minecraft.core.BlockPos;
@@ -295,6 +296,17 @@ public final void read( TerminalState state )
         clientMonitor.read( state );
     }
 
+    public final void read( TerminalDelta delta )
+    {
+        if( xIndex != 0 || yIndex != 0 )
+        {
+            ComputerCraft.log.warn( "Receiving monitor state for non-origin terminal at {}", getBlockPos() );
+            return;
+        }
+
+        if( clientMonitor != null ) clientMonitor.read( delta );
+    }
+
     // Sizing and placement stuff
 
     private void updateBlockState()
@@ -13,7 +13,6 @@
 import dan200.computercraft.shared.common.IColouredItem;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ServerComputer;
-import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.pocket.items.ItemPocketComputer;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
@@ -171,7 +170,12 @@ public synchronized void updateValues( Entity entity, @Nonnull ItemStack stack,
         }
 
         // If a new entity has picked it up then rebroadcast the terminal to them
-        if( entity != this.entity && entity instanceof ServerPlayer ) markTerminalChanged();
+        if( entity != this.entity && entity instanceof ServerPlayer player )
+        {
+            sendComputerState( player );
+            requireFullUpdate();
+            markTerminalChanged();
+        }
 
         this.entity = entity;
         this.stack = stack;
@@ -184,17 +188,9 @@ public synchronized void updateValues( Entity entity, @Nonnull ItemStack stack,
     }
 
     @Override
-    public void broadcastState( boolean force )
+    protected boolean isWatchingTerminal( Player player )
     {
-        super.broadcastState( force );
-
-        if( (hasTerminalChanged() || force) && entity instanceof ServerPlayer player )
-        {
-            // Broadcast the state to the current entity if they're not already interacting with it.
-            if( player.connection != null && !isInteracting( player ) )
-            {
-                NetworkHandler.sendToPlayer( player, createTerminalPacket() );
-            }
-        }
+        // Also broadcast the state to the current entity if they're not already interacting with it.
+        return super.isWatchingTerminal( player ) || player == entity;
     }
 }
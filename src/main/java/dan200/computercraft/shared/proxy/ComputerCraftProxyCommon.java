@@ -12,14 +12,18 @@
 import dan200.computercraft.api.turtle.event.TurtleEvent;
 import dan200.computercraft.core.apis.http.NetworkUtils;
 import dan200.computercraft.core.computer.MainThread;
+import dan200.computercraft.core.filesystem.FileMount;
 import dan200.computercraft.core.filesystem.ResourceMount;
 import dan200.computercraft.core.tracking.ComputerMBean;
+import dan200.computercraft.core.tracking.MetricsExporter;
 import dan200.computercraft.core.tracking.Tracking;
+import dan200.computercraft.fabric.events.CustomServerEvents;
 import dan200.computercraft.shared.TurtlePermissions;
 import dan200.computercraft.shared.command.CommandComputerCraft;
 import dan200.computercraft.shared.command.arguments.ArgumentSerializers;
 import dan200.computercraft.shared.common.DefaultBundledRedstoneProvider;
 import dan200.computercraft.shared.common.TileGeneric;
+import dan200.computercraft.shared.computer.blocks.TileComputerBase;
 import dan200.computercraft.shared.data.BlockNamedEntityLootCondition;
 import dan200.computercraft.shared.data.HasComputerIdLootCondition;
 import dan200.computercraft.shared.data.PlayerCreativeLootCondition;
@@ -106,6 +110,7 @@ private static void registerHandlers()
             MainThread.executePendingTasks();
             ComputerCraft.serverComputerRegistry.update();
             TickScheduler.tick();
+            WirelessNetwork.updateNetworks();
         } );
 
         ServerLifecycleEvents.SERVER_STARTING.register( server -> {
@@ -117,11 +122,18 @@ private static void registerHandlers()
             ComputerMBean.registerTracker();
         } );
 
+        // Started after the config has been loaded.
+        ServerLifecycleEvents.SERVER_STARTED.register( server -> MetricsExporter.start() );
+
         ServerLifecycleEvents.SERVER_STOPPED.register( server -> {
+            MetricsExporter.stop();
             ComputerCraft.serverComputerRegistry.reset();
+            FileMount.flushLedgers();
             resetState();
         } );
 
+        CustomServerEvents.SERVER_PLAYER_LOADED_CHUNK_EVENT.register( TileComputerBase::onWatch );
+
         ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register( ( blockEntity, world ) -> {
             if( blockEntity instanceof TileGeneric )
             {
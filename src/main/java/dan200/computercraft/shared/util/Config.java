@@ -104,6 +104,13 @@ private Config()
                     "Please note that some mods may not work with a thread count higher than 1. Use with caution." );
             serverSpec.defineInRange( "execution.computer_threads", ComputerCraft.computerThreads, 1, Integer.MAX_VALUE );
 
+            serverSpec.comment( "execution.work_stealing",
+                "Give each computer thread its own queue of computers to run, rather than sharing a single queue " +
+                    "between all threads. Idle threads will take work from busy ones.\n" +
+                    "This reduces contention when running many computers with a high thread count, but may be " +
+                    "slightly less fair. This has no effect when only one thread is used." );
+            serverSpec.define( "execution.work_stealing", ComputerCraft.computerWorkStealing );
+
             serverSpec.comment( "execution.max_main_global_time",
                 "The maximum time that can be spent executing tasks in a single tick, in milliseconds.\n" +
                     "Note, we will quite possibly go over this limit, as there's no way to tell how long a will take " +
@@ -117,6 +124,27 @@ private Config()
             serverSpec.defineInRange( "execution.max_main_computer_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.maxMainComputerTime ), 1, Integer.MAX_VALUE );
         }
 
+        { // Metrics
+            serverSpec.comment( "metrics",
+                "Expose metrics about computers over HTTP, in the OpenMetrics (Prometheus) format." );
+
+            serverSpec.comment( "metrics.enabled",
+                "Run a small HTTP server, which serves metrics at /metrics." );
+            serverSpec.define( "metrics.enabled", ComputerCraft.metricsEnabled );
+
+            serverSpec.comment( "metrics.address",
+                "The address the metrics server listens on. By default, this only accepts connections from this machine." );
+            serverSpec.define( "metrics.address", ComputerCraft.metricsAddress );
+
+            serverSpec.comment( "metrics.port", "The port the metrics server listens on." );
+            serverSpec.defineInRange( "metrics.port", ComputerCraft.metricsPort, 1, 65535 );
+
+            serverSpec.comment( "metrics.top_computers",
+                "The number of computers to report individual metrics for, picking those which have used the most " +
+                    "time in total. Set to 0 to only report server-wide totals." );
+            serverSpec.defineInRange( "metrics.top_computers", ComputerCraft.metricsTopComputers, 0, 1000 );
+        }
+
         { // HTTP
             serverSpec.comment( "http", "Controls the HTTP API" );
 
@@ -338,9 +366,16 @@ public static void sync()
 
             // Execution
             ComputerCraft.computerThreads = serverConfig.<Integer>get( "execution.computer_threads" );
+            ComputerCraft.computerWorkStealing = serverConfig.<Boolean>get( "execution.work_stealing" );
             ComputerCraft.maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( serverConfig.<Integer>get( "execution.max_main_global_time" ) );
             ComputerCraft.maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( serverConfig.<Integer>get( "execution.max_main_computer_time" ) );
 
+            // Metrics
+            ComputerCraft.metricsEnabled = serverConfig.<Boolean>get( "metrics.enabled" );
+            ComputerCraft.metricsAddress = serverConfig.<String>get( "metrics.address" );
+            ComputerCraft.metricsPort = serverConfig.<Integer>get( "metrics.port" );
+            ComputerCraft.metricsTopComputers = serverConfig.<Integer>get( "metrics.top_computers" );
+
             // HTTP
             ComputerCraft.httpEnabled = serverConfig.<Boolean>get( "http.enabled" );
             ComputerCraft.httpWebsocketEnabled = serverConfig.<Boolean>get( "http.websocket_enabled" );
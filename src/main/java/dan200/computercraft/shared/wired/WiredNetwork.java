@@ -10,20 +10,42 @@
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNode;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ChannelIndex;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.Vec3;
 
 import javax.annotation.Nonnull;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class WiredNetwork implements IWiredNetwork
 {
+    private static final int MAX_CACHED_ROUTES = 64;
+
     final ReadWriteLock lock = new ReentrantReadWriteLock();
     HashSet<WiredNode> nodes;
     private HashMap<String, IPeripheral> peripherals = new HashMap<>();
 
+    /**
+     * A cache of routes from each transmitting node. This is populated while holding the read lock, and cleared
+     * (while holding the write lock) whenever the network's topology changes.
+     */
+    private final Map<WiredNode, Routes> routes = new ConcurrentHashMap<>();
+
+    /**
+     * The nodes listening on each channel, and those listening on any channel. These are updated by each node's
+     * {@link dan200.computercraft.shared.peripheral.modem.ChannelIndex}, and rebuilt whenever nodes are moved between
+     * networks. Both are guarded by {@link #listeners}'s monitor.
+     */
+    private final Int2ObjectMap<Set<WiredNode>> listeners = new Int2ObjectOpenHashMap<>();
+    private final Set<WiredNode> anyListeners = new HashSet<>();
+
     WiredNetwork( WiredNode node )
     {
         nodes = new HashSet<>( 1 );
@@ -69,6 +91,7 @@ public boolean connect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV )
                     nodes.addAll( otherNodes );
                     for( WiredNode node : otherNodes ) node.network = this;
                     other.nodes = null;
+                    rebuildListeners();
 
                     // Move all peripherals across,
                     other.peripherals = null;
@@ -92,6 +115,7 @@ public boolean connect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV )
 
             boolean added = wiredU.neighbours.add( wiredV );
             if( added ) wiredV.neighbours.add( wiredU );
+            routes.clear();
 
             InvariantChecker.checkNetwork( this );
             InvariantChecker.checkNode( wiredU );
@@ -122,6 +146,7 @@ public boolean disconnect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV
             // If there was no connection to remove then split.
             if( !wiredU.neighbours.remove( wiredV ) ) return false;
             wiredV.neighbours.remove( wiredU );
+            routes.clear();
 
             // Determine if there is still some connection from u to v.
             // Note this is an inlining of reachableNodes which short-circuits
@@ -162,6 +187,9 @@ public boolean disconnect( @Nonnull IWiredNode nodeU, @Nonnull IWiredNode nodeV
                     peripherals.keySet().removeAll( node.peripherals.keySet() );
                 }
 
+                rebuildListeners();
+                networkU.rebuildListeners();
+
                 // Broadcast changes
                 if( !peripherals.isEmpty() ) WiredNetworkChange.removed( peripherals ).broadcast( networkU.nodes );
                 if( !networkU.peripherals.isEmpty() )
@@ -203,6 +231,7 @@ public boolean remove( @Nonnull IWiredNode node )
             HashSet<WiredNode> neighbours = wired.neighbours;
 
             // Remove this node and move into a separate network.
+            routes.clear();
             nodes.remove( wired );
             for( WiredNode neighbour : neighbours ) neighbour.neighbours.remove( wired );
 
@@ -261,6 +290,8 @@ public boolean remove( @Nonnull IWiredNode node )
                         child.network = network;
                         network.peripherals.putAll( child.peripherals );
                     }
+
+                    network.rebuildListeners();
                 }
 
                 for( WiredNetwork network : maximals ) InvariantChecker.checkNetwork( network );
@@ -279,6 +310,7 @@ public boolean remove( @Nonnull IWiredNode node )
 
             nodes.clear();
             peripherals.clear();
+            rebuildListeners();
 
             return true;
         }
@@ -320,14 +352,57 @@ public void updatePeripherals( @Nonnull IWiredNode node, @Nonnull Map<String, IP
     }
 
     static void transmitPacket( WiredNode start, Packet packet, double range, boolean interdimensional )
+    {
+        // Skip routing entirely if nothing is listening on this channel.
+        WiredNetwork network = start.network;
+        List<WiredNode> listening = network.getListeners( packet.channel() );
+        if( listening.isEmpty() ) return;
+
+        if( start.element.getLevel() != packet.sender().getLevel() )
+        {
+            // This shouldn't happen in practice, so don't bother caching it.
+            computeRoutes( start, Double.POSITIVE_INFINITY, true ).transmit( listening, packet, 0, range, interdimensional );
+        }
+        else
+        {
+            double offset = start.element.getPosition().distanceTo( packet.sender().getPosition() );
+            network.getRoutes( start ).transmit( listening, packet, offset, range, interdimensional );
+        }
+    }
+
+    /**
+     * Get the (possibly cached) routes from a node to every other node in this network. This must be called with the
+     * read lock held.
+     *
+     * @param start The node to route from.
+     * @return The routes from this node.
+     */
+    private Routes getRoutes( WiredNode start )
+    {
+        Routes routes = this.routes.get( start );
+        if( routes != null ) return routes;
+
+        routes = computeRoutes( start, 0, false );
+        if( this.routes.size() >= MAX_CACHED_ROUTES ) this.routes.clear();
+        this.routes.put( start, routes );
+        return routes;
+    }
+
+    /**
+     * Compute the shortest distance from one node to every other node in the network.
+     *
+     * @param start                 The node to route from.
+     * @param startDistance         The distance the packet has travelled before reaching the start node.
+     * @param startInterdimensional Whether the packet has already crossed dimensions before reaching the start node.
+     * @return The computed routes.
+     */
+    private static Routes computeRoutes( WiredNode start, double startDistance, boolean startInterdimensional )
     {
         Map<WiredNode, TransmitPoint> points = new HashMap<>();
         TreeSet<TransmitPoint> transmitTo = new TreeSet<>();
 
         {
-            TransmitPoint startEntry = start.element.getLevel() != packet.sender().getLevel()
-                ? new TransmitPoint( start, Double.POSITIVE_INFINITY, true )
-                : new TransmitPoint( start, start.element.getPosition().distanceTo( packet.sender().getPosition() ), false );
+            TransmitPoint startEntry = new TransmitPoint( start, startDistance, startInterdimensional );
             points.put( start, startEntry );
             transmitTo.add( startEntry );
         }
@@ -372,9 +447,99 @@ else if( newDistance < neighbourPoint.distance )
             }
         }
 
+        int size = points.size(), i = 0;
+        Object2IntMap<WiredNode> indices = new Object2IntOpenHashMap<>( size );
+        indices.defaultReturnValue( -1 );
+        double[] distances = new double[size];
+        boolean[] interdimensional = new boolean[size];
         for( TransmitPoint point : points.values() )
         {
-            point.node.tryTransmit( packet, point.distance, point.interdimensional, range, interdimensional );
+            indices.put( point.node, i );
+            distances[i] = point.distance;
+            interdimensional[i] = point.interdimensional;
+            i++;
+        }
+
+        return new Routes( indices, distances, interdimensional );
+    }
+
+    /**
+     * Get every node which may be listening on a channel.
+     *
+     * This may include nodes which have since moved to another network, so callers should ignore any nodes which are
+     * not reachable.
+     *
+     * @param channel The channel to check.
+     * @return A copy of the nodes listening on this channel.
+     */
+    private List<WiredNode> getListeners( int channel )
+    {
+        synchronized( listeners )
+        {
+            Set<WiredNode> listening = listeners.get( channel );
+            if( listening == null ) return new ArrayList<>( anyListeners );
+
+            List<WiredNode> result = new ArrayList<>( anyListeners.size() + listening.size() );
+            result.addAll( anyListeners );
+            for( WiredNode node : listening )
+            {
+                if( !anyListeners.contains( node ) ) result.add( node );
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Mark a node as listening (or no longer listening) on a channel. This is called by the node's channel index.
+     *
+     * @param node      The node whose channels have changed.
+     * @param channel   The channel which changed, or {@link ChannelIndex#ANY_CHANNEL}.
+     * @param listening Whether the node is now listening on this channel.
+     */
+    void setListening( WiredNode node, int channel, boolean listening )
+    {
+        synchronized( listeners )
+        {
+            if( channel == ChannelIndex.ANY_CHANNEL )
+            {
+                if( listening )
+                {
+                    anyListeners.add( node );
+                }
+                else
+                {
+                    anyListeners.remove( node );
+                }
+            }
+            else if( listening )
+            {
+                Set<WiredNode> nodes = listeners.get( channel );
+                if( nodes == null ) listeners.put( channel, nodes = new HashSet<>( 4 ) );
+                nodes.add( node );
+            }
+            else
+            {
+                Set<WiredNode> nodes = listeners.get( channel );
+                if( nodes != null && nodes.remove( node ) && nodes.isEmpty() ) listeners.remove( channel );
+            }
+        }
+    }
+
+    /**
+     * Rebuild the channel index from every node on this network. This must be called with the write lock held, after
+     * every node's {@link WiredNode#network} has been updated.
+     */
+    private void rebuildListeners()
+    {
+        synchronized( listeners )
+        {
+            listeners.clear();
+            anyListeners.clear();
+        }
+
+        if( nodes != null )
+        {
+            for( WiredNode node : nodes ) node.replayChannels( this );
         }
     }
 
@@ -391,6 +556,8 @@ private void removeSingleNode( WiredNode wired, WiredNetwork wiredNetwork )
             wired.network = wiredNetwork;
             wired.neighbours.clear();
             wired.peripherals = Collections.emptyMap();
+            rebuildListeners();
+            wiredNetwork.rebuildListeners();
 
             // Broadcast the change
             if( !peripherals.isEmpty() ) WiredNetworkChange.removed( peripherals ).broadcast( wired );
@@ -406,6 +573,26 @@ private void removeSingleNode( WiredNode wired, WiredNetwork wiredNetwork )
         }
     }
 
+    /**
+     * The shortest distance from one node to every other node in the network, stored as flat arrays.
+     *
+     * @param indices          The index of each reachable node within the other arrays, or {@code -1}.
+     * @param distances        The distance to each node.
+     * @param interdimensional Whether reaching each node requires crossing dimensions.
+     */
+    private record Routes( Object2IntMap<WiredNode> indices, double[] distances, boolean[] interdimensional )
+    {
+        void transmit( List<WiredNode> nodes, Packet packet, double offset, double range, boolean packetInterdimensional )
+        {
+            for( WiredNode node : nodes )
+            {
+                int i = indices.getInt( node );
+                if( i < 0 ) continue;
+                node.tryTransmit( packet, offset + distances[i], interdimensional[i], range, packetInterdimensional );
+            }
+        }
+    }
+
     private static class TransmitPoint implements Comparable<TransmitPoint>
     {
         final WiredNode node;
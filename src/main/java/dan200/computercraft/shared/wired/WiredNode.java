@@ -12,6 +12,7 @@
 import dan200.computercraft.api.network.wired.IWiredNode;
 import dan200.computercraft.api.network.wired.IWiredSender;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ChannelIndex;
 
 import javax.annotation.Nonnull;
 import java.util.*;
@@ -20,6 +21,7 @@
 public final class WiredNode implements IWiredNode
 {
     private Set<IPacketReceiver> receivers;
+    private volatile ChannelIndex channels;
 
     final IWiredElement element;
     Map<String, IPeripheral> peripherals = Collections.emptyMap();
@@ -34,23 +36,51 @@ public WiredNode( IWiredElement element )
     }
 
     @Override
-    public synchronized void addReceiver( @Nonnull IPacketReceiver receiver )
+    public void addReceiver( @Nonnull IPacketReceiver receiver )
     {
-        if( receivers == null ) receivers = new HashSet<>();
-        receivers.add( receiver );
+        ChannelIndex channels;
+        synchronized( this )
+        {
+            if( receivers == null )
+            {
+                receivers = new HashSet<>();
+                this.channels = new ChannelIndex( ( channel, listening ) -> network.setListening( this, channel, listening ) );
+            }
+            if( !receivers.add( receiver ) ) return;
+            channels = this.channels;
+        }
+        channels.add( receiver );
     }
 
     @Override
-    public synchronized void removeReceiver( @Nonnull IPacketReceiver receiver )
+    public void removeReceiver( @Nonnull IPacketReceiver receiver )
+    {
+        ChannelIndex channels;
+        synchronized( this )
+        {
+            if( receivers == null || !receivers.remove( receiver ) ) return;
+            channels = this.channels;
+        }
+        channels.remove( receiver );
+    }
+
+    /**
+     * Inform a network of every channel this node is listening on.
+     *
+     * @param network The network to inform.
+     */
+    void replayChannels( WiredNetwork network )
     {
-        if( receivers != null ) receivers.remove( receiver );
+        ChannelIndex channels = this.channels;
+        if( channels != null ) channels.replay( ( channel, listening ) -> network.setListening( this, channel, listening ) );
     }
 
-    synchronized void tryTransmit( Packet packet, double packetDistance, boolean packetInterdimensional, double range, boolean interdimensional )
+    void tryTransmit( Packet packet, double packetDistance, boolean packetInterdimensional, double range, boolean interdimensional )
     {
-        if( receivers == null ) return;
+        ChannelIndex channels = this.channels;
+        if( channels == null ) return;
 
-        for( IPacketReceiver receiver : receivers )
+        for( IPacketReceiver receiver : channels.getListeners( packet.channel() ) )
         {
             if( !packetInterdimensional )
             {
@@ -274,6 +274,112 @@ function call(name, method, ...)
     return nil
 end
 
+-- Find the modem side which a remote peripheral is attached to, or `false` if
+-- it is attached to this computer.
+local function find_owner(name)
+    if native.isPresent(name) then return false end
+
+    for n = 1, #sides do
+        local side = sides[n]
+        if native.hasType(side, "modem") and not native.call(side, "isWireless") and
+            native.call(side, "isPresentRemote", name)
+        then
+            return side
+        end
+    end
+    return nil
+end
+
+-- Submit a batch of calls, resubmitting any which were not run due to time
+-- limits.
+local function run_batch(submit, batch, indices, results)
+    local start = 1
+    while start <= #batch do
+        local pending = {}
+        for i = start, #batch do pending[#pending + 1] = batch[i] end
+
+        local done = submit(pending)
+        if #done == 0 then error("Batch made no progress", 0) end
+        for i = 1, #done do results[indices[start + i - 1]] = done[i] end
+        start = start + #done
+    end
+end
+
+--[[- Call many peripheral methods at once.
+
+Methods which interact with the world (such as @{inventory.getItemDetail})
+normally take at least one server tick to run. This function instead runs
+every call together, usually within a single tick, which is much faster when
+scanning many peripherals.
+
+Each call is a table of the form `{ name, method, ...arguments }`. Errors do not
+stop the rest of the batch, and are instead returned in that call's result.
+
+Arguments may contain `nil`. If the call has an `n` field (as set by
+@{table.pack}), this is used as the length of the call, including the name and
+method. Otherwise, every argument up to the call's largest index is passed.
+
+@tparam { { string, string, any... }... } calls The calls to make.
+@treturn { { boolean, any... }... } The result of each call, in the same
+order. Each result is either `true` followed by the method's return values, or
+`false` and an error message.
+@usage Get the details of every item in a chest.
+
+    local calls = {}
+    for slot = 1, peripheral.call("left", "size") do
+        calls[slot] = { "left", "getItemDetail", slot }
+    end
+
+    for slot, result in ipairs(peripheral.callBatch(calls)) do
+        if result[1] and result[2] then print(slot, result[2].name) end
+    end
+]]
+function callBatch(calls)
+    expect(1, calls, "table")
+
+    -- Group calls by the computer side or modem which handles them.
+    local owners, groups, results = {}, {}, {}
+    for i = 1, #calls do
+        local call = calls[i]
+        if type(call) ~= "table" then
+            error(("bad argument #1 (call #%d is not a table)"):format(i), 2)
+        elseif type(call[1]) ~= "string" or type(call[2]) ~= "string" then
+            error(("bad argument #1 (call #%d must have a name and method)"):format(i), 2)
+        end
+
+        local name = call[1]
+        local owner = owners[name]
+        if owner == nil then
+            owner = find_owner(name)
+            owners[name] = owner
+        end
+
+        if owner == nil then
+            results[i] = { false, "No peripheral: " .. name }
+        else
+            local group = groups[owner]
+            if not group then
+                group = { calls = {}, indices = {} }
+                groups[owner] = group
+            end
+            group.calls[#group.calls + 1] = call
+            group.indices[#group.indices + 1] = i
+        end
+    end
+
+    for owner, group in pairs(groups) do
+        local submit
+        if owner == false then
+            submit = native.callBatch
+        else
+            submit = function(batch) return native.call(owner, "callRemoteBatch", batch) end
+        end
+        run_batch(submit, group.calls, group.indices, results)
+    end
+
+    return results
+end
+
 --- Get a table containing all functions available on a peripheral. These can
 -- then be called instead of using @{peripheral.call} every time.
 --
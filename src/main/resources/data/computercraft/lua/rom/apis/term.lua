@@ -13,6 +13,10 @@ end
 
 local term = _ENV
 
+-- Methods which redirects may leave out. These are not replaced with an
+-- erroring stub, so callers (such as windows) can check for them.
+local optional_methods = { blitLines = true }
+
 --- Redirects terminal output to a monitor, a @{window}, or any other custom
 -- terminal object. Once the redirect is performed, any calls to a "term"
 -- function - or to a function that makes use of a term function, as @{print} -
@@ -39,7 +43,7 @@ term.redirect = function(target)
     end
     for k, v in pairs(native) do
         if type(k) == "string" and type(v) == "function" then
-            if type(target[k]) ~= "function" then
+            if type(target[k]) ~= "function" and not optional_methods[k] then
                 target[k] = function()
                     error("Redirect object is missing method " .. k .. ".", 2)
                 end
@@ -82,6 +86,12 @@ for _, method in ipairs { "nativePaletteColor", "nativePaletteColour" } do
     native[method] = nil
 end
 
+term.blitLines = function(...)
+    local blitLines = redirectTarget.blitLines
+    if type(blitLines) ~= "function" then error("Redirect object is missing method blitLines.", 2) end
+    return blitLines(...)
+end
+
 for k, v in pairs(native) do
     if type(k) == "string" and type(v) == "function" and rawget(term, k) == nil then
         term[k] = wrap(k)
@@ -164,25 +164,39 @@ function create(parent, nX, nY, nWidth, nHeight, bStartVisible)
         parent.blit(tLine.text, tLine.textColor, tLine.backgroundColor)
     end
 
-    local function redraw()
-        for n = 1, nHeight do
-            redrawLine(n)
+    local function redrawLines(nStart, nEnd)
+        if type(parent.blitLines) == "function" then
+            -- Hand the whole region to the parent at once, rather than moving
+            -- the cursor and blitting each line.
+            local tText, tTextColor, tBackgroundColor = {}, {}, {}
+            for n = nStart, nEnd do
+                local tLine, i = tLines[n], n - nStart + 1
+                tText[i], tTextColor[i], tBackgroundColor[i] = tLine.text, tLine.textColor, tLine.backgroundColor
+            end
+            parent.blitLines(tText, tTextColor, tBackgroundColor, nX, nY + nStart - 1)
+        else
+            for n = nStart, nEnd do
+                redrawLine(n)
+            end
         end
     end
 
+    local function redraw()
+        redrawLines(1, nHeight)
+    end
+
     local function updatePalette()
         for k, v in pairs(tPalette) do
             parent.setPaletteColour(k, v[1], v[2], v[3])
         end
     end
 
-    local function internalBlit(sText, sTextColor, sBackgroundColor)
-        local nStart = nCursorX
+    -- Write a string to our line buffer, returning whether the line changed.
+    local function writeLine(nLine, nStart, sText, sTextColor, sBackgroundColor)
         local nEnd = nStart + #sText - 1
-        if nCursorY >= 1 and nCursorY <= nHeight then
+        if nLine >= 1 and nLine <= nHeight then
             if nStart <= nWidth and nEnd >= 1 then
-                -- Modify line
-                local tLine = tLines[nCursorY]
+                local tLine = tLines[nLine]
                 if nStart == 1 and nEnd == nWidth then
                     tLine.text = sText
                     tLine.textColor = sTextColor
@@ -232,15 +246,20 @@ function create(parent, nX, nY, nWidth, nHeight, bStartVisible)
                     tLine.backgroundColor = sNewBackgroundColor
                 end
 
-                -- Redraw line
-                if bVisible then
-                    redrawLine(nCursorY)
-                end
+                return true
             end
         end
 
+        return false
+    end
+
+    local function internalBlit(sText, sTextColor, sBackgroundColor)
+        if writeLine(nCursorY, nCursorX, sText, sTextColor, sBackgroundColor) and bVisible then
+            redrawLine(nCursorY)
+        end
+
         -- Move and redraw cursor
-        nCursorX = nEnd + 1
+        nCursorX = nCursorX + #sText
         if bVisible then
             updateCursorColor()
             updateCursorPos()
@@ -271,6 +290,41 @@ function create(parent, nX, nY, nWidth, nHeight, bStartVisible)
         internalBlit(sText, sTextColor, sBackgroundColor)
     end
 
+    function window.blitLines(tText, tTextColor, tBackgroundColor, nBlitX, nBlitY)
+        expect(1, tText, "table")
+        expect(2, tTextColor, "table")
+        expect(3, tBackgroundColor, "table")
+        expect(4, nBlitX, "number", "nil")
+        expect(5, nBlitY, "number", "nil")
+
+        local nLines = 0
+        while tText[nLines + 1] ~= nil do nLines = nLines + 1 end
+        for i = 1, nLines do
+            local sText, sTextColor, sBackgroundColor = tText[i], tTextColor[i], tBackgroundColor[i]
+            if type(sText) ~= "string" then error(("table item #%d is not string (got %s)"):format(i, type(sText)), 2) end
+            if type(sTextColor) ~= "string" then error(("table item #%d is not string (got %s)"):format(i, type(sTextColor)), 2) end
+            if type(sBackgroundColor) ~= "string" then error(("table item #%d is not string (got %s)"):format(i, type(sBackgroundColor)), 2) end
+            if #sTextColor ~= #sText or #sBackgroundColor ~= #sText then
+                error(("Line %d: arguments must be the same length"):format(i), 2)
+            end
+        end
+
+        -- Update each line, and then redraw every changed line in one go.
+        local nStartX, nStartY = math.floor(nBlitX or 1), math.floor(nBlitY or 1)
+        local nFirst, nLast
+        for i = 1, nLines do
+            local nLine = nStartY + i - 1
+            if writeLine(nLine, nStartX, tText[i], tTextColor[i]:lower(), tBackgroundColor[i]:lower()) then
+                nFirst, nLast = nFirst or nLine, nLine
+            end
+        end
+
+        if bVisible and nFirst then
+            redrawLines(nFirst, nLast)
+            updateCursorPos()
+        end
+    end
+
     function window.clear()
         local sEmptyText = sEmptySpaceLine
         local sEmptyTextColor = tEmptyColorLines[nTextColor]
@@ -0,0 +1,97 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.handles;
+
+import dan200.computercraft.api.lua.LuaException;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Compares reading a 1MiB file a byte at a time through a {@link BinaryReadableHandle} against reading each byte
+ * directly from the file's channel (as the handle did before it buffered reads).
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+public class BinaryReadableHandleBenchmark
+{
+    private static final int SIZE = 1 << 20;
+
+    @Test
+    public void readBytes() throws IOException, LuaException
+    {
+        byte[] contents = new byte[SIZE];
+        new Random( 0 ).nextBytes( contents );
+
+        Path file = Files.createTempFile( "cc-benchmark", ".bin" );
+        try
+        {
+            Files.write( file, contents );
+
+            // Warm up both implementations, then measure them.
+            measureChannel( file );
+            measureHandle( file );
+
+            long channel = measureChannel( file );
+            long handle = measureHandle( file );
+
+            System.out.printf(
+                "Reading 1MiB byte-by-byte: channel %.1f ns/byte, handle %.1f ns/byte%n",
+                (double) channel / SIZE, (double) handle / SIZE
+            );
+        }
+        finally
+        {
+            Files.deleteIfExists( file );
+        }
+    }
+
+    private static long measureChannel( Path file ) throws IOException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            ByteBuffer single = ByteBuffer.allocate( 1 );
+            int read = 0;
+
+            long start = System.nanoTime();
+            while( true )
+            {
+                single.clear();
+                if( channel.read( single ) < 0 ) break;
+                read++;
+            }
+            long time = System.nanoTime() - start;
+
+            if( read != SIZE ) throw new IllegalStateException( "Read " + read + " bytes" );
+            return time;
+        }
+    }
+
+    private static long measureHandle( Path file ) throws IOException, LuaException
+    {
+        try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            BinaryReadableHandle handle = BinaryReadableHandle.of( channel );
+            int read = 0;
+
+            long start = System.nanoTime();
+            while( handle.read( Optional.empty() ) != null ) read++;
+            long time = System.nanoTime() - start;
+
+            if( read != SIZE ) throw new IllegalStateException( "Read " + read + " bytes" );
+            return time;
+        }
+    }
+}
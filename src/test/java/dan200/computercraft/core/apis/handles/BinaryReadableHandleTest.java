@@ -7,9 +7,11 @@
 
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.core.apis.ObjectWrapper;
+import dan200.computercraft.core.lua.OwnedBytes;
 import org.junit.jupiter.api.Test;
 
-import java.nio.ByteBuffer;
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
@@ -28,43 +30,55 @@ public void testReadChar() throws LuaException
     public void testReadShortComplete() throws LuaException
     {
         ObjectWrapper wrapper = fromLength( 10 );
-        assertEquals( 5, wrapper.<ByteBuffer>callOf( "read", 5 ).remaining() );
+        assertEquals( 5, wrapper.<OwnedBytes>callOf( "read", 5 ).length() );
     }
 
     @Test
     public void testReadShortPartial() throws LuaException
     {
         ObjectWrapper wrapper = fromLength( 5 );
-        assertEquals( 5, wrapper.<ByteBuffer>callOf( "read", 10 ).remaining() );
+        assertEquals( 5, wrapper.<OwnedBytes>callOf( "read", 10 ).length() );
     }
 
     @Test
     public void testReadLongComplete() throws LuaException
     {
         ObjectWrapper wrapper = fromLength( 10000 );
-        assertEquals( 9000, wrapper.<byte[]>callOf( "read", 9000 ).length );
+        assertEquals( 9000, wrapper.<OwnedBytes>callOf( "read", 9000 ).length() );
     }
 
     @Test
     public void testReadLongPartial() throws LuaException
     {
         ObjectWrapper wrapper = fromLength( 10000 );
-        assertEquals( 10000, wrapper.<byte[]>callOf( "read", 11000 ).length );
+        assertEquals( 10000, wrapper.<OwnedBytes>callOf( "read", 11000 ).length() );
     }
 
     @Test
     public void testReadLongPartialSmaller() throws LuaException
     {
         ObjectWrapper wrapper = fromLength( 1000 );
-        assertEquals( 1000, wrapper.<ByteBuffer>callOf( "read", 11000 ).remaining() );
+        assertEquals( 1000, wrapper.<OwnedBytes>callOf( "read", 11000 ).length() );
+    }
+
+    @Test
+    public void testReadLongAfterShort() throws LuaException
+    {
+        byte[] input = new byte[20000];
+        for( int i = 0; i < input.length; i++ ) input[i] = (byte) i;
+        ObjectWrapper wrapper = new ObjectWrapper( BinaryReadableHandle.of( new ArrayByteChannel( input ) ) );
+
+        assertEquals( 0, (int) wrapper.callOf( Integer.class, "read" ) );
+        assertEquals( 9000, wrapper.<OwnedBytes>callOf( "read", 9000 ).length() );
+        assertEquals( 9001 & 0xFF, (int) wrapper.callOf( Integer.class, "read" ) );
     }
 
     @Test
     public void testReadLine() throws LuaException
     {
         ObjectWrapper wrapper = new ObjectWrapper( BinaryReadableHandle.of( new ArrayByteChannel( "hello\r\nworld\r!".getBytes( StandardCharsets.UTF_8 ) ) ) );
-        assertArrayEquals( "hello".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readLine" ) );
-        assertArrayEquals( "world\r!".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readLine" ) );
+        assertArrayEquals( "hello".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine" ).toByteArray() );
+        assertArrayEquals( "world\r!".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine" ).toByteArray() );
         assertNull( wrapper.call( "readLine" ) );
     }
 
@@ -72,11 +86,35 @@ public void testReadLine() throws LuaException
     public void testReadLineTrailing() throws LuaException
     {
         ObjectWrapper wrapper = new ObjectWrapper( BinaryReadableHandle.of( new ArrayByteChannel( "hello\r\nworld\r!".getBytes( StandardCharsets.UTF_8 ) ) ) );
-        assertArrayEquals( "hello\r\n".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readLine", true ) );
-        assertArrayEquals( "world\r!".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readLine", true ) );
+        assertArrayEquals( "hello\r\n".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine", true ).toByteArray() );
+        assertArrayEquals( "world\r!".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine", true ).toByteArray() );
         assertNull( wrapper.call( "readLine", true ) );
     }
 
+    @Test
+    public void testSeekAfterRead() throws LuaException
+    {
+        ObjectWrapper wrapper = new ObjectWrapper( BinaryReadableHandle.of( new ArrayByteChannel( "abcdef".getBytes( StandardCharsets.UTF_8 ) ) ) );
+        assertEquals( 'a', (int) wrapper.callOf( Integer.class, "read" ) );
+        assertEquals( 1L, (long) wrapper.callOf( Long.class, "seek" ) );
+        assertArrayEquals( "bc".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "read", 2 ).toByteArray() );
+
+        assertEquals( 0L, (long) wrapper.callOf( Long.class, "seek", "set", 0 ) );
+        assertArrayEquals( "abcdef".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine" ).toByteArray() );
+    }
+
+    @Test
+    public void testReadStream() throws LuaException
+    {
+        byte[] contents = "hello\nworld".getBytes( StandardCharsets.UTF_8 );
+        ObjectWrapper wrapper = new ObjectWrapper( BinaryReadableHandle.of( Channels.newChannel( new ByteArrayInputStream( contents ) ) ) );
+        assertEquals( 'h', (int) wrapper.callOf( Integer.class, "read" ) );
+        assertArrayEquals( "ello".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readLine" ).toByteArray() );
+        assertArrayEquals( "wo".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "read", 2 ).toByteArray() );
+        assertArrayEquals( "rld".getBytes( StandardCharsets.UTF_8 ), wrapper.<OwnedBytes>callOf( "readAll" ).toByteArray() );
+        assertNull( wrapper.call( "read", 1 ) );
+    }
+
     private static ObjectWrapper fromLength( int length )
     {
         byte[] input = new byte[length];
@@ -0,0 +1,48 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AddressResolverTest
+{
+    @AfterEach
+    public void reset()
+    {
+        AddressResolver.reset();
+    }
+
+    @ParameterizedTest
+    @ValueSource( strings = { "127.0.0.1", "10.0.0.1", "::1", "[::1]" } )
+    public void resolvesLiteralsImmediately( String host ) throws Exception
+    {
+        CompletableFuture<InetAddress> result = AddressResolver.resolve( host );
+        assertTrue( result.isDone(), "IP literals should not require a lookup" );
+        assertArrayEquals( InetAddress.getByName( host ).getAddress(), result.get().getAddress() );
+    }
+
+    @Test
+    public void cachesUnknownHosts() throws Exception
+    {
+        // .invalid is reserved, and so should never resolve.
+        CompletableFuture<InetAddress> first = AddressResolver.resolve( "computercraft.invalid" );
+        ExecutionException error = assertThrows( ExecutionException.class, () -> first.get( 30, TimeUnit.SECONDS ) );
+        assertInstanceOf( HTTPRequestException.class, error.getCause() );
+
+        CompletableFuture<InetAddress> second = AddressResolver.resolve( "COMPUTERCRAFT.invalid" );
+        assertTrue( second.isCompletedExceptionally(), "Unknown hosts should be cached" );
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks {@link HttpConnectionPool} against a local server which echoes back the request path.
+ */
+public class HttpConnectionPoolTest
+{
+    private static TestHttpServer server;
+
+    @BeforeAll
+    public static void startServer() throws InterruptedException
+    {
+        server = new TestHttpServer( EchoHandler::new );
+    }
+
+    @AfterEach
+    public void resetPool()
+    {
+        HttpConnectionPool.reset();
+    }
+
+    @AfterAll
+    public static void stopServer()
+    {
+        server.close();
+    }
+
+    @Test
+    public void reusesKeepAliveConnections() throws Exception
+    {
+        HttpConnectionPool.Key key = key();
+        int before = server.connections();
+
+        Channel first = HttpConnectionPool.acquire( key ).get( 5, TimeUnit.SECONDS );
+        assertFalse( HttpConnectionPool.isReused( first ) );
+        assertEquals( "/first", TestHttpServer.exchange( first, "/first", true ) );
+        HttpConnectionPool.release( key, first );
+
+        Channel second = HttpConnectionPool.acquire( key ).get( 5, TimeUnit.SECONDS );
+        assertSame( first, second );
+        assertTrue( HttpConnectionPool.isReused( second ) );
+        assertEquals( "/second", TestHttpServer.exchange( second, "/second", true ) );
+        HttpConnectionPool.release( key, second );
+
+        assertEquals( 1, server.connections() - before );
+    }
+
+    @Test
+    public void doesNotReuseClosedConnections() throws Exception
+    {
+        HttpConnectionPool.Key key = key();
+        int before = server.connections();
+
+        Channel first = HttpConnectionPool.acquire( key ).get( 5, TimeUnit.SECONDS );
+        assertEquals( "/first", TestHttpServer.exchange( first, "/first", false ) );
+        first.closeFuture().await( 5, TimeUnit.SECONDS );
+        HttpConnectionPool.release( key, first );
+
+        Channel second = HttpConnectionPool.acquire( key ).get( 5, TimeUnit.SECONDS );
+        assertNotSame( first, second );
+        assertEquals( "/second", TestHttpServer.exchange( second, "/second", false ) );
+        second.close();
+
+        assertEquals( 2, server.connections() - before );
+    }
+
+    private static HttpConnectionPool.Key key()
+    {
+        return server.key( server.options( 0 ) );
+    }
+
+    private static final class EchoHandler extends SimpleChannelInboundHandler<FullHttpRequest>
+    {
+        @Override
+        protected void channelRead0( ChannelHandlerContext ctx, FullHttpRequest request )
+        {
+            ByteBuf body = Unpooled.copiedBuffer( request.uri(), StandardCharsets.UTF_8 );
+            FullHttpResponse response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.OK, body );
+            response.headers().set( HttpHeaderNames.CONTENT_LENGTH, body.readableBytes() );
+
+            boolean keepAlive = HttpUtil.isKeepAlive( request );
+            HttpUtil.setKeepAlive( response, keepAlive );
+            ChannelFuture future = ctx.writeAndFlush( response );
+            if( !keepAlive ) future.addListener( ChannelFutureListener.CLOSE );
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.core.apis.http.ResourceGroup;
+import dan200.computercraft.core.apis.http.options.Options;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks how {@link HttpRequestHandler} behaves when a pooled connection is closed before the server responds.
+ */
+public class HttpRequestHandlerTest
+{
+    private static TestHttpServer server;
+
+    @BeforeAll
+    public static void startServer() throws InterruptedException
+    {
+        server = new TestHttpServer( DroppingHandler::new );
+    }
+
+    @AfterEach
+    public void resetPool()
+    {
+        HttpConnectionPool.reset();
+    }
+
+    @AfterAll
+    public static void stopServer()
+    {
+        server.close();
+    }
+
+    @Test
+    public void retriesIdempotentRequests() throws Exception
+    {
+        Options options = server.options( 0 );
+        primeConnection( options );
+        int before = server.connections();
+
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        request( environment, HttpMethod.GET, options );
+        environment.pull( "http_success" );
+
+        assertEquals( 1, environment.poolHits.get(), "Should have used the pooled connection" );
+        assertEquals( 1, server.connections() - before, "Should have retried on a new connection" );
+    }
+
+    @Test
+    public void doesNotRetryOtherRequests() throws Exception
+    {
+        Options options = server.options( 0 );
+        primeConnection( options );
+        int before = server.connections();
+
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        request( environment, HttpMethod.POST, options );
+        environment.pull( "http_failure" );
+
+        assertEquals( 1, environment.poolHits.get(), "Should have used the pooled connection" );
+        assertEquals( 0, server.connections() - before, "Should not have retried" );
+    }
+
+    /**
+     * Make a request on a new connection and return it to the pool, so the next request will reuse it.
+     *
+     * @param options The options to make requests with.
+     */
+    private static void primeConnection( Options options ) throws Exception
+    {
+        HttpConnectionPool.Key key = server.key( options );
+        Channel channel = HttpConnectionPool.acquire( key ).get( 5, TimeUnit.SECONDS );
+        assertEquals( "/", TestHttpServer.exchange( channel, "/", true ) );
+        HttpConnectionPool.release( key, channel );
+    }
+
+    private static void request( TestHttpEnvironment environment, HttpMethod method, Options options ) throws Exception
+    {
+        String address = server.url( "/" );
+        String body = method == HttpMethod.GET ? null : "body";
+
+        HttpRequest request = new HttpRequest( new ResourceGroup<>(), environment, address, body, new DefaultHttpHeaders(), false, false, false );
+        request.connect( server.key( options ), new URI( address ), method, options, true );
+    }
+
+    /**
+     * Responds to the first request on each connection, and then closes the connection when another request arrives.
+     * This behaves like a server which dropped an idle keep-alive connection just as it was reused.
+     */
+    private static final class DroppingHandler extends SimpleChannelInboundHandler<FullHttpRequest>
+    {
+        private boolean responded;
+
+        @Override
+        protected void channelRead0( ChannelHandlerContext ctx, FullHttpRequest request )
+        {
+            if( responded )
+            {
+                ctx.close();
+                return;
+            }
+
+            responded = true;
+            ByteBuf body = Unpooled.copiedBuffer( request.uri(), StandardCharsets.UTF_8 );
+            FullHttpResponse response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.OK, body );
+            HttpUtil.setContentLength( response, body.readableBytes() );
+            HttpUtil.setKeepAlive( response, true );
+            ctx.writeAndFlush( response );
+        }
+    }
+}
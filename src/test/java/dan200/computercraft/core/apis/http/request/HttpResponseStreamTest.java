@@ -0,0 +1,206 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.core.apis.http.ResourceGroup;
+import dan200.computercraft.core.apis.http.options.Options;
+import dan200.computercraft.core.lua.OwnedBytes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.*;
+import io.netty.handler.codec.http.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks streamed HTTP responses ({@link HttpResponseStream}) against a local server.
+ */
+public class HttpResponseStreamTest
+{
+    /**
+     * The size of the "large" responses, which should be much larger than {@link HttpResponseStream#WINDOW}.
+     */
+    private static final int LARGE = 1024 * 1024;
+    private static final int CHUNK = 8 * 1024;
+
+    /**
+     * The most Netty will read from a socket at once, with the default {@link AdaptiveRecvByteBufAllocator}.
+     */
+    private static final int MAX_READ = 64 * 1024;
+
+    private static TestHttpServer server;
+
+    @BeforeAll
+    public static void startServer() throws InterruptedException
+    {
+        server = new TestHttpServer( ResponseHandler::new );
+    }
+
+    @AfterEach
+    public void resetPool()
+    {
+        HttpConnectionPool.reset();
+    }
+
+    @AfterAll
+    public static void stopServer()
+    {
+        server.close();
+    }
+
+    @Test
+    public void appliesBackPressure() throws Exception
+    {
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        HttpStreamHandle handle = request( environment, "/large", 0 );
+
+        // Give the server plenty of time to send everything, and check we've not buffered it all.
+        Thread.sleep( 500 );
+        long downloaded = environment.downloaded.get();
+        assertTrue( downloaded <= HttpResponseStream.WINDOW + MAX_READ, "Buffered " + downloaded + " bytes" );
+
+        assertEquals( LARGE, readFully( environment, handle ) );
+        assertNull( read( environment, handle ) );
+    }
+
+    @Test
+    public void reportsDisconnects() throws Exception
+    {
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        HttpStreamHandle handle = request( environment, "/disconnect", 0 );
+
+        assertEquals( CHUNK, readFully( environment, handle ) );
+        Object[] result = read( environment, handle );
+        assertNotNull( result, "Should return an error" );
+        assertNull( result[0] );
+        assertInstanceOf( String.class, result[1] );
+    }
+
+    @Test
+    public void limitsDownloads() throws Exception
+    {
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        HttpStreamHandle handle = request( environment, "/large", LARGE / 2 );
+
+        assertTrue( readFully( environment, handle ) <= LARGE / 2 );
+        Object[] result = read( environment, handle );
+        assertNotNull( result, "Should return an error" );
+        assertNull( result[0] );
+        assertEquals( "Response is too large", result[1] );
+    }
+
+    @Test
+    public void releasesFinishedConnections() throws Exception
+    {
+        int before = server.connections();
+
+        TestHttpEnvironment environment = new TestHttpEnvironment();
+        HttpStreamHandle handle = request( environment, "/echo", 0 );
+        assertEquals( "/echo".length(), readFully( environment, handle ) );
+        assertNull( read( environment, handle ) );
+
+        Channel channel = HttpConnectionPool.acquire( server.key( server.options( 0 ) ) ).get( 5, TimeUnit.SECONDS );
+        try
+        {
+            assertTrue( HttpConnectionPool.isReused( channel ), "Connection should have been returned to the pool" );
+        }
+        finally
+        {
+            channel.close();
+        }
+
+        assertEquals( 1, server.connections() - before );
+    }
+
+    /**
+     * Make a streamed request, and wait for the response.
+     *
+     * @param environment The environment to run the request in.
+     * @param path        The path to request.
+     * @param maxDownload The maximum download size, or 0 for unlimited.
+     * @return The response body.
+     */
+    private static HttpStreamHandle request( TestHttpEnvironment environment, String path, long maxDownload ) throws Exception
+    {
+        Options options = server.options( maxDownload );
+        String address = server.url( path );
+
+        HttpRequest request = new HttpRequest( new ResourceGroup<>(), environment, address, null, new DefaultHttpHeaders(), true, false, true );
+        request.connect( server.key( options ), new URI( address ), HttpMethod.GET, options, false );
+
+        Object[] event = environment.pull( "http_success" );
+        HttpResponseHandle response = (HttpResponseHandle) event[2];
+        return (HttpStreamHandle) response.getExtra().iterator().next();
+    }
+
+    /**
+     * Read from the response until the end (or an error) is reached.
+     *
+     * @param environment The environment the request was made in.
+     * @param handle      The response body.
+     * @return The number of bytes read.
+     */
+    private static int readFully( TestHttpEnvironment environment, HttpStreamHandle handle ) throws Exception
+    {
+        int total = 0;
+        while( true )
+        {
+            Object[] result = environment.run( handle.read( Optional.of( CHUNK ) ) );
+            if( result == null || result[0] == null ) return total;
+            total += ((OwnedBytes) result[0]).length();
+        }
+    }
+
+    private static Object[] read( TestHttpEnvironment environment, HttpStreamHandle handle ) throws Exception
+    {
+        return environment.run( handle.read( Optional.of( CHUNK ) ) );
+    }
+
+    private static final class ResponseHandler extends SimpleChannelInboundHandler<FullHttpRequest>
+    {
+        @Override
+        protected void channelRead0( ChannelHandlerContext ctx, FullHttpRequest request )
+        {
+            String path = request.uri();
+            if( path.equals( "/large" ) || path.equals( "/disconnect" ) )
+            {
+                HttpResponse response = new DefaultHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.OK );
+                HttpUtil.setContentLength( response, LARGE );
+                ctx.write( response );
+
+                // Either send the whole body, or just the first chunk and then disconnect.
+                int chunks = path.equals( "/large" ) ? LARGE / CHUNK : 1;
+                for( int i = 0; i < chunks; i++ ) ctx.write( new DefaultHttpContent( Unpooled.wrappedBuffer( new byte[CHUNK] ) ) );
+
+                if( chunks == 1 )
+                {
+                    ctx.writeAndFlush( Unpooled.EMPTY_BUFFER ).addListener( ChannelFutureListener.CLOSE );
+                }
+                else
+                {
+                    ctx.writeAndFlush( LastHttpContent.EMPTY_LAST_CONTENT );
+                }
+            }
+            else
+            {
+                ByteBuf body = Unpooled.copiedBuffer( path, StandardCharsets.UTF_8 );
+                FullHttpResponse response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.OK, body );
+                HttpUtil.setContentLength( response, body.readableBytes() );
+                HttpUtil.setKeepAlive( response, true );
+                ctx.writeAndFlush( response );
+            }
+        }
+    }
+}
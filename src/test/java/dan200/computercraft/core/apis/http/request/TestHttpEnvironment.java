@@ -0,0 +1,78 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.apis.NullApiEnvironment;
+import dan200.computercraft.core.tracking.TrackingField;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * An environment for running HTTP requests in, which queues events so tests can wait on them.
+ */
+final class TestHttpEnvironment extends NullApiEnvironment
+{
+    private final BlockingQueue<Object[]> events = new LinkedBlockingQueue<>();
+    final AtomicLong downloaded = new AtomicLong();
+    final AtomicLong poolHits = new AtomicLong();
+
+    @Override
+    public void queueEvent( String event, Object... args )
+    {
+        Object[] result = new Object[args.length + 1];
+        result[0] = event;
+        System.arraycopy( args, 0, result, 1, args.length );
+        events.add( result );
+    }
+
+    @Override
+    public void addTrackingChange( @Nonnull TrackingField field, long change )
+    {
+        if( field == TrackingField.HTTP_DOWNLOAD ) downloaded.addAndGet( change );
+        if( field == TrackingField.HTTP_POOL_HITS ) poolHits.addAndGet( change );
+    }
+
+    /**
+     * Wait for an event, failing if a request fails first.
+     *
+     * @param filter The event to wait for.
+     * @return The event and its arguments.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    Object[] pull( String filter ) throws InterruptedException
+    {
+        while( true )
+        {
+            Object[] event = events.poll( 5, TimeUnit.SECONDS );
+            if( event == null ) fail( "Timed out waiting for " + filter );
+            if( event[0].equals( filter ) ) return event;
+            if( event[0].equals( "http_failure" ) ) fail( "Request failed: " + Arrays.toString( event ) );
+        }
+    }
+
+    /**
+     * Run a method to completion, resuming it with {@link HttpResponseStream#EVENT} events.
+     *
+     * @param result The result of calling the method.
+     * @return The final result of the method.
+     * @throws InterruptedException If interrupted while waiting for an event.
+     * @throws LuaException         If the method errored.
+     */
+    Object[] run( MethodResult result ) throws InterruptedException, LuaException
+    {
+        while( result.getCallback() != null ) result = result.getCallback().resume( pull( HttpResponseStream.EVENT ) );
+        return result.getResult();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.http.request;
+
+import com.electronwill.nightconfig.core.Config;
+import dan200.computercraft.core.apis.http.options.AddressRule;
+import dan200.computercraft.core.apis.http.options.AddressRuleConfig;
+import dan200.computercraft.core.apis.http.options.Options;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.*;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A local HTTP server to run requests against. Each connection gets a new handler, which receives aggregated
+ * {@link FullHttpRequest}s.
+ */
+final class TestHttpServer implements AutoCloseable
+{
+    private static final String HOST = "127.0.0.1";
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final EventLoopGroup group;
+    private final Channel server;
+
+    TestHttpServer( Supplier<? extends ChannelHandler> handler ) throws InterruptedException
+    {
+        group = new NioEventLoopGroup( 1 );
+        server = new ServerBootstrap()
+            .group( group )
+            .channel( NioServerSocketChannel.class )
+            .childHandler( new ChannelInitializer<SocketChannel>()
+            {
+                @Override
+                protected void initChannel( SocketChannel ch )
+                {
+                    connections.incrementAndGet();
+                    ch.pipeline().addLast( new HttpServerCodec(), new HttpObjectAggregator( 1024 ), handler.get() );
+                }
+            } )
+            .bind( HOST, 0 ).sync().channel();
+    }
+
+    InetSocketAddress address()
+    {
+        return (InetSocketAddress) server.localAddress();
+    }
+
+    /**
+     * Get the number of connections which have been opened to this server.
+     *
+     * @return The number of connections opened so far.
+     */
+    int connections()
+    {
+        return connections.get();
+    }
+
+    String url( String path )
+    {
+        return "http://" + HOST + ":" + address().getPort() + path;
+    }
+
+    /**
+     * Get the options for requests to this server.
+     *
+     * @param maxDownload The maximum download size, or 0 for unlimited.
+     * @return The request options.
+     */
+    Options options( long maxDownload )
+    {
+        Config config = Config.inMemory();
+        config.set( "host", "*" );
+        config.set( "action", "allow" );
+        if( maxDownload > 0 ) config.set( "max_download", maxDownload );
+
+        AddressRule rule = AddressRuleConfig.parseRule( config );
+        return AddressRule.apply( List.of( rule ), HOST, address() );
+    }
+
+    HttpConnectionPool.Key key( Options options )
+    {
+        return new HttpConnectionPool.Key( address(), HOST, null, options.timeout );
+    }
+
+    /**
+     * Send a GET request on a channel from the connection pool, and wait for the response.
+     *
+     * @param channel   The channel to send the request on.
+     * @param path      The path to request.
+     * @param keepAlive Whether to keep the connection open afterwards.
+     * @return The response body.
+     * @throws Exception If no response was received.
+     */
+    static String exchange( Channel channel, String path, boolean keepAlive ) throws Exception
+    {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        StringBuilder body = new StringBuilder();
+        SimpleChannelInboundHandler<HttpObject> handler = new SimpleChannelInboundHandler<>()
+        {
+            @Override
+            protected void channelRead0( ChannelHandlerContext ctx, HttpObject msg )
+            {
+                if( msg instanceof HttpContent content ) body.append( content.content().toString( StandardCharsets.UTF_8 ) );
+                if( msg instanceof LastHttpContent )
+                {
+                    ctx.pipeline().remove( this );
+                    result.complete( body.toString() );
+                }
+            }
+        };
+
+        channel.pipeline().addLast( handler );
+        FullHttpRequest request = new DefaultFullHttpRequest( HttpVersion.HTTP_1_1, HttpMethod.GET, path );
+        request.headers().set( HttpHeaderNames.HOST, HOST );
+        if( !keepAlive ) request.headers().set( HttpHeaderNames.CONNECTION, HttpHeaderValues.CLOSE );
+        channel.writeAndFlush( request );
+
+        return result.get( 5, TimeUnit.SECONDS );
+    }
+
+    @Override
+    public void close()
+    {
+        server.close().syncUninterruptibly();
+        group.shutdownGracefully();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.lua.MachineResult;
+import dan200.computercraft.support.IsolatedRunner;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many tasks {@link ComputerThread} can get through when thousands of computers are constantly queuing
+ * events. Each computer's task does no work, so this is almost entirely a measure of scheduling overhead.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+@ExtendWith( IsolatedRunner.class )
+public class ComputerThreadBenchmark
+{
+    private static final int COMPUTERS = 2000;
+    private static final long WARMUP = TimeUnit.SECONDS.toNanos( 2 );
+    private static final long DURATION = TimeUnit.SECONDS.toNanos( 5 );
+
+    @Test
+    public void sharedQueue1() throws Exception
+    {
+        run( 1, false );
+    }
+
+    @Test
+    public void sharedQueue2() throws Exception
+    {
+        run( 2, false );
+    }
+
+    @Test
+    public void sharedQueue4() throws Exception
+    {
+        run( 4, false );
+    }
+
+    @Test
+    public void sharedQueue8() throws Exception
+    {
+        run( 8, false );
+    }
+
+    @Test
+    public void workStealing2() throws Exception
+    {
+        run( 2, true );
+    }
+
+    @Test
+    public void workStealing4() throws Exception
+    {
+        run( 4, true );
+    }
+
+    @Test
+    public void workStealing8() throws Exception
+    {
+        run( 8, true );
+    }
+
+    private static void run( int threads, boolean workStealing ) throws Exception
+    {
+        ComputerCraft.computerThreads = threads;
+        ComputerCraft.computerWorkStealing = workStealing;
+
+        LongAdder tasks = new LongAdder();
+        for( int i = 0; i < COMPUTERS; i++ )
+        {
+            Computer computer = FakeComputerManager.create();
+            FakeComputerManager.enqueueForever( computer, t -> {
+                tasks.increment();
+                return MachineResult.OK;
+            } );
+            computer.turnOn();
+            computer.tick();
+        }
+
+        FakeComputerManager.sleep( WARMUP, TimeUnit.NANOSECONDS );
+
+        long start = System.nanoTime();
+        long startTasks = tasks.sum();
+        FakeComputerManager.sleep( DURATION, TimeUnit.NANOSECONDS );
+        long elapsed = System.nanoTime() - start;
+        long completed = tasks.sum() - startTasks;
+
+        System.out.printf(
+            "%s, %d runner(s): %.0f tasks/s (%.0f tasks/s per runner)%n",
+            workStealing ? "Work stealing" : "Shared queue", threads,
+            completed * 1e9 / elapsed, completed * 1e9 / elapsed / threads
+        );
+    }
+}
@@ -15,6 +15,7 @@
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -95,4 +96,27 @@ public void testPauseIfSomeOtherMachine() throws Exception
 
         FakeComputerManager.startAndWait( computer );
     }
+
+    @Test
+    public void testWorkStealingRunsAllComputers() throws Exception
+    {
+        ComputerCraft.computerThreads = 4;
+        ComputerCraft.computerWorkStealing = true;
+
+        int count = 32;
+        CountDownLatch finished = new CountDownLatch( count );
+        for( int i = 0; i < count; i++ )
+        {
+            Computer computer = FakeComputerManager.create();
+            FakeComputerManager.enqueue( computer, timeout -> {
+                finished.countDown();
+                computer.shutdown();
+                return MachineResult.OK;
+            } );
+            computer.turnOn();
+            computer.tick();
+        }
+
+        assertTrue( finished.await( 5, TimeUnit.SECONDS ), "All computers should have run" );
+    }
 }
@@ -92,7 +92,7 @@ public static void enqueue( @Nonnull Computer computer, @Nonnull Task task )
      * @param computer The computer to enqueue the work on.
      * @param task     The task to run.
      */
-    private static void enqueueForever( @Nonnull Computer computer, @Nonnull Task task )
+    static void enqueueForever( @Nonnull Computer computer, @Nonnull Task task )
     {
         machines.get( computer ).offer( t -> {
             MachineResult result = task.run( t );
@@ -0,0 +1,128 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Compares the per-tick cost of {@link TimerWheel} against the previous implementation of timers, which decremented
+ * every timer on every tick. Each timer is restarted as soon as it fires, mimicking computers in a {@code sleep} loop.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+public class TimerWheelBenchmark
+{
+    private static final int TICKS = 2000;
+
+    @Test
+    public void timers10k()
+    {
+        run( 10_000 );
+    }
+
+    @Test
+    public void timers100k()
+    {
+        run( 100_000 );
+    }
+
+    private static void run( int count )
+    {
+        // Warm up both implementations, then measure them.
+        measure( new Countdown(), count );
+        measure( new Wheel(), count );
+
+        long countdown = measure( new Countdown(), count );
+        long wheel = measure( new Wheel(), count );
+
+        System.out.printf(
+            "%d timers: countdown %.2f us/tick, timer wheel %.2f us/tick%n",
+            count, countdown / 1e3 / TICKS, wheel / 1e3 / TICKS
+        );
+    }
+
+    private static long measure( Timers timers, int count )
+    {
+        Random random = new Random( 0 );
+        for( int i = 0; i < count; i++ ) timers.add( i, 1 + random.nextInt( 200 ) );
+
+        IntConsumer restart = id -> timers.add( id, 1 + random.nextInt( 200 ) );
+
+        long start = System.nanoTime();
+        for( int i = 0; i < TICKS; i++ ) timers.advance( restart );
+        return System.nanoTime() - start;
+    }
+
+    private interface Timers
+    {
+        void add( int id, long ticks );
+
+        void advance( IntConsumer fire );
+    }
+
+    private static final class Wheel implements Timers
+    {
+        private final TimerWheel wheel = new TimerWheel();
+
+        @Override
+        public void add( int id, long ticks )
+        {
+            wheel.add( id, ticks );
+        }
+
+        @Override
+        public void advance( IntConsumer fire )
+        {
+            wheel.advance( fire );
+        }
+    }
+
+    /**
+     * The original implementation, decrementing every timer each tick.
+     */
+    private static final class Countdown implements Timers
+    {
+        private final Int2LongMap timers = new Int2LongOpenHashMap();
+        private final Int2LongMap added = new Int2LongOpenHashMap();
+
+        @Override
+        public void add( int id, long ticks )
+        {
+            added.put( id, ticks );
+        }
+
+        @Override
+        public void advance( IntConsumer fire )
+        {
+            timers.putAll( added );
+            added.clear();
+
+            ObjectIterator<Int2LongMap.Entry> it = timers.int2LongEntrySet().iterator();
+            while( it.hasNext() )
+            {
+                Int2LongMap.Entry entry = it.next();
+                long ticksLeft = entry.getLongValue() - 1;
+                if( ticksLeft <= 0 )
+                {
+                    it.remove();
+                    fire.accept( entry.getIntKey() );
+                }
+                else
+                {
+                    entry.setValue( ticksLeft );
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TimerWheelTest
+{
+    @Test
+    public void testFiresOnCorrectTick()
+    {
+        TimerWheel wheel = new TimerWheel();
+        long[] delays = new long[] { 0, 1, 2, 63, 64, 65, 4095, 4096, 4097, 300_000 };
+        for( int i = 0; i < delays.length; i++ ) wheel.add( i, delays[i] );
+
+        long[] fired = new long[delays.length];
+        for( long tick = 1; tick <= 300_000; tick++ )
+        {
+            long now = tick;
+            wheel.advance( id -> fired[id] = now );
+        }
+
+        for( int i = 0; i < delays.length; i++ )
+        {
+            assertEquals( Math.max( delays[i], 1 ), fired[i], "Timer with delay " + delays[i] );
+        }
+        assertEquals( 0, wheel.size() );
+    }
+
+    @Test
+    public void testCancel()
+    {
+        TimerWheel wheel = new TimerWheel();
+        wheel.add( 0, 10 );
+        wheel.add( 1, 10 );
+        wheel.add( 2, 1000 );
+        wheel.cancel( 1 );
+        wheel.cancel( 2 );
+
+        IntList fired = new IntArrayList();
+        for( int i = 0; i < 2000; i++ ) wheel.advance( fired::add );
+
+        assertEquals( IntList.of( 0 ), fired );
+    }
+
+    @Test
+    public void testRandomTimers()
+    {
+        Random random = new Random( 0 );
+        TimerWheel wheel = new TimerWheel();
+        long[] deadlines = new long[1000];
+
+        long now = 0;
+        for( int i = 0; i < deadlines.length; i++ )
+        {
+            // Interleave adding timers with advancing the wheel, so timers are added at all offsets.
+            long delay = random.nextInt( 1 << random.nextInt( 16 ) );
+            deadlines[i] = now + Math.max( delay, 1 );
+            wheel.add( i, delay );
+
+            int steps = random.nextInt( 100 );
+            for( int j = 0; j < steps; j++ )
+            {
+                long tick = ++now;
+                wheel.advance( id -> assertEquals( deadlines[id], tick, "Timer " + id ) );
+            }
+        }
+
+        while( wheel.size() > 0 )
+        {
+            long tick = ++now;
+            wheel.advance( id -> assertEquals( deadlines[id], tick, "Timer " + id ) );
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Measures the cost of {@link FileSystem#exists(String)} and {@link FileSystem#list(String)} as the number of mounts
+ * grows, mimicking a computer with many disk drives attached.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+public class FileSystemBenchmark
+{
+    private static final int ITERATIONS = 500_000;
+
+    @Test
+    public void mounts1() throws FileSystemException
+    {
+        run( 1 );
+    }
+
+    @Test
+    public void mounts10() throws FileSystemException
+    {
+        run( 10 );
+    }
+
+    @Test
+    public void mounts100() throws FileSystemException
+    {
+        run( 100 );
+    }
+
+    private static void run( int count ) throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount().addFile( "startup.lua", "" ) );
+        String[] paths = new String[count];
+        for( int i = 0; i < count; i++ )
+        {
+            String name = i == 0 ? "disk" : "disk" + (i + 1);
+            fs.mountWritable( name, name, new MemoryMount().addFile( "file.txt", "" ) );
+            paths[i] = name + "/file.txt";
+        }
+
+        // Warm up, then measure.
+        measureExists( fs, paths );
+        measureList( fs, paths );
+
+        long exists = measureExists( fs, paths );
+        long list = measureList( fs, paths );
+
+        System.out.printf(
+            "%d mounts: exists %.1f ns/call, list %.1f ns/call%n",
+            count, (double) exists / ITERATIONS, (double) list / ITERATIONS
+        );
+    }
+
+    private static long measureExists( FileSystem fs, String[] paths ) throws FileSystemException
+    {
+        int found = 0;
+        long start = System.nanoTime();
+        for( int i = 0; i < ITERATIONS; i++ )
+        {
+            if( fs.exists( paths[i % paths.length] ) ) found++;
+        }
+        long time = System.nanoTime() - start;
+
+        if( found != ITERATIONS ) throw new IllegalStateException( "Missing files" );
+        return time;
+    }
+
+    private static long measureList( FileSystem fs, String[] paths ) throws FileSystemException
+    {
+        int found = 0;
+        long start = System.nanoTime();
+        for( int i = 0; i < ITERATIONS; i++ )
+        {
+            String path = paths[i % paths.length];
+            found += fs.list( path.substring( 0, path.indexOf( '/' ) ) ).length;
+        }
+        long time = System.nanoTime() - start;
+
+        if( found != ITERATIONS ) throw new IllegalStateException( "Missing files" );
+        return time;
+    }
+}
@@ -16,7 +16,9 @@
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -78,4 +80,52 @@ public void testUnmountCloses() throws FileSystemException
         LuaException err = assertThrows( LuaException.class, () -> wrapper.call( "write", "Tiny line" ) );
         assertEquals( "attempt to use a closed file", err.getMessage() );
     }
+
+    @Test
+    public void testNestedMounts() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "rom", "rom", new MemoryMount() );
+        fs.mount( "programs", "rom/programs", new MemoryMount() );
+        fs.mount( "fun", "rom/programs/fun", new MemoryMount() );
+        fs.mount( "disk", "disk", new MemoryMount() );
+
+        assertEquals( "rom", fs.getMountLabel( "ROM/apis" ) );
+        assertEquals( "programs", fs.getMountLabel( "rom/programs/edit.lua" ) );
+        assertEquals( "fun", fs.getMountLabel( "rom/programs/fun" ) );
+
+        // Only mounts directly inside a directory are listed.
+        assertArrayEquals( new String[] { "disk", "rom" }, fs.list( "" ) );
+        assertArrayEquals( new String[] { "programs" }, fs.list( "rom" ) );
+        assertArrayEquals( new String[] { "fun" }, fs.list( "rom/programs" ) );
+
+        // Unmounting removes the mount from the index, falling back to the parent mount.
+        fs.unmount( "rom/programs" );
+        assertEquals( "rom", fs.getMountLabel( "rom/programs/edit.lua" ) );
+        assertEquals( "fun", fs.getMountLabel( "rom/programs/fun" ) );
+        assertArrayEquals( new String[0], fs.list( "rom" ) );
+    }
+
+    @Test
+    public void testUsageLedger() throws IOException, InterruptedException
+    {
+        File root = new File( ROOT, "ledger" );
+        File ledger = new File( ROOT, "ledger.usage" );
+        root.mkdirs();
+        Files.write( new byte[1000], new File( root, "file.bin" ) );
+        ledger.delete();
+
+        // With no ledger, we measure the directory and write a new one.
+        FileMount mount = new FileMount( root, CAPACITY );
+        assertEquals( CAPACITY - 1000, mount.getRemainingSpace() );
+        assertEquals( "1500", Files.asCharSource( ledger, StandardCharsets.UTF_8 ).read() );
+
+        // An out-of-date ledger is trusted at first, and then corrected in the background.
+        Files.asCharSink( ledger, StandardCharsets.UTF_8 ).write( "2500" );
+        mount = new FileMount( root, CAPACITY );
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( 5 );
+        while( mount.getRemainingSpace() != CAPACITY - 1000 && System.nanoTime() < deadline ) Thread.sleep( 10 );
+        assertEquals( CAPACITY - 1000, mount.getRemainingSpace() );
+    }
 }
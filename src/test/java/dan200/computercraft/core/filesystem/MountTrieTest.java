@@ -0,0 +1,146 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MountTrieTest
+{
+    private static MountWrapper mount( String location )
+    {
+        return new MountWrapper( location, location, new MemoryMount() );
+    }
+
+    private static MountTrie trie( MountWrapper... mounts )
+    {
+        MountTrie trie = new MountTrie();
+        for( MountWrapper mount : mounts ) trie.add( mount );
+        return trie;
+    }
+
+    @Test
+    public void testFindsDeepestMount()
+    {
+        MountWrapper root = mount( "" ), rom = mount( "rom" ), programs = mount( "rom/programs" );
+        MountTrie trie = trie( root, rom, programs );
+
+        assertSame( root, trie.find( "" ) );
+        assertSame( root, trie.find( "startup.lua" ) );
+        assertSame( root, trie.find( "romantic" ) );
+        assertSame( rom, trie.find( "rom" ) );
+        assertSame( rom, trie.find( "rom/apis/window.lua" ) );
+        assertSame( programs, trie.find( "rom/programs" ) );
+        assertSame( programs, trie.find( "rom/programs/fun/adventure.lua" ) );
+    }
+
+    @Test
+    public void testNoRootMount()
+    {
+        MountTrie trie = trie( mount( "disk" ) );
+        assertNull( trie.find( "" ) );
+        assertNull( trie.find( "other" ) );
+        assertNotNull( trie.find( "disk/file" ) );
+    }
+
+    @Test
+    public void testMatchesContains()
+    {
+        List<MountWrapper> mounts = List.of( mount( "" ), mount( "rom" ), mount( "rom/programs" ), mount( "Disk" ), mount( "disk/Data" ) );
+        MountTrie trie = new MountTrie();
+        for( MountWrapper mount : mounts ) trie.add( mount );
+
+        String[] paths = {
+            "", "ROM", "Rom/Programs/edit.lua", "rom/programsx", "disk", "DISK/data/x", "disk/dat", "diskette", "ROM/PROGRAMS",
+        };
+        for( String path : paths )
+        {
+            // This is how FileSystem used to find mounts, before MountTrie.
+            MountWrapper expected = null;
+            for( MountWrapper mount : mounts )
+            {
+                if( FileSystem.contains( mount.getLocation(), path ) &&
+                    (expected == null || mount.getLocation().length() > expected.getLocation().length()) )
+                {
+                    expected = mount;
+                }
+            }
+
+            assertSame( expected, trie.find( path ), path );
+        }
+    }
+
+    @Test
+    public void testRejectsParentPaths()
+    {
+        MountTrie trie = trie( mount( "" ), mount( "rom" ) );
+        assertNull( trie.find( ".." ) );
+        assertNull( trie.find( "../rom" ) );
+    }
+
+    @Test
+    public void testFindsDirectChildren()
+    {
+        MountWrapper rom = mount( "rom" ), programs = mount( "rom/programs" ), fun = mount( "rom/programs/fun" );
+        MountWrapper disk = mount( "disk" );
+        MountTrie trie = trie( mount( "" ), rom, programs, fun, disk );
+
+        assertEquals( List.of( disk, rom ), sorted( children( trie, "" ) ) );
+        assertEquals( List.of( programs ), children( trie, "rom" ) );
+        assertEquals( List.of( fun ), children( trie, "ROM/Programs" ) );
+        assertEquals( List.of(), children( trie, "rom/apis" ) );
+        assertEquals( List.of(), children( trie, "disk" ) );
+    }
+
+    @Test
+    public void testClear()
+    {
+        MountWrapper rom = mount( "rom" );
+        MountTrie trie = trie( mount( "" ), rom );
+        trie.clear();
+
+        assertNull( trie.find( "" ) );
+        assertNull( trie.find( "rom" ) );
+        assertEquals( List.of(), children( trie, "" ) );
+    }
+
+    @Test
+    public void testHashCollisions()
+    {
+        // "az" and "b[" have the same hash, so share a bucket.
+        MountWrapper first = mount( "az" ), second = mount( "b[" );
+        MountTrie trie = trie( first, second );
+
+        assertSame( first, trie.find( "az/file" ) );
+        assertSame( first, trie.find( "AZ" ) );
+        assertSame( second, trie.find( "b[/file" ) );
+        assertNull( trie.find( "b[x" ) );
+        assertEquals( List.of( first, second ), sorted( children( trie, "" ) ) );
+
+        // Nested mounts below a colliding segment are found too.
+        MountWrapper nested = mount( "b[/az" );
+        trie.add( nested );
+        assertSame( nested, trie.find( "b[/az/file" ) );
+        assertSame( second, trie.find( "b[/b[" ) );
+    }
+
+    private static List<MountWrapper> children( MountTrie trie, String path )
+    {
+        List<MountWrapper> children = new ArrayList<>();
+        trie.findChildren( path, children );
+        return children;
+    }
+
+    private static List<MountWrapper> sorted( List<MountWrapper> mounts )
+    {
+        mounts.sort( ( a, b ) -> a.getLocation().compareTo( b.getLocation() ) );
+        return mounts;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.collect.Lists;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.apis.handles.ArrayByteChannel;
+import dan200.computercraft.core.apis.handles.BinaryReadableHandle;
+import dan200.computercraft.core.apis.http.request.HttpResponseHandle;
+import dan200.computercraft.core.asm.LuaMethod;
+import dan200.computercraft.core.asm.ObjectSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.LuaTable;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Compares the cost of converting objects to Lua tables using {@link MethodTable} against looking up and binding each
+ * method from scratch.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+public class MethodTableBenchmark
+{
+    private static final int ITERATIONS = 200_000;
+    private static final ILuaContext CONTEXT = task -> 0;
+
+    @Test
+    public void binaryReadableHandle()
+    {
+        run( "BinaryReadableHandle", BinaryReadableHandle.of( new ArrayByteChannel( new byte[16] ) ) );
+    }
+
+    @Test
+    public void httpResponseHandle()
+    {
+        BinaryReadableHandle reader = BinaryReadableHandle.of( new ArrayByteChannel( new byte[16] ) );
+        run( "HttpResponseHandle", new HttpResponseHandle( reader, 200, "OK", Collections.emptyMap() ) );
+    }
+
+    private static void run( String name, Object object )
+    {
+        // Warm up both implementations, then measure them.
+        measure( MethodTableBenchmark::wrapUncached, object );
+        measure( MethodTableBenchmark::wrapCached, object );
+
+        long uncached = measure( MethodTableBenchmark::wrapUncached, object );
+        long cached = measure( MethodTableBenchmark::wrapCached, object );
+
+        System.out.printf(
+            "%s: uncached %.1f ns/wrap, method table %.1f ns/wrap%n",
+            name, (double) uncached / ITERATIONS, (double) cached / ITERATIONS
+        );
+    }
+
+    private static long measure( Function<Object, LuaTable> wrap, Object object )
+    {
+        LuaTable last = null;
+        long start = System.nanoTime();
+        for( int i = 0; i < ITERATIONS; i++ ) last = wrap.apply( object );
+        long time = System.nanoTime() - start;
+
+        if( last == null ) throw new IllegalStateException( "No table created" );
+        return time;
+    }
+
+    /**
+     * The previous implementation of {@code CobaltLuaMachine.wrapLuaObject}.
+     */
+    private static LuaTable wrapUncached( Object object )
+    {
+        LuaTable table = new LuaTable();
+        ObjectSource.allMethods( LuaMethod.GENERATOR, object, ( instance, method ) ->
+            table.rawset( method.getName(), method.nonYielding()
+                ? new BasicFunction( null, method.getMethod(), instance, CONTEXT, method.getName() )
+                : new ResultInterpreterFunction( null, method.getMethod(), instance, CONTEXT, method.getName() ) ) );
+        return table;
+    }
+
+    private static LuaTable wrapCached( Object object )
+    {
+        MethodTable methods = MethodTable.of( object.getClass() );
+        List<Object> extra = object instanceof ObjectSource source ? Lists.newArrayList( source.getExtra() ) : List.of();
+
+        int size = methods.size();
+        for( Object child : extra ) size += MethodTable.of( child.getClass() ).size();
+
+        LuaTable table = new LuaTable( 0, size );
+        methods.bind( null, CONTEXT, table, object );
+        for( Object child : extra ) MethodTable.of( child.getClass() ).bind( null, CONTEXT, table, child );
+        return table;
+    }
+}
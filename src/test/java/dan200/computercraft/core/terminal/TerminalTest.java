@@ -14,6 +14,8 @@
 import org.hamcrest.Matcher;
 import org.junit.jupiter.api.Test;
 
+import java.util.BitSet;
+
 import static dan200.computercraft.core.terminal.TerminalMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
@@ -641,6 +643,33 @@ void testNbtRoundtrip()
         callCounter.assertCalledTimes( 1 );
     }
 
+    @Test
+    void testReadLegacyNbt()
+    {
+        CompoundTag nbt = new CompoundTag();
+        nbt.putInt( "term_cursorX", 2 );
+        nbt.putInt( "term_cursorY", 1 );
+        nbt.putInt( "term_textColour", 3 );
+        nbt.putInt( "term_bgColour", 5 );
+        nbt.putString( "term_text_0", "hi" );
+        nbt.putString( "term_textColour_0", "11" );
+        nbt.putString( "term_textBgColour_0", "ee" );
+
+        CallCounter callCounter = new CallCounter();
+        Terminal terminal = new Terminal( 3, 2, callCounter );
+        terminal.readFromNBT( nbt );
+
+        assertThat( terminal, allOf(
+            textMatches( new String[] { "hi ", "   " } ),
+            textColourMatches( new String[] { "113", "333" } ),
+            backgroundColourMatches( new String[] { "ee5", "555" } )
+        ) );
+
+        assertEquals( 2, terminal.getCursorX() );
+        assertEquals( 1, terminal.getCursorY() );
+        callCounter.assertCalledTimes( 1 );
+    }
+
     @Test
     void testReadWriteNBTEmpty()
     {
@@ -666,6 +695,53 @@ void testReadWriteNBTEmpty()
         callCounter.assertCalledTimes( 1 );
     }
 
+    @Test
+    void testChangedLines()
+    {
+        Terminal terminal = new Terminal( 4, 3 );
+        assertNull( terminal.pollChangedLines(), "A new terminal should be sent in full" );
+
+        terminal.setCursorPos( 0, 1 );
+        terminal.write( "hi" );
+        BitSet lines = terminal.pollChangedLines();
+        assertNotNull( lines );
+        assertEquals( 1, lines.cardinality() );
+        assertTrue( lines.get( 1 ) );
+
+        assertEquals( 0, terminal.pollChangedLines().cardinality(), "Polling should reset changed lines" );
+
+        terminal.scroll( 1 );
+        assertNull( terminal.pollChangedLines(), "Scrolling should change the whole terminal" );
+    }
+
+    @Test
+    void testChangedLinesRoundtrip()
+    {
+        Terminal writeTerminal = new Terminal( 4, 3 );
+        writeTerminal.pollChangedLines();
+
+        writeTerminal.setCursorPos( 1, 2 );
+        blit( writeTerminal, "hi", "11", "ee" );
+        writeTerminal.setCursorPos( 3, 0 );
+
+        FriendlyByteBuf packetBuffer = new FriendlyByteBuf( Unpooled.buffer() );
+        writeTerminal.writeLines( packetBuffer, writeTerminal.pollChangedLines() );
+
+        CallCounter callCounter = new CallCounter();
+        Terminal readTerminal = new Terminal( 4, 3, callCounter );
+        readTerminal.readLines( packetBuffer );
+
+        assertThat( readTerminal, allOf(
+            textMatches( new String[] { "    ", "    ", " hi ", } ),
+            textColourMatches( new String[] { "0000", "0000", "0110", } ),
+            backgroundColourMatches( new String[] { "ffff", "ffff", "feef", } )
+        ) );
+
+        assertEquals( 3, readTerminal.getCursorX() );
+        assertEquals( 0, readTerminal.getCursorY() );
+        callCounter.assertCalledTimes( 1 );
+    }
+
     @Test
     void testGetColour()
     {
@@ -0,0 +1,155 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.IPacketSender;
+import dan200.computercraft.api.network.Packet;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of broadcasting a packet on a {@link WirelessNetwork} as the number of receivers grows. Receivers
+ * are spread uniformly over a 4096x4096 block area, with 5% of them being ender modems.
+ *
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag( "benchmark" )
+public class WirelessNetworkBenchmark
+{
+    private static final int AREA = 4096;
+    private static final double RANGE = 64;
+    private static final long DURATION = TimeUnit.SECONDS.toNanos( 2 );
+
+    @Test
+    public void receivers100()
+    {
+        run( 100 );
+    }
+
+    @Test
+    public void receivers1000()
+    {
+        run( 1000 );
+    }
+
+    @Test
+    public void receivers3000()
+    {
+        run( 3000 );
+    }
+
+    @Test
+    public void receivers10000()
+    {
+        run( 10000 );
+    }
+
+    private static void run( int count )
+    {
+        Random random = new Random( 0 );
+        WirelessNetwork network = new WirelessNetwork();
+        List<Device> devices = new ArrayList<>( count );
+        for( int i = 0; i < count; i++ )
+        {
+            Device device = new Device(
+                new Vec3( random.nextDouble() * AREA, random.nextDouble() * 256, random.nextDouble() * AREA ),
+                random.nextInt( 20 ) == 0
+            );
+            devices.add( device );
+            network.addReceiver( device );
+        }
+
+        // Warm up, and then measure.
+        broadcast( network, devices, random, DURATION );
+        long packets = broadcast( network, devices, random, DURATION );
+
+        System.out.printf(
+            "%d receivers: %.0f packets/s (%.2f us/packet)%n",
+            count, packets * 1e9 / DURATION, DURATION / 1e3 / packets
+        );
+    }
+
+    private static long broadcast( WirelessNetwork network, List<Device> devices, Random random, long duration )
+    {
+        long packets = 0;
+        long start = System.nanoTime();
+        while( System.nanoTime() - start < duration )
+        {
+            for( int i = 0; i < 100; i++ )
+            {
+                Device sender = devices.get( random.nextInt( devices.size() ) );
+                network.transmitSameDimension( new Packet( 1, 1, null, sender ), RANGE );
+            }
+            packets += 100;
+        }
+        return packets;
+    }
+
+    private static final class Device implements IPacketReceiver, IPacketSender
+    {
+        private final Vec3 position;
+        private final boolean interdimensional;
+
+        Device( Vec3 position, boolean interdimensional )
+        {
+            this.position = position;
+            this.interdimensional = interdimensional;
+        }
+
+        @Nonnull
+        @Override
+        @SuppressWarnings( "ConstantConditions" )
+        public Level getLevel()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3 getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return interdimensional ? Integer.MAX_VALUE : RANGE;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return interdimensional;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+
+        @Nonnull
+        @Override
+        public String getSenderID()
+        {
+            return "device";
+        }
+    }
+}
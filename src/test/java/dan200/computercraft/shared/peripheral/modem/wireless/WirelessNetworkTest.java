@@ -0,0 +1,122 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2022. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.IPacketSender;
+import dan200.computercraft.api.network.Packet;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.Vec3;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WirelessNetworkTest
+{
+    @Test
+    public void testReceivesInRange()
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Receiver near = new Receiver( new Vec3( 60, 0, 0 ), 64, false );
+        Receiver far = new Receiver( new Vec3( 200, 0, 0 ), 64, false );
+        Receiver farLongRange = new Receiver( new Vec3( -300, 0, 0 ), 384, false );
+        Receiver ender = new Receiver( new Vec3( 5000, 0, 5000 ), 0, true );
+        network.addReceiver( near );
+        network.addReceiver( far );
+        network.addReceiver( farLongRange );
+        network.addReceiver( ender );
+
+        network.transmitSameDimension( new Packet( 1, 1, null, new Receiver( Vec3.ZERO, 64, false ) ), 64 );
+
+        assertEquals( 1, near.received, "Near receiver should receive packet" );
+        assertEquals( 0, far.received, "Far receiver should not receive packet" );
+        assertEquals( 1, farLongRange.received, "Long-range receiver should receive packet" );
+        assertEquals( 1, ender.received, "Ender receiver should receive packet" );
+    }
+
+    @Test
+    public void testMovedReceiver()
+    {
+        WirelessNetwork.resetNetworks();
+        WirelessNetwork network = WirelessNetwork.getUniversal();
+        Receiver receiver = new Receiver( new Vec3( 1000, 0, 1000 ), 64, false );
+        network.addReceiver( receiver );
+
+        Packet packet = new Packet( 1, 1, null, new Receiver( Vec3.ZERO, 64, false ) );
+        network.transmitSameDimension( packet, 64 );
+        assertEquals( 0, receiver.received, "Receiver should not receive packet" );
+
+        receiver.position = new Vec3( 10, 0, 10 );
+        WirelessNetwork.updateNetworks();
+        network.transmitSameDimension( packet, 64 );
+        assertEquals( 1, receiver.received, "Receiver should receive packet once the index is updated" );
+
+        WirelessNetwork.resetNetworks();
+    }
+
+    private static final class Receiver implements IPacketReceiver, IPacketSender
+    {
+        Vec3 position;
+        final double range;
+        final boolean interdimensional;
+        int received;
+
+        Receiver( Vec3 position, double range, boolean interdimensional )
+        {
+            this.position = position;
+            this.range = range;
+            this.interdimensional = interdimensional;
+        }
+
+        @Nonnull
+        @Override
+        @SuppressWarnings( "ConstantConditions" )
+        public Level getLevel()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3 getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return range;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return interdimensional;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+            received++;
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+            received++;
+        }
+
+        @Nonnull
+        @Override
+        public String getSenderID()
+        {
+            return "receiver";
+        }
+    }
+}
@@ -98,6 +98,26 @@ describe("The peripheral library", function()
         end)
     end)
 
+    describe("peripheral.callBatch", function()
+        it("validates arguments", function()
+            peripheral.callBatch({})
+            expect.error(peripheral.callBatch, nil):eq("bad argument #1 (expected table, got nil)")
+            expect.error(peripheral.callBatch, { 1 }):eq("bad argument #1 (call #1 is not a table)")
+            expect.error(peripheral.callBatch, { { "top" } }):eq("bad argument #1 (call #1 must have a name and method)")
+        end)
+
+        it("returns an error for missing peripherals", function()
+            expect(peripheral.callBatch({ { "bottom", "isOpen", 1 } })):same { { false, "No peripheral: bottom" } }
+        end)
+
+        it_modem("returns the result of each call", function()
+            expect(peripheral.callBatch({ { "top", "isOpen", 1 }, { "top", "isOpen", false } })):same {
+                { true, false },
+                { false, "bad argument #1 (number expected, got boolean)" },
+            }
+        end)
+    end)
+
     describe("peripheral.wrap", function()
         it("validates arguments", function()
             peripheral.wrap("")
@@ -9,4 +9,11 @@ describe("The term library", function()
                   :eq("term is not a recommended redirect target, try term.current() instead")
         end)
     end)
+
+    describe("term.blitLines", function()
+        it("validates arguments", function()
+            expect.error(term.blitLines, { "a" }, { 1 }, { "a" }):eq("table item #1 is not string (got number)")
+            expect.error(term.blitLines, { "a" }, { "a" }, { "" }):eq("Line 1: arguments must be the same length")
+        end)
+    end)
 end)
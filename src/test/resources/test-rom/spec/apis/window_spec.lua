@@ -30,6 +30,69 @@ describe("The window library", function()
         end)
     end)
 
+    describe("Window.blitLines", function()
+        it("validates arguments", function()
+            local w = mk()
+            w.blitLines({ "a" }, { "a" }, { "a" })
+
+            expect.error(w.blitLines, nil):eq("bad argument #1 (expected table, got nil)")
+            expect.error(w.blitLines, {}, nil):eq("bad argument #2 (expected table, got nil)")
+            expect.error(w.blitLines, {}, {}, nil):eq("bad argument #3 (expected table, got nil)")
+            expect.error(w.blitLines, { "a" }, { 1 }, { "a" }):eq("table item #1 is not string (got number)")
+            expect.error(w.blitLines, { "a" }, { "a" }, { "" }):eq("Line 1: arguments must be the same length")
+        end)
+
+        it("draws lines without moving the cursor", function()
+            local w = mk()
+            w.setCursorPos(3, 4)
+            w.blitLines({ "ab", "cd" }, { "12", "34" }, { "AB", "CD" }, 2, 2)
+
+            expect({ w.getCursorPos() }):same { 3, 4 }
+            expect({ w.getLine(2) }):same { " ab  ", "01200", "fabff" }
+            expect({ w.getLine(3) }):same { " cd  ", "03400", "fcdff" }
+        end)
+
+        it("draws to the parent in one call", function()
+            local parent = mk()
+            local w = window.create(parent, 2, 2, 3, 3)
+            local blitLines, blit = stub(parent, "blitLines"), stub(parent, "blit")
+
+            w.blitLines({ "ab", "cd" }, { "12", "34" }, { "AB", "CD" }, 2, 2)
+
+            expect(blitLines):called(1)
+            expect(blitLines):called_with_matching({ " ab", " cd" }, { "012", "034" }, { "fab", "fcd" }, 2, 3)
+            expect(blit):called(0)
+        end)
+    end)
+
+    describe("Window.redraw", function()
+        it("draws to the parent in one call", function()
+            local parent = mk()
+            local w = window.create(parent, 2, 2, 3, 2, false)
+            w.blit("abc", "012", "fed")
+            local blitLines, blit = stub(parent, "blitLines"), stub(parent, "blit")
+
+            w.redraw()
+            expect(blitLines):called(0)
+
+            w.setVisible(true)
+            expect(blitLines):called(1)
+            expect(blitLines):called_with_matching({ "abc", "   " }, { "012", "000" }, { "fed", "fff" }, 2, 2)
+            expect(blit):called(0)
+        end)
+
+        it("draws line by line if the parent has no blitLines", function()
+            local parent = mk()
+            local w = window.create(parent, 2, 2, 3, 2, false)
+            stub(parent, "blitLines", nil)
+            local blit = stub(parent, "blit")
+
+            w.setVisible(true)
+            expect(blit):called(2)
+            expect(blit):called_with("   ", "000", "fff")
+        end)
+    end)
+
     describe("Window.setCursorPos", function()
         it("validates arguments", function()
             local w = mk()